@@ -0,0 +1,138 @@
+package tsp.genetic.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.entitites.TSPInstance;
+import tsp.genetic.fileio.FileIO;
+
+/**
+ * class that provides problem instances used by benchmarks,
+ * att48 and berlin52 are loaded from classpath and synthetic
+ * instances are generated from a fixed seed so that every run
+ * benchmarks the same coordinates. Synthetic instances are named
+ * "uniform-N" or "clustered-N" for N locations
+ */
+public final class BenchmarkInstances {
+
+    private static final double SIDE = 1_000_000.0; // side length of square synthetic locations are placed in
+    private static final long SEED = 20250529L; // seed of synthetic instances
+
+    private BenchmarkInstances() {
+    }
+
+    /**
+     * method to get problem instance with given name
+     *
+     * @param name att48, berlin52, uniform-N or clustered-N
+     * @return TSPInstance object with given name
+     */
+    public static TSPInstance load(String name) {
+        switch (name) {
+            case "att48":
+                return loadResource("att48TSP.csv", name, DistanceMetric.ATT);
+            case "berlin52":
+                return loadResource("berlin52TSP.csv", name, DistanceMetric.EUC_2D);
+            default:
+                break;
+        }
+
+        int separator = name.indexOf('-');
+        if (separator > 0) {
+            int size = Integer.parseInt(name.substring(separator + 1));
+            switch (name.substring(0, separator)) {
+                case "uniform":
+                    return uniform(name, size);
+                case "clustered":
+                    return clustered(name, size);
+                default:
+                    break;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown benchmark instance " + name + " !!");
+    }
+
+    private static TSPInstance loadResource(String resource, String name, DistanceMetric metric) {
+        try (InputStream inputStream = BenchmarkInstances.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Benchmark instance " + resource + " is not on classpath !!");
+            }
+
+            TSPInstance instance = FileIO.loadInstance(inputStream, metric);
+            return new TSPInstance(name, instance.getXCoordinates(), instance.getYCoordinates(), metric);
+        }
+
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * method to generate locations uniformly distributed in a square
+     */
+    private static TSPInstance uniform(String name, int size) {
+        SplittableRandom rng = new SplittableRandom(SEED + size);
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = Math.floor(rng.nextDouble() * SIDE);
+            ys[i] = Math.floor(rng.nextDouble() * SIDE);
+        }
+
+        return new TSPInstance(name, xs, ys, DistanceMetric.EUC_2D);
+    }
+
+    /**
+     * method to generate locations normally distributed around size / 100
+     * uniformly placed centers, in the manner of DIMACS clustered instances
+     */
+    private static TSPInstance clustered(String name, int size) {
+        SplittableRandom rng = new SplittableRandom(SEED - size);
+        int numberOfCenters = Math.max(1, size / 100);
+        double[] centerXs = new double[numberOfCenters];
+        double[] centerYs = new double[numberOfCenters];
+        for (int c = 0; c < numberOfCenters; c++) {
+            centerXs[c] = rng.nextDouble() * SIDE;
+            centerYs[c] = rng.nextDouble() * SIDE;
+        }
+
+        double deviation = SIDE / Math.sqrt(size);
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            int c = rng.nextInt(numberOfCenters);
+            xs[i] = Math.floor(centerXs[c] + deviation * rng.nextGaussian());
+            ys[i] = Math.floor(centerYs[c] + deviation * rng.nextGaussian());
+        }
+
+        return new TSPInstance(name, xs, ys, DistanceMetric.EUC_2D);
+    }
+
+    /**
+     * method to generate a random route visiting {@code size} locations
+     *
+     * @param size number of locations
+     * @param rng  random number generator to be used
+     * @return random permutation of 0-based location indexes
+     */
+    public static int[] randomRoute(int size, SplittableRandom rng) {
+        int[] route = new int[size];
+        for (int i = 0; i < size; i++) {
+            route[i] = i;
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int location = route[i];
+            route[i] = route[j];
+            route[j] = location;
+        }
+
+        return route;
+    }
+
+}
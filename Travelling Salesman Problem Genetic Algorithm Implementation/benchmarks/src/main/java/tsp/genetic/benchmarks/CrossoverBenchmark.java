@@ -0,0 +1,70 @@
+package tsp.genetic.benchmarks;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsp.genetic.context.CrossoverManager;
+import tsp.genetic.context.CrossoverType;
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * benchmark of each crossover operator producing two
+ * children from two random parents, Edge Assembly Crossover
+ * uses distances and candidate neighbors of the instance
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CrossoverBenchmark {
+
+    @Param({ "att48", "berlin52", "uniform-1000", "clustered-1000", "uniform-10000", "clustered-10000",
+            "uniform-100000", "clustered-100000" })
+    public String instance;
+
+    @Param
+    public CrossoverType crossoverType;
+
+    private CrossoverManager crossoverManager;
+    private Chromosome parent1;
+    private Chromosome parent2;
+    private SplittableRandom rng;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TSPInstance tspInstance = BenchmarkInstances.load(instance);
+        rng = new SplittableRandom(1);
+        crossoverManager = new CrossoverManager(1.0);
+        if (crossoverType == CrossoverType.EDGE_ASSEMBLY) {
+            GAContextManager contextManager = new GAContextManager(tspInstance, DistanceBackend.AUTO);
+            crossoverManager.setDistances(contextManager.getDistances(), contextManager.getNeighborLists());
+        }
+        parent1 = new Chromosome(BenchmarkInstances.randomRoute(tspInstance.getSize(), rng));
+        parent2 = new Chromosome(BenchmarkInstances.randomRoute(tspInstance.getSize(), rng));
+    }
+
+    @Benchmark
+    public List<Chromosome> applyCrossover() {
+        return crossoverManager.applyCrossover(parent1, parent2, crossoverType, rng);
+    }
+
+}
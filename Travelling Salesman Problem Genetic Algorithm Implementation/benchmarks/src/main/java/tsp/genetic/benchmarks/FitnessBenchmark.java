@@ -0,0 +1,56 @@
+package tsp.genetic.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * benchmark of full fitness evaluation of a random route
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FitnessBenchmark {
+
+    @Param({ "att48", "berlin52", "uniform-1000", "clustered-1000", "uniform-10000", "clustered-10000",
+            "uniform-100000", "clustered-100000" })
+    public String instance;
+
+    private DistanceProvider distances;
+    private Chromosome chromosome;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TSPInstance tspInstance = BenchmarkInstances.load(instance);
+        distances = DistanceProvider.create(DistanceBackend.AUTO, tspInstance.getXCoordinates(),
+                tspInstance.getYCoordinates(), tspInstance.getMetric());
+        chromosome = new Chromosome(BenchmarkInstances.randomRoute(tspInstance.getSize(), new SplittableRandom(1)));
+    }
+
+    @Benchmark
+    public double computeFitness() {
+        chromosome.computeFitness(distances);
+        return chromosome.getFitness();
+    }
+
+}
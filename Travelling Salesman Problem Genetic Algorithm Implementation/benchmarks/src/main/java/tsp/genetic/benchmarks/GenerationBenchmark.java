@@ -0,0 +1,67 @@
+package tsp.genetic.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsp.genetic.algorithm.TSPGA;
+import tsp.genetic.context.CrossoverManager;
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.context.MutationManager;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * benchmark of a single generation of genetic algorithm as run
+ * by runGeneticAlgorithm, population keeps evolving across invocations
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GenerationBenchmark {
+
+    @Param({ "att48", "berlin52", "uniform-1000", "clustered-1000", "uniform-10000", "clustered-10000",
+            "uniform-100000", "clustered-100000" })
+    public String instance;
+
+    @Param({ "50", "150", "500" })
+    public int populationSize;
+
+    @Param({ "true", "false" })
+    public boolean performLocalSearch;
+
+    private TSPGA tspGeneticAlgorithm;
+    private int generation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GAContextManager contextManager = new GAContextManager(BenchmarkInstances.load(instance),
+                DistanceBackend.AUTO);
+        tspGeneticAlgorithm = new TSPGA(contextManager, new CrossoverManager(0.9), new MutationManager(0.3));
+        tspGeneticAlgorithm.setVerbose(false);
+        tspGeneticAlgorithm.setSeed(1);
+        tspGeneticAlgorithm.initializePopulation(populationSize);
+        generation = 0;
+    }
+
+    @Benchmark
+    public Chromosome evolveGeneration() {
+        generation++;
+        return tspGeneticAlgorithm.evolveGeneration(generation, populationSize, performLocalSearch);
+    }
+
+}
@@ -0,0 +1,72 @@
+package tsp.genetic.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.entitites.TSPInstance;
+import tsp.genetic.localsearch.LocalSearchType;
+
+/**
+ * benchmark of local search applied to a fresh copy
+ * of the same random route at each invocation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocalSearchBenchmark {
+
+    @Param({ "att48", "berlin52", "uniform-1000", "clustered-1000", "uniform-10000", "clustered-10000",
+            "uniform-100000", "clustered-100000" })
+    public String instance;
+
+    @Param({ "5", "0" })
+    public int localSearchBudget;
+
+    @Param({ "TWO_OPT", "OR_OPT", "OR_THREE_OPT", "VND", "LIN_KERNIGHAN" })
+    public LocalSearchType localSearchType;
+
+    private GAContextManager contextManager;
+    private Chromosome route;
+    private Chromosome chromosome;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TSPInstance tspInstance = BenchmarkInstances.load(instance);
+        contextManager = new GAContextManager(tspInstance, DistanceBackend.AUTO);
+        contextManager.setLocalSearchBudget(localSearchBudget);
+        contextManager.setLocalSearchType(localSearchType);
+        route = new Chromosome(BenchmarkInstances.randomRoute(tspInstance.getSize(), new SplittableRandom(1)));
+        route.computeFitness(contextManager.getDistances());
+    }
+
+    @Setup(Level.Invocation)
+    public void copyRoute() {
+        chromosome = new Chromosome(route);
+    }
+
+    @Benchmark
+    public double applyLocalSearch() {
+        contextManager.applyLocalSearch(chromosome);
+        return chromosome.getTourLength();
+    }
+
+}
@@ -0,0 +1,67 @@
+package tsp.genetic.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsp.genetic.context.MutationManager;
+import tsp.genetic.context.MutationType;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * benchmark of each mutation operator including incremental
+ * update of tour length, the same route keeps being mutated
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MutationBenchmark {
+
+    @Param({ "att48", "berlin52", "uniform-1000", "clustered-1000", "uniform-10000", "clustered-10000",
+            "uniform-100000", "clustered-100000" })
+    public String instance;
+
+    @Param
+    public MutationType mutationType;
+
+    private MutationManager mutationManager;
+    private DistanceProvider distances;
+    private Chromosome chromosome;
+    private SplittableRandom rng;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TSPInstance tspInstance = BenchmarkInstances.load(instance);
+        distances = DistanceProvider.create(DistanceBackend.AUTO, tspInstance.getXCoordinates(),
+                tspInstance.getYCoordinates(), tspInstance.getMetric());
+        rng = new SplittableRandom(1);
+        mutationManager = new MutationManager(1.0);
+        chromosome = new Chromosome(BenchmarkInstances.randomRoute(tspInstance.getSize(), rng));
+        chromosome.computeFitness(distances);
+    }
+
+    @Benchmark
+    public double applyMutation() {
+        mutationManager.applyMutation(chromosome, mutationType, rng, distances);
+        return chromosome.getTourLength();
+    }
+
+}
@@ -0,0 +1,108 @@
+package tsp.genetic.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * benchmark of parent selection, both the legacy call preparing
+ * selection data for each pair and a single selection from data
+ * prepared once per generation, and of (μ+λ) survivor selection
+ * from population and as many offspring. Population is restored
+ * before each survivor selection, so every call merges offspring
+ * that are not already part of population
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SelectionBenchmark {
+
+    @Param({ "att48", "berlin52", "uniform-1000", "clustered-1000", "uniform-10000", "clustered-10000",
+            "uniform-100000", "clustered-100000" })
+    public String instance;
+
+    @Param({ "50", "150", "500" })
+    public int populationSize;
+
+    private GAContextManager contextManager;
+    private SplittableRandom rng;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contextManager = new GAContextManager(BenchmarkInstances.load(instance), DistanceBackend.AUTO);
+        rng = new SplittableRandom(1);
+        contextManager.generatePopulation(populationSize, rng);
+        contextManager.prepareSelection();
+    }
+
+    @Benchmark
+    public List<Chromosome> selectParents() {
+        return contextManager.selectParents();
+    }
+
+    @Benchmark
+    public Chromosome selectParent() {
+        return contextManager.selectParent(rng, null);
+    }
+
+    @Benchmark
+    public List<Chromosome> selectSurvivors(Survivors survivors) {
+        contextManager.selectSurvivors(survivors.offspring, populationSize, 1);
+        return contextManager.getPopulation();
+    }
+
+    /**
+     * class that keeps offspring merged by survivor selection and the
+     * population generated at trial setup, which is restored before each
+     * invocation. Only survivor selection uses this state, so selecting
+     * parents is measured without per-invocation setup
+     */
+    @State(Scope.Thread)
+    public static class Survivors {
+
+        private ArrayList<Chromosome> population; // population generated at trial setup
+        private ArrayList<Chromosome> offspring; // as many random children as population size
+
+        @Setup(Level.Trial)
+        public void setUp(SelectionBenchmark benchmark) {
+            population = new ArrayList<>(benchmark.contextManager.getPopulation());
+            offspring = new ArrayList<>();
+            int size = benchmark.contextManager.getInstance().getSize();
+            for (int i = 0; i < benchmark.populationSize; i++) {
+                Chromosome child = new Chromosome(BenchmarkInstances.randomRoute(size, benchmark.rng));
+                child.computeFitness(benchmark.contextManager.getDistances());
+                offspring.add(child);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void restorePopulation(SelectionBenchmark benchmark) {
+            ArrayList<Chromosome> current = benchmark.contextManager.getPopulation();
+            current.clear();
+            current.addAll(population);
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package tsp.genetic.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * class that tests that ProgressPublisher does not lose best routes
+ * for a subscriber that falls behind: events are dropped while the
+ * subscriber is blocked, but the newest best route must still be the
+ * last route it receives, whether the run ends with an event carrying
+ * that route or with events that do not carry a route
+ */
+class ProgressPublisherTest {
+
+    private static final int GENERATIONS = 1000; // events published per run
+
+    @Test
+    void lastRouteReachesBlockedSubscriber() throws InterruptedException {
+        assertLastRoute(new int[] { 1, 10, 500, GENERATIONS });
+        assertLastRoute(new int[] { 1, 10, 500 });
+    }
+
+    /**
+     * helper method to publish one event per generation to a subscriber
+     * blocked until all events are published, events of generations in
+     * {@code improvements} carry a route identifying the generation
+     */
+    private static void assertLastRoute(int[] improvements) throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ProgressPublisher publisher = new ProgressPublisher(true, executor, 1);
+            BlockedSubscriber subscriber = new BlockedSubscriber();
+            publisher.subscribe(subscriber);
+
+            int improvement = 0;
+            for (int generation = 1; generation <= GENERATIONS; generation++) {
+                int[] route = null;
+                if (improvement < improvements.length && improvements[improvement] == generation) {
+                    route = new int[] { generation };
+                    improvement++;
+                }
+                publisher.onProgress(new ProgressEvent(generation, 1.0, 1.0, 0.0, 0L, route));
+            }
+
+            subscriber.release.countDown();
+            publisher.close();
+            assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS), "subscriber not completed");
+            assertTrue(subscriber.received < GENERATIONS, "no event was dropped");
+            assertArrayEquals(new int[] { improvements[improvements.length - 1] }, subscriber.lastRoute);
+        }
+
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * class of subscriber blocking on its first event until released,
+     * so that the publisher's buffer fills up and events are dropped
+     */
+    private static class BlockedSubscriber implements Flow.Subscriber<ProgressEvent> {
+
+        private final CountDownLatch release = new CountDownLatch(1); // opened once all events are published
+        private final CountDownLatch completed = new CountDownLatch(1); // opened when publisher is closed
+        private volatile int received; // number of events received
+        private volatile int[] lastRoute; // route of last event carrying one, null if none
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ProgressEvent event) {
+            try {
+                release.await();
+            }
+
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            received++;
+            if (event.hasBestRoute()) {
+                lastRoute = event.getBestRoute();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package tsp.genetic.context;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.distance.FullDistanceMatrix;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.localsearch.NeighborLists;
+
+/**
+ * class that tests Edge Assembly Crossover on random instances:
+ * each child must be a permutation of locations and the tour length
+ * it tracks must match the length computed from its route. Parents are
+ * both random tours, which give many AB-cycles, and tours differing by
+ * a few inversions, which are close to each other as in a late population
+ */
+class EdgeAssemblyCrossoverTest {
+
+    private static final int[] SIZES = { 5, 6, 7, 10, 20, 50, 200 }; // instance sizes tested
+    private static final int PAIRS = 200; // pairs of parents crossed per instance and candidate neighbor count
+
+    @Test
+    void producesValidChildrenWithTrackedTourLength() {
+        SplittableRandom rng = new SplittableRandom(11);
+        EdgeAssemblyCrossover crossover = new EdgeAssemblyCrossover();
+        for (int size : SIZES) {
+            DistanceProvider distances = randomInstance(size, rng);
+            // no candidate neighbors tries all locations, few of them often falls back to all locations
+            NeighborLists[] candidates = { null, new NeighborLists(distances, Math.min(3, size - 1)) };
+            for (NeighborLists neighborLists : candidates) {
+                for (int pair = 0; pair < PAIRS; pair++) {
+                    Chromosome parentA = randomTour(size, rng, distances);
+                    Chromosome parentB = (pair % 2 == 0) ? randomTour(size, rng, distances)
+                            : invertedCopy(parentA, rng, distances);
+                    Chromosome child = crossover.apply(parentA, parentB, rng, distances, neighborLists);
+
+                    assertTrue(isPermutation(child.getLocOrder()), "child route of size " + size);
+                    assertTrue(child.hasTourLength(), "child tour length of size " + size);
+                    double computedTourLength = child.computeTourLength(distances);
+                    assertEquals(computedTourLength, child.getTourLength(), 1e-6 * computedTourLength,
+                            "tracked tour length of size " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void copiesParentWithSameEdges() {
+        SplittableRandom rng = new SplittableRandom(13);
+        DistanceProvider distances = randomInstance(30, rng);
+        Chromosome parent = randomTour(30, rng, distances);
+        Chromosome child = new EdgeAssemblyCrossover().apply(parent, new Chromosome(parent), rng, distances, null);
+
+        assertArrayEquals(parent.getLocOrder(), child.getLocOrder());
+        assertEquals(parent.getTourLength(), child.getTourLength());
+    }
+
+    private static DistanceProvider randomInstance(int size, SplittableRandom rng) {
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = rng.nextInt(10000);
+            ys[i] = rng.nextInt(10000);
+        }
+
+        return new FullDistanceMatrix(xs, ys, DistanceMetric.EUC_2D);
+    }
+
+    private static Chromosome randomTour(int size, SplittableRandom rng, DistanceProvider distances) {
+        int[] route = new int[size];
+        for (int i = 0; i < size; i++) {
+            route[i] = i;
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int temp = route[i];
+            route[i] = route[j];
+            route[j] = temp;
+        }
+
+        Chromosome chr = new Chromosome(route);
+        chr.computeFitness(distances);
+
+        return chr;
+    }
+
+    /**
+     * helper method to copy {@code parent} and invert up to
+     * three random segments of the copy
+     */
+    private static Chromosome invertedCopy(Chromosome parent, SplittableRandom rng, DistanceProvider distances) {
+        int[] route = parent.getLocOrder().clone();
+        int inversions = 1 + rng.nextInt(3);
+        for (int inversion = 0; inversion < inversions; inversion++) {
+            int i = rng.nextInt(route.length);
+            int j = rng.nextInt(route.length);
+            for (int low = Math.min(i, j), high = Math.max(i, j); low < high; low++, high--) {
+                int temp = route[low];
+                route[low] = route[high];
+                route[high] = temp;
+            }
+        }
+
+        Chromosome chr = new Chromosome(route);
+        chr.computeFitness(distances);
+
+        return chr;
+    }
+
+    private static boolean isPermutation(int[] route) {
+        boolean[] visited = new boolean[route.length];
+        for (int loc : route) {
+            if (loc < 0 || loc >= route.length || visited[loc]) {
+                return false;
+            }
+
+            visited[loc] = true;
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,184 @@
+package tsp.genetic.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * class that tests (μ+λ) survivor selection of GAContextManager against
+ * a full sort of population and offspring. Survivors must be the best
+ * different tours, filled up with the best duplicates when there are fewer
+ * different tours than survivors, and the sorted prefix must hold the best
+ * survivors in decreasing fitness order. Individuals of equal fitness may
+ * be kept in any order, so kept sets are compared by their fitness values.
+ * Inputs are random, tie-heavy and all-equal in fitness, with few or many
+ * different tours
+ */
+class SurvivorSelectionTest {
+
+    private static final int LOCATIONS = 8; // number of locations of routes
+    private static final int CASES = 3000; // random cases per duplicate elimination setting
+    private static final double[] TIED_LENGTHS = { 100.0, 101.0, 102.0 }; // tour lengths of tie-heavy inputs
+
+    @Test
+    void keepsBestDifferentToursAndSortsPrefix() {
+        SplittableRandom rng = new SplittableRandom(17);
+        GAContextManager contextManager = new GAContextManager(randomInstance(rng), DistanceBackend.FULL_MATRIX);
+        for (boolean eliminateDuplicates : new boolean[] { true, false }) {
+            contextManager.setEliminateDuplicates(eliminateDuplicates);
+            for (int c = 0; c < CASES; c++) {
+                int[][] routes = randomRoutes(rng, (rng.nextInt(3) == 0) ? 1 + rng.nextInt(4) : 500);
+                int fitnessMode = rng.nextInt(3);
+                ArrayList<Chromosome> population = contextManager.getPopulation();
+                population.clear();
+                int populationCount = 1 + rng.nextInt(150);
+                for (int i = 0; i < populationCount; i++) {
+                    population.add(randomIndividual(rng, routes, fitnessMode));
+                }
+
+                ArrayList<Chromosome> offspring = new ArrayList<>();
+                int offspringCount = rng.nextInt(150);
+                for (int i = 0; i < offspringCount; i++) {
+                    offspring.add(randomIndividual(rng, routes, fitnessMode));
+                }
+
+                int size = populationCount + offspringCount;
+                int populationSize = 1 + rng.nextInt(size + 10);
+                int sortedCount = rng.nextInt(populationSize + 10);
+                List<Chromosome> candidates = new ArrayList<>(population);
+                candidates.addAll(offspring);
+
+                contextManager.selectSurvivors(offspring, populationSize, sortedCount);
+                assertSurvivors(candidates, contextManager.getPopulation(), populationSize, sortedCount,
+                        eliminateDuplicates);
+            }
+        }
+    }
+
+    /**
+     * helper method to compare survivors with the best different tours and
+     * best duplicates found by sorting {@code candidates}, the first candidate
+     * having a tour hash counts as different tour as population comes first
+     */
+    private static void assertSurvivors(List<Chromosome> candidates, List<Chromosome> survivors, int populationSize,
+            int sortedCount, boolean eliminateDuplicates) {
+        IdentityHashMap<Chromosome, Boolean> isUnique = new IdentityHashMap<>();
+        ArrayList<Double> uniqueFitnesses = new ArrayList<>();
+        ArrayList<Double> duplicateFitnesses = new ArrayList<>();
+        HashSet<Long> hashes = new HashSet<>();
+        for (Chromosome chr : candidates) {
+            boolean unique = !eliminateDuplicates || hashes.add(chr.getTourHash());
+            isUnique.put(chr, unique);
+            (unique ? uniqueFitnesses : duplicateFitnesses).add(chr.getFitness());
+        }
+
+        int expectedCount = Math.min(populationSize, candidates.size());
+        String context = "candidates " + candidates.size() + ", different " + uniqueFitnesses.size()
+                + ", survivors " + populationSize + ", sorted " + sortedCount;
+        assertEquals(expectedCount, survivors.size(), context);
+
+        // kept individuals are distinct candidates, split into different tours and duplicates
+        IdentityHashMap<Chromosome, Boolean> kept = new IdentityHashMap<>();
+        ArrayList<Double> keptUniqueFitnesses = new ArrayList<>();
+        ArrayList<Double> keptDuplicateFitnesses = new ArrayList<>();
+        for (Chromosome chr : survivors) {
+            Boolean unique = isUnique.get(chr);
+            assertNotNull(unique, "survivor is not a candidate, " + context);
+            assertTrue(kept.put(chr, Boolean.TRUE) == null, "survivor kept twice, " + context);
+            (unique ? keptUniqueFitnesses : keptDuplicateFitnesses).add(chr.getFitness());
+        }
+
+        int uniqueKept = Math.min(expectedCount, uniqueFitnesses.size());
+        assertEquals(best(uniqueFitnesses, uniqueKept), descending(keptUniqueFitnesses), "different tours, " + context);
+        assertEquals(best(duplicateFitnesses, expectedCount - uniqueKept), descending(keptDuplicateFitnesses),
+                "duplicates, " + context);
+
+        // sorted prefix holds the best survivors in decreasing order, best survivor first
+        int sorted = Math.min(Math.max(sortedCount, 1), expectedCount);
+        for (int i = 1; i < sorted; i++) {
+            assertTrue(survivors.get(i - 1).getFitness() >= survivors.get(i).getFitness(),
+                    "sorted prefix at " + i + ", " + context);
+        }
+
+        for (int i = sorted; i < expectedCount; i++) {
+            assertTrue(survivors.get(sorted - 1).getFitness() >= survivors.get(i).getFitness(),
+                    "survivor " + i + " after sorted prefix, " + context);
+        }
+    }
+
+    private static List<Double> best(List<Double> fitnesses, int count) {
+        return descending(fitnesses).subList(0, count);
+    }
+
+    private static List<Double> descending(List<Double> fitnesses) {
+        ArrayList<Double> sortedFitnesses = new ArrayList<>(fitnesses);
+        sortedFitnesses.sort(Collections.reverseOrder());
+        return sortedFitnesses;
+    }
+
+    /**
+     * helper method to create an individual with one of {@code routes}
+     * and a random tour length: continuous, one of a few values or the
+     * same for all individuals depending on {@code fitnessMode}
+     */
+    private static Chromosome randomIndividual(SplittableRandom rng, int[][] routes, int fitnessMode) {
+        Chromosome chr = new Chromosome(routes[rng.nextInt(routes.length)].clone());
+        if (fitnessMode == 0) {
+            chr.setTourLength(100.0 + rng.nextDouble(100.0));
+        }
+
+        else if (fitnessMode == 1) {
+            chr.setTourLength(TIED_LENGTHS[rng.nextInt(TIED_LENGTHS.length)]);
+        }
+
+        else {
+            chr.setTourLength(100.0);
+        }
+
+        return chr;
+    }
+
+    private static int[][] randomRoutes(SplittableRandom rng, int count) {
+        int[][] routes = new int[count][LOCATIONS];
+        for (int[] route : routes) {
+            for (int i = 0; i < LOCATIONS; i++) {
+                route[i] = i;
+            }
+
+            for (int i = LOCATIONS - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                int temp = route[i];
+                route[i] = route[j];
+                route[j] = temp;
+            }
+        }
+
+        return routes;
+    }
+
+    private static TSPInstance randomInstance(SplittableRandom rng) {
+        double[] xs = new double[LOCATIONS];
+        double[] ys = new double[LOCATIONS];
+        for (int i = 0; i < LOCATIONS; i++) {
+            xs[i] = rng.nextInt(1000);
+            ys[i] = rng.nextInt(1000);
+        }
+
+        return new TSPInstance("random", xs, ys, DistanceMetric.EUC_2D);
+    }
+
+}
@@ -0,0 +1,196 @@
+package tsp.genetic.fileio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.entitites.Point;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * class that tests InstanceParser on csv and TSPLIB input. Numbers
+ * must be converted to exactly the same double as Double.parseDouble,
+ * whether they take the exact fast path or fall back to it: mantissas
+ * at or above 2^53, more than 22 fraction digits, exponents and signs.
+ * Input read through a channel must give the same result as input
+ * kept in a single buffer, also when numbers span two buffer fills
+ */
+class InstanceParserTest {
+
+    // numbers around the limits of the exact conversion
+    private static final String[] NUMBERS = { "0", "-0", "-0.0", "+0.0", "7", "+12.5", "-3.25", ".5", "5.", "00012",
+            "9007199254740991", "9007199254740992", "9007199254740993", "-9007199254740993", "90071992547409930",
+            "9007199254740993.5", "900719925.47409925", "123456789012345678901234567890", "0.1", "0.3",
+            "0.1234567890123456789012", "0.12345678901234567890123456789",
+            "1.00000000000000011102230246251565404236316680908203125", "3.141592653589793238462643383279", "1e22",
+            "1e23", "1E-22", "1e-23", "1.5e-22", "-3.25E+2", "2.5e+10", "12345e-5", "4.9e-324",
+            "2.2250738585072014E-308", "1.7976931348623157e308", "1e400", "1e-400", "1e100000000" };
+    private static final int RANDOM_NUMBERS = 20000; // random numbers compared with Double.parseDouble
+
+    @Test
+    void numbersMatchParseDouble() throws IOException {
+        for (String number : NUMBERS) {
+            assertSameDouble(number);
+        }
+
+        SplittableRandom rng = new SplittableRandom(3);
+        for (int i = 0; i < RANDOM_NUMBERS; i++) {
+            assertSameDouble(randomNumber(rng));
+        }
+    }
+
+    @Test
+    void csvSeparatorsAndLineBreaks() throws IOException {
+        TSPInstance instance = parse("1,2\n3;4\r\n5\t6\n 7 , 8 \r\n9 ;\t10\n11 12,13\n\n\r\n-14,+15");
+
+        assertArrayEquals(new double[] { 1, 3, 5, 7, 9, 11, -14 }, instance.getXCoordinates());
+        assertArrayEquals(new double[] { 2, 4, 6, 8, 10, 12, 15 }, instance.getYCoordinates());
+        assertEquals("test", instance.getName());
+        assertEquals(DistanceMetric.EUC_2D, instance.getMetric());
+    }
+
+    @Test
+    void tsplibSectionEndsAtEofOrDimension() throws IOException {
+        String header = "NAME : square\r\nCOMMENT : four corners\r\nTYPE : TSP\r\nEDGE_WEIGHT_TYPE : ATT\r\n";
+        String section = "NODE_COORD_SECTION\r\n1 0 0\r\n2 1.5e1 0\r\n3\t15\t15\r\n4 0 15\r\n";
+        double[] xs = { 0, 15, 15, 0 };
+        double[] ys = { 0, 0, 15, 15 };
+
+        // without DIMENSION, section ends at EOF keyword or at end of input
+        for (String text : new String[] { header + section + "EOF\r\n", header + section, header + section + "EOF" }) {
+            TSPInstance instance = parse(text);
+            assertEquals("square", instance.getName());
+            assertEquals(DistanceMetric.ATT, instance.getMetric());
+            assertArrayEquals(xs, instance.getXCoordinates());
+            assertArrayEquals(ys, instance.getYCoordinates());
+        }
+
+        // with DIMENSION, section ends after DIMENSION locations and the rest is not read
+        TSPInstance instance = parse(header + "DIMENSION : 4\n" + section + "5 99 99\nnot parsed");
+        assertArrayEquals(xs, instance.getXCoordinates());
+        assertArrayEquals(ys, instance.getYCoordinates());
+
+        instance = parse(header + "DIMENSION: 3\n" + section + "EOF\n");
+        assertArrayEquals(new double[] { 0, 15, 15 }, instance.getXCoordinates());
+
+        assertThrows(IOException.class, () -> parse(header + "DIMENSION : 5\n" + section + "EOF\n"));
+        assertThrows(IOException.class, () -> parse(header + "DIMENSION : four\n" + section));
+        assertThrows(IOException.class, () -> parse(header + "EOF\n" + section));
+        assertThrows(IOException.class, () -> parse("NAME : empty\nTYPE : TSP\n"));
+        assertThrows(IOException.class, () -> parse("EDGE_WEIGHT_TYPE : MAN_2D\n" + section));
+    }
+
+    @Test
+    void malformedNumbersAreReported() {
+        for (String text : new String[] { "1,x\n", "1,\n", "-,2\n", "1e,2\n", "1,2e+\n", "1,2\n.,3\n" }) {
+            IOException e = assertThrows(IOException.class, () -> parse(text), text);
+            assertTrue(e.getMessage().startsWith("Malformed instance at line "), e.getMessage());
+        }
+    }
+
+    @Test
+    void channelInputMatchesBufferInput() throws IOException {
+        // input several times larger than the channel buffer, so numbers span buffer fills
+        SplittableRandom rng = new SplittableRandom(4);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append(randomNumber(rng)).append(rng.nextBoolean() ? "," : " ; ").append(randomNumber(rng))
+                    .append(rng.nextBoolean() ? "\n" : "\r\n");
+        }
+
+        TSPInstance fromBuffer = parse(text.toString());
+        TSPInstance fromChannel = FileIO.loadInstance(
+                new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.US_ASCII)), DistanceMetric.EUC_2D);
+
+        assertEquals(20000, fromChannel.getSize());
+        assertArrayEquals(fromBuffer.getXCoordinates(), fromChannel.getXCoordinates());
+        assertArrayEquals(fromBuffer.getYCoordinates(), fromChannel.getYCoordinates());
+    }
+
+    @Test
+    void malformedCsvFileIsNotIgnored(@TempDir Path directory) throws IOException {
+        Path csvFile = directory.resolve("malformed.csv");
+        Files.writeString(csvFile, "1,2\n3,x\n");
+        ArrayList<Point> coordinates = new ArrayList<>();
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> FileIO.parseCSVFileAndCreateCoordinates(csvFile.toString(), coordinates));
+        assertTrue(e.getCause().getMessage().startsWith("Malformed instance at line 2"), e.getCause().getMessage());
+        assertThrows(UncheckedIOException.class, () -> FileIO
+                .parseCSVFileAndCreateCoordinates(directory.resolve("missing.csv").toString(), coordinates));
+        assertEquals(0, coordinates.size());
+    }
+
+    /**
+     * helper method to parse {@code number} as x coordinate of a csv
+     * line and compare it bit by bit with Double.parseDouble
+     */
+    private static void assertSameDouble(String number) throws IOException {
+        double expected = Double.parseDouble(number);
+        double parsed = parse(number + "," + number + "\n").getXCoordinates()[0];
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(parsed),
+                number + " parsed as " + parsed + " instead of " + expected);
+    }
+
+    /**
+     * helper method to create a random decimal number with optional sign,
+     * up to 20 integer digits, up to 30 fraction digits and optional exponent
+     */
+    private static String randomNumber(SplittableRandom rng) {
+        StringBuilder number = new StringBuilder();
+        int sign = rng.nextInt(3);
+        if (sign > 0) {
+            number.append((sign == 1) ? '-' : '+');
+        }
+
+        int integerDigits = rng.nextInt(21);
+        int fractionDigits = rng.nextInt(31);
+        if (integerDigits == 0 && fractionDigits == 0) {
+            integerDigits = 1;
+        }
+
+        for (int i = 0; i < integerDigits; i++) {
+            number.append((char) ('0' + rng.nextInt(10)));
+        }
+
+        if (fractionDigits > 0 || rng.nextBoolean()) {
+            number.append('.');
+        }
+
+        for (int i = 0; i < fractionDigits; i++) {
+            number.append((char) ('0' + rng.nextInt(10)));
+        }
+
+        if (rng.nextInt(3) == 0) {
+            number.append(rng.nextBoolean() ? 'e' : 'E');
+            int exponentSign = rng.nextInt(3);
+            if (exponentSign > 0) {
+                number.append((exponentSign == 1) ? '-' : '+');
+            }
+            number.append(rng.nextInt(40));
+        }
+
+        return number.toString();
+    }
+
+    private static TSPInstance parse(String text) throws IOException {
+        return new InstanceParser(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII))).parse("test",
+                DistanceMetric.EUC_2D);
+    }
+
+}
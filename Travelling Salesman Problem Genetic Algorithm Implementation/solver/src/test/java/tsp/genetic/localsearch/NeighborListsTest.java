@@ -0,0 +1,71 @@
+package tsp.genetic.localsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.distance.FullDistanceMatrix;
+import tsp.genetic.distance.LazyDistanceMatrix;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * class that tests building of candidate neighbor lists from
+ * coordinates: lists must match lists built from a distance matrix,
+ * and a context manager using lazily computed distances must not
+ * compute any row of distances while building them
+ */
+class NeighborListsTest {
+
+    private static final int SIZE = 500; // number of locations of random instances
+    private static final int K = 10; // number of candidate neighbors
+
+    @Test
+    void listsFromCoordinatesMatchListsFromDistances() {
+        SplittableRandom rng = new SplittableRandom(5);
+        for (DistanceMetric metric : new DistanceMetric[] { DistanceMetric.EUC_2D, DistanceMetric.ATT,
+                DistanceMetric.CEIL_2D }) {
+            TSPInstance instance = randomInstance(rng, metric);
+            double[] xs = instance.getXCoordinates();
+            double[] ys = instance.getYCoordinates();
+            NeighborLists fromDistances = new NeighborLists(new FullDistanceMatrix(xs, ys, metric), K);
+            NeighborLists fromCoordinates = new NeighborLists(xs, ys, metric, K);
+
+            assertEquals(fromDistances.getNeighborCount(), fromCoordinates.getNeighborCount());
+            for (int loc = 0; loc < SIZE; loc++) {
+                for (int rank = 0; rank < K; rank++) {
+                    assertEquals(fromDistances.getNeighbor(loc, rank), fromCoordinates.getNeighbor(loc, rank),
+                            metric + " neighbor " + rank + " of " + loc);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lazyDistancesAreNotComputedByConstruction() {
+        TSPInstance instance = randomInstance(new SplittableRandom(6), DistanceMetric.EUC_2D);
+        GAContextManager contextManager = new GAContextManager(instance, DistanceBackend.LAZY);
+        contextManager.setCandidateNeighbors(K + 2);
+
+        assertTrue(contextManager.getDistances() instanceof LazyDistanceMatrix);
+        assertEquals(0, ((LazyDistanceMatrix) contextManager.getDistances()).getComputedRows());
+        assertEquals(K + 2, contextManager.getNeighborLists().getNeighborCount());
+    }
+
+    private static TSPInstance randomInstance(SplittableRandom rng, DistanceMetric metric) {
+        double[] xs = new double[SIZE];
+        double[] ys = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            xs[i] = rng.nextInt(10000);
+            ys[i] = rng.nextInt(10000);
+        }
+
+        return new TSPInstance("random", xs, ys, metric);
+    }
+
+}
@@ -0,0 +1,192 @@
+package tsp.genetic.localsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that tests TwoLevelListTour against ArrayTour, which is
+ * taken as reference. Both tours are loaded with the same random
+ * route and given the same random 2-opt and segment exchange moves,
+ * after each move they must describe the same cycle. Orientation of
+ * the cycles may differ, as it is not specified after a 2-opt move
+ */
+class TwoLevelListTourTest {
+
+    private static final int[] SIZES = { 3, 4, 5, 6, 7, 8, 9, 13, 17, 31, 64, 100, 257, 1000 }; // route sizes tested
+    private static final int TRIALS = 10; // random routes per size
+    private static final int BETWEEN_QUERIES = 20; // random between queries after each move
+
+    @Test
+    void matchesArrayTourUnderRandomMoves() {
+        SplittableRandom rng = new SplittableRandom(7);
+        for (int size : SIZES) {
+            for (int trial = 0; trial < TRIALS; trial++) {
+                int[] route = randomRoute(size, rng);
+                int[] arrayRoute = route.clone();
+                int[] listRoute = route.clone();
+                ArrayTour arrayTour = new ArrayTour();
+                TwoLevelListTour listTour = new TwoLevelListTour();
+                arrayTour.load(arrayRoute);
+                listTour.load(listRoute);
+
+                int moves = (size < 100) ? 300 : 2000;
+                for (int move = 0; move < moves; move++) {
+                    if (size >= 6 && rng.nextInt(4) == 0) {
+                        applySegmentExchangeMove(arrayTour, listTour, size, rng);
+                    }
+
+                    else {
+                        applyTwoOptMove(arrayTour, listTour, size, rng);
+                    }
+
+                    assertSameCycle(arrayTour, listTour, size, rng);
+                }
+
+                assertEquals(arrayTour.hashDelta(), listTour.hashDelta(), "hash delta of size " + size);
+
+                // stored routes have the same edges and hash delta updates hash of loaded route
+                arrayTour.store();
+                listTour.store();
+                assertTrue(isPermutation(listRoute), "stored route of size " + size);
+                assertEquals(edges(arrayRoute), edges(listRoute), "stored edges of size " + size);
+                long storedHash = new Chromosome(route).computeTourHash() ^ listTour.hashDelta();
+                assertEquals(new Chromosome(listRoute).computeTourHash(), storedHash, "tour hash of size " + size);
+            }
+        }
+    }
+
+    /**
+     * helper method to apply a random 2-opt move to both tours, second
+     * locations of removed edges are successors of first ones on
+     * ArrayTour and may be predecessors on TwoLevelListTour
+     */
+    private static void applyTwoOptMove(ArrayTour arrayTour, TwoLevelListTour listTour, int size,
+            SplittableRandom rng) {
+        boolean forward = rng.nextBoolean();
+        int loc1 = rng.nextInt(size);
+        int loc2 = forward ? arrayTour.next(loc1) : arrayTour.prev(loc1);
+        int loc3 = rng.nextInt(size);
+        int loc4 = forward ? arrayTour.next(loc3) : arrayTour.prev(loc3);
+        if (loc3 == loc1 || loc3 == loc2 || loc4 == loc1) {
+            return;
+        }
+
+        arrayTour.twoOptMove(loc1, loc2, loc3, loc4);
+        listTour.twoOptMove(loc1, loc2, loc3, loc4);
+    }
+
+    /**
+     * helper method to apply a random segment exchange move to both
+     * tours, locations are taken in forward order of ArrayTour
+     */
+    private static void applySegmentExchangeMove(ArrayTour arrayTour, TwoLevelListTour listTour, int size,
+            SplittableRandom rng) {
+        int[] sequence = new int[size];
+        sequence[0] = rng.nextInt(size);
+        for (int i = 1; i < size; i++) {
+            sequence[i] = arrayTour.next(sequence[i - 1]);
+        }
+
+        // a = sequence[i], c = sequence[j], e = sequence[k] with i < j < k
+        int i = rng.nextInt(size - 2);
+        int j = i + 1 + rng.nextInt(size - 2 - i);
+        int k = j + 1 + rng.nextInt(size - 1 - j);
+        if (k >= size) {
+            return;
+        }
+
+        int a = sequence[i];
+        int b = sequence[i + 1];
+        int c = sequence[j];
+        int d = sequence[j + 1];
+        int e = sequence[k];
+        int f = sequence[(k + 1) % size];
+        if (f == a || b == d || d == f) {
+            return;
+        }
+
+        boolean reverseFirst = rng.nextBoolean();
+        arrayTour.segmentExchangeMove(a, b, c, d, e, f, reverseFirst);
+        listTour.segmentExchangeMove(a, b, c, d, e, f, reverseFirst);
+    }
+
+    /**
+     * helper method to check that both tours have the same neighbors for
+     * every location and answer random between queries alike, queries are
+     * mirrored if TwoLevelListTour runs the cycle in the other direction
+     */
+    private static void assertSameCycle(ArrayTour arrayTour, TwoLevelListTour listTour, int size,
+            SplittableRandom rng) {
+        for (int loc = 0; loc < size; loc++) {
+            int next = arrayTour.next(loc);
+            int prev = arrayTour.prev(loc);
+            boolean sameNeighbors = (listTour.next(loc) == next && listTour.prev(loc) == prev)
+                    || (listTour.next(loc) == prev && listTour.prev(loc) == next);
+            assertTrue(sameNeighbors, "neighbors of " + loc + " on route of size " + size);
+            assertEquals(loc, listTour.prev(listTour.next(loc)), "links of " + loc + " on route of size " + size);
+        }
+
+        boolean sameDirection = size < 3 || arrayTour.next(0) == listTour.next(0);
+        for (int query = 0; query < BETWEEN_QUERIES; query++) {
+            int loc1 = rng.nextInt(size);
+            int loc2 = rng.nextInt(size);
+            int loc3 = rng.nextInt(size);
+            boolean expected = sameDirection ? arrayTour.between(loc1, loc2, loc3)
+                    : arrayTour.between(loc3, loc2, loc1);
+            assertEquals(expected, listTour.between(loc1, loc2, loc3),
+                    "between(" + loc1 + ", " + loc2 + ", " + loc3 + ") on route of size " + size);
+        }
+    }
+
+    private static int[] randomRoute(int size, SplittableRandom rng) {
+        int[] route = new int[size];
+        for (int i = 0; i < size; i++) {
+            route[i] = i;
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int temp = route[i];
+            route[i] = route[j];
+            route[j] = temp;
+        }
+
+        return route;
+    }
+
+    private static boolean isPermutation(int[] route) {
+        boolean[] visited = new boolean[route.length];
+        for (int loc : route) {
+            if (loc < 0 || loc >= route.length || visited[loc]) {
+                return false;
+            }
+
+            visited[loc] = true;
+        }
+
+        return true;
+    }
+
+    /**
+     * helper method to get undirected edges of a route,
+     * each keyed by its smaller and larger location
+     */
+    private static HashSet<Long> edges(int[] route) {
+        HashSet<Long> edges = new HashSet<>();
+        for (int i = 0; i < route.length; i++) {
+            int loc1 = route[i];
+            int loc2 = route[(i + 1) % route.length];
+            edges.add(((long) Math.min(loc1, loc2) << 32) | Math.max(loc1, loc2));
+        }
+
+        return edges;
+    }
+
+}
@@ -0,0 +1,29 @@
+package tsp.genetic.algorithm;
+
+/**
+ * class that lets a run of genetic algorithm be cancelled
+ * from another thread. The run checks the token between
+ * generations and periodically during local search, and returns
+ * the best tour found so far once it is cancelled
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled; // whether cancellation is requested
+
+    public CancellationToken() {
+        this.cancelled = false;
+    }
+
+    /**
+     * method to request cancellation, runs using this
+     * token stop as soon as they check it
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+}
@@ -0,0 +1,223 @@
+package tsp.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tsp.genetic.context.CrossoverManager;
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.context.MutationManager;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements island model genetic algorithm
+ * for Travelling Salesman problem. Each island is an independent
+ * TSPGA with its own population, crossover rate and mutation rate,
+ * islands evolve on their own threads and every {@code migrationInterval}
+ * generations each island sends copies of its best individuals to
+ * another island according to migration topology. Migrants are passed
+ * through lock-free queues, an island picks up the migrants that have
+ * arrived so far at its own migration steps without waiting for others.
+ * As arrival times depend on thread scheduling, results of island model
+ * are not reproducible run to run even with the same seed
+ */
+public class IslandModelGA {
+
+    private ArrayList<TSPGA> islands;
+    private ArrayList<ConcurrentLinkedQueue<Chromosome>> inboxes; // migrants waiting to join each island
+    private MigrationTopology topology;
+    private int migrationInterval; // number of generations between migrations
+    private int numberOfMigrants; // number of best individuals sent at each migration
+    private long seed; // seed from which seeds of islands are derived
+
+    public IslandModelGA(MigrationTopology topology, int migrationInterval, int numberOfMigrants) {
+        this.islands = new ArrayList<>();
+        this.inboxes = new ArrayList<>();
+        this.topology = topology;
+        this.migrationInterval = migrationInterval;
+        this.numberOfMigrants = numberOfMigrants;
+        this.seed = new SplittableRandom().nextLong();
+    }
+
+    public ArrayList<TSPGA> getIslands() {
+        return this.islands;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * method to add an island with its own context manager, crossover
+     * manager and mutation manager. Context managers of islands should be
+     * created for the same problem instance, e.g. via
+     * {@link GAContextManager#GAContextManager(GAContextManager)}
+     *
+     * @param contextManager   GAContextManager object keeping population of island
+     * @param crossoverManager CrossoverManager object with crossover rate of island
+     * @param mutationManager  MutationManager object with mutation rate of island
+     * @return TSPGA object running the island, can be used to configure it further
+     */
+    public TSPGA addIsland(GAContextManager contextManager, CrossoverManager crossoverManager,
+            MutationManager mutationManager) {
+        TSPGA island = new TSPGA(contextManager, crossoverManager, mutationManager);
+        island.setVerbose(false);
+        islands.add(island);
+        inboxes.add(new ConcurrentLinkedQueue<>());
+
+        return island;
+    }
+
+    /**
+     * method to run all islands concurrently for {@code maxIter}
+     * generations each
+     *
+     * @param maxIter            number of generations each island runs
+     * @param populationSize     number of individuals exist in population of each island
+     * @param performLocalSearch whether local search is applied to children
+     * @return Chromosome object having highest fitness among all islands
+     */
+    public Chromosome runIslandModel(int maxIter, int populationSize, boolean performLocalSearch) {
+        if (islands.isEmpty()) {
+            throw new IllegalStateException("At least one island must be added before running island model !!");
+        }
+
+        SplittableRandom seedGenerator = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < islands.size(); i++) {
+            int islandIndex = i;
+            islands.get(i).setSeed(seedGenerator.nextLong());
+            SplittableRandom migrationGenerator = seedGenerator.split();
+            inboxes.get(i).clear();
+            results.add(executor.submit(
+                    () -> runIsland(islandIndex, maxIter, populationSize, performLocalSearch, migrationGenerator)));
+        }
+
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running islands !!", e);
+        }
+
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Running islands failed !!", e.getCause());
+        }
+
+        finally {
+            executor.shutdownNow();
+        }
+
+        Chromosome bestIndividual = null;
+        for (TSPGA island : islands) {
+            Chromosome islandBest = island.getContextManager().getPopulation().get(0);
+            if (bestIndividual == null || islandBest.getFitness() > bestIndividual.getFitness()) {
+                bestIndividual = islandBest;
+            }
+        }
+
+        return bestIndividual;
+    }
+
+    /**
+     * method to run a single island, called on its own thread
+     *
+     * @param islandIndex        index of island to be run
+     * @param maxIter            number of generations island runs
+     * @param populationSize     number of individuals exist in population of island
+     * @param performLocalSearch whether local search is applied to children
+     * @param rng                random number generator used to pick migration targets
+     */
+    private void runIsland(int islandIndex, int maxIter, int populationSize, boolean performLocalSearch,
+            SplittableRandom rng) {
+        TSPGA island = islands.get(islandIndex);
+        ArrayList<Double> bestFitnesses = new ArrayList<>();
+        island.initializePopulation(populationSize);
+
+        for (int generation = 1; generation <= maxIter; generation++) {
+            Chromosome bestIndividual = island.evolveGeneration(generation, populationSize, performLocalSearch);
+            bestFitnesses.add(bestIndividual.getFitness());
+
+            if (islands.size() > 1 && migrationInterval > 0 && generation % migrationInterval == 0) {
+                emigrate(islandIndex, rng);
+                immigrate(islandIndex);
+            }
+        }
+
+        island.getContextManager().setBestFitnesses(bestFitnesses);
+    }
+
+    /**
+     * method to send copies of best individuals of an island
+     * to inbox of target island selected by migration topology.
+     * Best individuals are moved to the front of population first
+     *
+     * @param islandIndex index of island sending migrants
+     * @param rng         random number generator used to pick target island
+     */
+    private void emigrate(int islandIndex, SplittableRandom rng) {
+        int targetIndex;
+        if (topology == MigrationTopology.RING) {
+            targetIndex = (islandIndex + 1) % islands.size();
+        }
+
+        else {
+            // pick an island other than the sending island
+            targetIndex = rng.nextInt(islands.size() - 1);
+            if (targetIndex >= islandIndex) {
+                targetIndex++;
+            }
+        }
+
+        GAContextManager contextManager = islands.get(islandIndex).getContextManager();
+        contextManager.selectSurvivors(Collections.emptyList(), contextManager.getPopulation().size(),
+                numberOfMigrants);
+        ArrayList<Chromosome> population = contextManager.getPopulation();
+        ConcurrentLinkedQueue<Chromosome> targetInbox = inboxes.get(targetIndex);
+        for (int i = 0; i < Math.min(numberOfMigrants, population.size()); i++) {
+            targetInbox.offer(new Chromosome(population.get(i)));
+        }
+    }
+
+    /**
+     * method to replace worst individuals of an island with
+     * migrants that have arrived in its inbox so far
+     *
+     * @param islandIndex index of island receiving migrants
+     */
+    private void immigrate(int islandIndex) {
+        GAContextManager contextManager = islands.get(islandIndex).getContextManager();
+        int populationSize = contextManager.getPopulation().size();
+        ConcurrentLinkedQueue<Chromosome> inbox = inboxes.get(islandIndex);
+
+        ArrayList<Chromosome> migrants = new ArrayList<>();
+        Chromosome migrant;
+        while (migrants.size() < populationSize && (migrant = inbox.poll()) != null) {
+            migrants.add(migrant);
+        }
+
+        // worst individuals are dropped, then migrants join the rest
+        // keeping the best individual at the front of population
+        if (!migrants.isEmpty()) {
+            contextManager.selectSurvivors(Collections.emptyList(), populationSize - migrants.size(), 0);
+            contextManager.selectSurvivors(migrants, populationSize, 0);
+        }
+    }
+
+}
@@ -0,0 +1,12 @@
+package tsp.genetic.algorithm;
+
+/**
+ * enum that represents how islands of island model
+ * genetic algorithm send their migrants to each other
+ */
+public enum MigrationTopology {
+
+    RING, // island i sends migrants to island (i + 1) mod number of islands
+    RANDOM // island sends migrants to a randomly selected other island at each migration
+
+}
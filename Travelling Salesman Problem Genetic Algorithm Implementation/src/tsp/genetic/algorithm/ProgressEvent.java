@@ -0,0 +1,64 @@
+package tsp.genetic.algorithm;
+
+/**
+ * class that keeps progress of a run of genetic algorithm
+ * after a generation: best and mean tour length of population,
+ * its diversity and time elapsed since the run started. Best route
+ * is only included if a listener asks for routes and the best tour
+ * improved in that generation, so events stay small otherwise
+ */
+public class ProgressEvent {
+
+    private final int generation; // number of generation, starting from 1
+    private final double bestTourLength; // tour length of best individual
+    private final double meanTourLength; // mean tour length of population
+    private final double diversity; // mean fraction of edges an individual does not share with best individual
+    private final long elapsedNanos; // time elapsed since run started in nanoseconds
+    private final int[] bestRoute; // copy of route of best individual, null if not included
+
+    public ProgressEvent(int generation, double bestTourLength, double meanTourLength, double diversity,
+            long elapsedNanos, int[] bestRoute) {
+        this.generation = generation;
+        this.bestTourLength = bestTourLength;
+        this.meanTourLength = meanTourLength;
+        this.diversity = diversity;
+        this.elapsedNanos = elapsedNanos;
+        this.bestRoute = bestRoute;
+    }
+
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    public double getBestTourLength() {
+        return this.bestTourLength;
+    }
+
+    public double getMeanTourLength() {
+        return this.meanTourLength;
+    }
+
+    public double getDiversity() {
+        return this.diversity;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * method to get route of best individual, it is shared by
+     * all receivers of the event and must not be modified
+     *
+     * @return route of best individual, null unless routes are requested
+     *         and best tour improved in this generation
+     */
+    public int[] getBestRoute() {
+        return this.bestRoute;
+    }
+
+    public boolean hasBestRoute() {
+        return this.bestRoute != null;
+    }
+
+}
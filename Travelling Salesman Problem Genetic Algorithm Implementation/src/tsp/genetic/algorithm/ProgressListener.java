@@ -0,0 +1,29 @@
+package tsp.genetic.algorithm;
+
+/**
+ * interface of receivers of progress events of a run of genetic
+ * algorithm. Listeners are called on the thread running the algorithm
+ * after each generation, so they must return quickly, listeners doing
+ * slow work such as rendering should hand events over to another thread,
+ * e.g. via {@link ProgressPublisher}
+ */
+public interface ProgressListener {
+
+    /**
+     * method to receive progress of a generation
+     *
+     * @param event progress of the generation just evolved
+     */
+    void onProgress(ProgressEvent event);
+
+    /**
+     * method to tell whether events need route of best individual,
+     * routes are copied only if a listener needs them
+     *
+     * @return true if best route is to be included whenever it improves
+     */
+    default boolean needsRoutes() {
+        return false;
+    }
+
+}
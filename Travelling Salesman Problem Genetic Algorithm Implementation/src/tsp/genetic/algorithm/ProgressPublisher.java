@@ -0,0 +1,97 @@
+package tsp.genetic.algorithm;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * class that publishes progress events of a run as a
+ * {@link java.util.concurrent.Flow.Publisher}, subscribers receive
+ * them asynchronously on an executor. Events are offered rather than
+ * submitted, so the run never waits for a slow subscriber, an event is
+ * dropped for a subscriber whose buffer is full. An event carrying a best
+ * route is offered once more when dropped, and if it is dropped again its
+ * route is attached to the next event or, if it was the last event, it is
+ * submitted when the publisher is closed, so subscribers always receive
+ * the newest best route. Publisher is not closed at the end of a run, as
+ * it can be attached to several runs
+ */
+public class ProgressPublisher extends SubmissionPublisher<ProgressEvent> implements ProgressListener {
+
+    private final boolean routesNeeded; // whether events include best route whenever it improves
+    private ProgressEvent droppedEvent; // last event whose best route was dropped, null if none, used on run's thread
+
+    /**
+     * constructor that publishes events on common ForkJoinPool
+     * (or a new thread per subscriber if it has a single thread)
+     * with default buffer capacity
+     *
+     * @param routesNeeded whether events include best route whenever it improves
+     */
+    public ProgressPublisher(boolean routesNeeded) {
+        super();
+        this.routesNeeded = routesNeeded;
+        this.droppedEvent = null;
+    }
+
+    /**
+     * constructor that publishes events on given executor
+     *
+     * @param routesNeeded   whether events include best route whenever it improves
+     * @param executor       executor delivering events to subscribers
+     * @param bufferCapacity maximum number of events buffered for each subscriber
+     */
+    public ProgressPublisher(boolean routesNeeded, Executor executor, int bufferCapacity) {
+        super(executor, bufferCapacity);
+        this.routesNeeded = routesNeeded;
+        this.droppedEvent = null;
+    }
+
+    /**
+     * method to offer {@code event} to subscribers, a route dropped
+     * for a subscriber is attached to this event unless it carries a
+     * newer one
+     *
+     * @param event progress of the generation just evolved
+     */
+    @Override
+    public void onProgress(ProgressEvent event) {
+        if (droppedEvent != null && !event.hasBestRoute()) {
+            event = new ProgressEvent(event.getGeneration(), event.getBestTourLength(), event.getMeanTourLength(),
+                    event.getDiversity(), event.getElapsedNanos(), droppedEvent.getBestRoute());
+        }
+
+        // negative result is the number of subscribers the event was dropped for
+        int result = offer(event, this::retryRoute);
+        droppedEvent = (result < 0 && event.hasBestRoute()) ? event : null;
+    }
+
+    /**
+     * method to close the publisher, an event whose best route was
+     * dropped and not resent is submitted first, waiting for buffer
+     * space if needed, so subscribers end with the newest best route
+     */
+    @Override
+    public void close() {
+        if (droppedEvent != null && !isClosed()) {
+            submit(droppedEvent);
+            droppedEvent = null;
+        }
+
+        super.close();
+    }
+
+    @Override
+    public boolean needsRoutes() {
+        return this.routesNeeded;
+    }
+
+    /**
+     * helper method to decide whether an event dropped for a subscriber
+     * is offered once more, only events carrying a best route are
+     */
+    private boolean retryRoute(Flow.Subscriber<? super ProgressEvent> subscriber, ProgressEvent event) {
+        return event.hasBestRoute();
+    }
+
+}
@@ -2,106 +2,747 @@ package tsp.genetic.algorithm;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
 
 import tsp.genetic.context.CrossoverManager;
+import tsp.genetic.context.CrossoverType;
 import tsp.genetic.context.GAContextManager;
 import tsp.genetic.context.MutationManager;
+import tsp.genetic.distance.DistanceProvider;
 import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.localsearch.LocalSearch;
+import tsp.genetic.localsearch.LocalSearchType;
 
 /**
- * class that implements the genetic algorithm 
- * for Travelling Salesman problem. It applies the 
- * steps of population generation, applying crossover and 
- * mutation with certain probabilities, then survivor selection 
- * respectively. It iterates {@code maxIter} number of times as  
- * a termination condition.  
+ * class that implements the genetic algorithm
+ * for Travelling Salesman problem. It applies the
+ * steps of population generation, applying crossover and
+ * mutation with certain probabilities, then survivor selection
+ * respectively. It iterates until one of the termination criteria
+ * is met, i.e. maximum number of generations, time limit, target tour
+ * length or stagnation limit, or until the run is cancelled.
+ * Offspring of a generation can be produced in parallel on an
+ * executor, each pair of children draws its random numbers from a
+ * generator derived from run seed, generation and pair index so that
+ * the same seed gives the same offspring regardless of thread count.
+ * Optionally the best individuals after survivor selection are further
+ * improved by a Lin-Kernighan style local search.
+ * Progress of each generation is sent to registered listeners as a
+ * compact event, best routes are only kept for replay if route recording
+ * is enabled. A thread pool created via {@link #setParallelism(int)} is
+ * owned by TSPGA and released by {@link #close()}
  */
-public class TSPGA {
+public class TSPGA implements AutoCloseable {
+
+    private static final int TASKS_PER_THREAD = 4; // number of offspring tasks created per thread for load balancing
 
     private GAContextManager contextManager;
     private CrossoverManager crossoverManager;
     private MutationManager mutationManager;
+    private long seed; // seed from which random generator of each offspring pair is derived
+    private ExecutorService executor; // executor producing offspring in parallel, null means sequential
+    private int parallelism; // number of threads of executor
+    private ForkJoinPool ownedPool; // pool created by setParallelism, shut down by TSPGA, null if none
+    private boolean verbose; // whether best tour length of each generation and of the run is printed, off by default
+    private int eliteCount; // number of best individuals improved after survivor selection, 0 disables
+    private HashSet<Chromosome> improvedElite; // elite individuals already improved, they are local optima
+    private TerminationReason terminationReason; // why last run stopped, null before first run
+    private int generationsRun; // number of generations evolved by last run
+    private int routeRecordingInterval; // best route is recorded every that many generations, 0 disables
+    private ArrayList<ProgressListener> progressListeners; // receivers of progress of each generation
+    private int[] successors; // successor of each location on best route, used to compute diversity
+    private int[] predecessors; // predecessor of each location on best route, used to compute diversity
 
     public TSPGA(GAContextManager contextManager, CrossoverManager crossoverManager, MutationManager mutationManager) {
         this.contextManager = contextManager;
         this.crossoverManager = crossoverManager;
         this.mutationManager = mutationManager;
+        this.executor = null;
+        this.parallelism = 1;
+        this.ownedPool = null;
+        this.verbose = false;
+        this.eliteCount = 0;
+        this.improvedElite = new HashSet<>();
+        this.terminationReason = null;
+        this.generationsRun = 0;
+        this.routeRecordingInterval = 0;
+        this.progressListeners = new ArrayList<>();
+        this.successors = new int[0];
+        this.predecessors = new int[0];
+        this.seed = new SplittableRandom().nextLong();
+        seedManagers(seed);
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    public GAContextManager getContextManager() {
+        return this.contextManager;
+    }
+
+    public boolean isVerbose() {
+        return this.verbose;
+    }
+
+    public int getEliteCount() {
+        return this.eliteCount;
+    }
+
+    public TerminationReason getTerminationReason() {
+        return this.terminationReason;
+    }
+
+    public int getGenerationsRun() {
+        return this.generationsRun;
+    }
+
+    public int getRouteRecordingInterval() {
+        return this.routeRecordingInterval;
+    }
+
+    /**
+     * method to set run seed, all random numbers of a run are drawn
+     * from generators derived from it. Generators that managers use for
+     * calls without explicit generator are seeded from it as well
+     *
+     * @param seed run seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        seedManagers(seed);
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * method to enable recording of best routes kept by context manager
+     * for replay, e.g. by the animator. Each recorded route takes memory
+     * proportional to number of locations, so long runs on large instances
+     * should record only every k-th generation or rely on progress events
+     *
+     * @param routeRecordingInterval best route is recorded every that many
+     *                               generations and after last generation,
+     *                               0 or less disables recording (default)
+     */
+    public void setRouteRecordingInterval(int routeRecordingInterval) {
+        this.routeRecordingInterval = Math.max(0, routeRecordingInterval);
+    }
+
+    /**
+     * method to register a listener receiving progress of each generation
+     * of later runs, listeners must not be added or removed during a run
+     *
+     * @param listener listener to be called after each generation
+     */
+    public void addProgressListener(ProgressListener listener) {
+        progressListeners.add(listener);
+    }
+
+    public void removeProgressListener(ProgressListener listener) {
+        progressListeners.remove(listener);
+    }
+
+    /**
+     * method to set local search applied to children of this run,
+     * it is kept by context manager
+     *
+     * @param localSearchType type of local search, VND applies 2-opt,
+     *                        Or-opt and Or-3opt as a variable neighborhood descent
+     */
+    public void setLocalSearchType(LocalSearchType localSearchType) {
+        contextManager.setLocalSearchType(localSearchType);
+    }
+
+    /**
+     * method to set crossover type applied to parents of this run,
+     * it is kept by crossover manager
+     *
+     * @param crossoverType crossover type, null picks one of Order 1,
+     *                      Partially Mapped and Cycle Crossover at random
+     */
+    public void setCrossoverType(CrossoverType crossoverType) {
+        crossoverManager.setCrossoverType(crossoverType);
+    }
+
+    /**
+     * method to set number of best individuals improved by Lin-Kernighan
+     * style local search after each survivor selection, rest of population
+     * only gets the local search applied to children
+     *
+     * @param eliteCount number of elite individuals, 0 or less disables
+     *                   elite improvement
+     */
+    public void setEliteCount(int eliteCount) {
+        this.eliteCount = Math.max(0, eliteCount);
+    }
+
+    /**
+     * method to set number of threads used to produce offspring,
+     * a ForkJoinPool with given number of threads is created. The pool
+     * is shut down when it is replaced or TSPGA is closed
+     *
+     * @param parallelism number of threads, 1 or less produces
+     *                    offspring sequentially on calling thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 1) {
+            setExecutor(null, 1);
+        }
+
+        else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            setExecutor(pool, parallelism);
+            this.ownedPool = pool;
+        }
+    }
+
+    /**
+     * method to set executor used to produce offspring in parallel,
+     * executor is not shut down by TSPGA, while a pool previously created
+     * via {@link #setParallelism(int)} is shut down
+     *
+     * @param executor    executor to run offspring tasks, null produces
+     *                    offspring sequentially on calling thread
+     * @param parallelism number of threads of executor, used to split offspring
+     *                    into tasks
+     */
+    public void setExecutor(ExecutorService executor, int parallelism) {
+        shutdownOwnedPool();
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * method to shut down thread pool created via {@link #setParallelism(int)},
+     * later runs produce offspring sequentially. Executors given via
+     * {@link #setExecutor(ExecutorService, int)} are left to their owner
+     */
+    @Override
+    public void close() {
+        if (ownedPool != null) {
+            setExecutor(null, 1);
+        }
+    }
+
+    /**
+     * helper method to shut down pool owned by TSPGA, its
+     * threads terminate once submitted tasks are completed
+     */
+    private void shutdownOwnedPool() {
+        if (ownedPool != null) {
+            ownedPool.shutdown();
+            ownedPool = null;
+        }
     }
 
     /**
      * method to run genetic algorithm for {@code maxIter}
      * number of times
-     * 
+     *
      * @param maxIter maximum number of iterations to run genetic algorithm
      * @param populationSize number of individuals exist in population
-     * @param performLocalSearch boolean parameter to indicate whether 2-opt
+     * @param performLocalSearch boolean parameter to indicate whether
      * local search must be performed at each generation to improve fitness values
      */
     public void runGeneticAlgorithm(int maxIter, int populationSize, boolean performLocalSearch) {
-        contextManager.generatePopulation(populationSize);
-        Chromosome bestIndividual = null;
-        ArrayList<ArrayList<Integer>> bestRoutes = new ArrayList<>();
-        ArrayList<Double> bestFitnesses = new ArrayList<>();
+        runGeneticAlgorithm(populationSize, performLocalSearch, new TerminationCriteria(maxIter), null);
+    }
 
-        for (int i = 1; i <= maxIter; i++) {
-            ArrayList<Chromosome> generation = new ArrayList<>();
+    /**
+     * method to run genetic algorithm until one of {@code criteria}
+     * is met or {@code token} is cancelled. Maximum number of generations,
+     * target tour length and stagnation limit are checked after each
+     * generation. Time limit and cancellation are checked between pairs of
+     * children and periodically during local search as well, the generation
+     * in progress is then finished with children produced so far, so the
+     * best tour found is returned shortly after the deadline. Progress of
+     * each generation is sent to listeners, best routes are kept by context
+     * manager only if route recording is enabled. The reason of stopping is
+     * available via {@link #getTerminationReason()}
+     *
+     * @param populationSize     number of individuals exist in population
+     * @param performLocalSearch whether local search is applied to children
+     * @param criteria           termination criteria of the run
+     * @param token              token that cancels the run from another thread,
+     *                           null if the run is not cancellable
+     * @return Chromosome object having highest fitness when the run stopped
+     */
+    public Chromosome runGeneticAlgorithm(int populationSize, boolean performLocalSearch, TerminationCriteria criteria,
+            CancellationToken token) {
+        if (!criteria.hasLimit() && token == null) {
+            throw new IllegalArgumentException("Run without termination criteria must be cancellable !!");
+        }
 
-            while (generation.size() < populationSize) {
-                // selecting parents
-                ArrayList<Chromosome> selectedParents = contextManager.selectParents();
-                Chromosome parent1 = selectedParents.get(0);
-                Chromosome parent2 = selectedParents.get(1);
+        long startTime = System.nanoTime();
+        long timeLimitNanos = criteria.getTimeLimitMillis() * 1_000_000L;
+        BooleanSupplier stopCondition = () -> (token != null && token.isCancelled())
+                || (timeLimitNanos > 0 && System.nanoTime() - startTime >= timeLimitNanos);
+        ArrayList<int[]> bestRoutes = new ArrayList<>();
+        ArrayList<Double> bestFitnesses = new ArrayList<>();
 
-                // applying crossover to produce children
-                ArrayList<Chromosome> children = crossoverManager.applyCrossover(parent1, parent2);
-                Chromosome child1 = children.get(0);
-                Chromosome child2 = children.get(1);
+        initializePopulation(populationSize);
+        Chromosome bestIndividual = contextManager.getPopulation().get(0);
+        for (Chromosome chr : contextManager.getPopulation()) {
+            if (chr.getFitness() > bestIndividual.getFitness()) {
+                bestIndividual = chr;
+            }
+        }
 
-                // applying mutation to children
-                mutationManager.applyMutation(child1);
-                mutationManager.applyMutation(child2);
+        double bestTourLength = bestIndividual.getTourLength();
+        int stagnantGenerations = 0; // generations since best tour length last improved
+        int lastRecordedGeneration = 0;
+        generationsRun = 0;
+        terminationReason = null;
+        contextManager.setStopCondition(stopCondition);
+        try {
+            while (true) {
+                terminationReason = checkTermination(criteria, stopCondition, token, bestTourLength,
+                        stagnantGenerations);
+                if (terminationReason != null) {
+                    break;
+                }
 
-                // calculating fitness values for children
-                child1.computeFitness(contextManager.getDistanceMatrix());
-                child2.computeFitness(contextManager.getDistanceMatrix());
+                generationsRun++;
+                // Chromosome object having highest fitness for current generation
+                bestIndividual = evolveGeneration(generationsRun, populationSize, performLocalSearch);
+                boolean improved = bestIndividual.getTourLength() < bestTourLength;
+                if (improved) {
+                    bestTourLength = bestIndividual.getTourLength();
+                    stagnantGenerations = 0;
+                }
 
-                // apply 2-opt local search if performLocalSearch is true
-                if (performLocalSearch) {
-                    contextManager.applyTwoOptLocalSeach(child1);
-                    contextManager.applyTwoOptLocalSeach(child2);
+                else {
+                    stagnantGenerations++;
                 }
 
-                // add children to new generation
-                generation.add(child1);
-                generation.add(child2);
-            }
+                if (routeRecordingInterval > 0 && generationsRun % routeRecordingInterval == 0) {
+                    bestRoutes.add(bestIndividual.getLocOrder().clone());
+                    bestFitnesses.add(bestIndividual.getFitness());
+                    lastRecordedGeneration = generationsRun;
+                }
 
-            // selecting survivors via combining new generation with existing
-            // population and selecting populationSize individuals from combined
-            // population
-            contextManager.growPopulation(generation);
-            Collections.sort(contextManager.getPopulation(), contextManager);
+                if (!progressListeners.isEmpty()) {
+                    publishProgress(bestIndividual, improved || generationsRun == 1, startTime);
+                }
 
-            ArrayList<Chromosome> newPopulation = new ArrayList<>();
-            for (int j = 0; j < populationSize; j++) {
-                newPopulation.add(contextManager.getPopulation().get(j));
+                // displaying tour length of bestInvidividual for current generation
+                if (verbose) {
+                    System.out.printf("Generation: %d | Total Distance: %.4f%n", generationsRun,
+                            bestIndividual.getTourLength());
+                }
             }
+        }
 
-            contextManager.setPopulation(newPopulation);
-            // Chromosome object having highest fitness for current generation
-            bestIndividual = contextManager.getPopulation().get(0);
-            bestRoutes.add(bestIndividual.getLocOrder());
-            bestFitnesses.add(bestIndividual.getFitness());
+        finally {
+            contextManager.setStopCondition(LocalSearch.NEVER_STOP);
+        }
 
-            // displaying bestInvidividual and its fitness value for current generation
-            System.out.printf("Generation: %d Best Individual: %s | Total Distance: %.4f%n", i, bestIndividual.toString(),
-                    (1 / bestIndividual.getFitness()));
+        // last generation is always recorded, so replay ends with the route returned
+        if (routeRecordingInterval > 0 && generationsRun > lastRecordedGeneration) {
+            bestRoutes.add(bestIndividual.getLocOrder().clone());
+            bestFitnesses.add(bestIndividual.getFitness());
+        }
 
+        if (verbose) {
+            System.out.printf("Generations: %d | Total Distance: %.4f | Stopped by: %s%n", generationsRun,
+                    bestIndividual.getTourLength(), terminationReason);
         }
 
-        // set the bestRoutes and bestFitnesses for ContextManager object
+        // set the recorded bestRoutes and bestFitnesses for ContextManager object
         contextManager.setBestRoutes(bestRoutes);
         contextManager.setBestFitnesses(bestFitnesses);
+
+        return bestIndividual;
+    }
+
+    /**
+     * method to send progress of current generation to listeners,
+     * route of best individual is copied only if best tour improved and
+     * a listener needs routes
+     *
+     * @param bestIndividual Chromosome object having highest fitness
+     * @param includeRoute   whether route may be included, i.e. best tour improved
+     * @param startTime      value of System.nanoTime() when the run started
+     */
+    private void publishProgress(Chromosome bestIndividual, boolean includeRoute, long startTime) {
+        ArrayList<Chromosome> population = contextManager.getPopulation();
+        double totalTourLength = 0.0;
+        for (Chromosome chr : population) {
+            totalTourLength += chr.getTourLength();
+        }
+
+        boolean routesNeeded = false;
+        for (ProgressListener listener : progressListeners) {
+            routesNeeded |= listener.needsRoutes();
+        }
+
+        int[] bestRoute = (includeRoute && routesNeeded) ? bestIndividual.getLocOrder().clone() : null;
+        ProgressEvent event = new ProgressEvent(generationsRun, bestIndividual.getTourLength(),
+                totalTourLength / population.size(), computeDiversity(population, bestIndividual),
+                System.nanoTime() - startTime, bestRoute);
+        for (ProgressListener listener : progressListeners) {
+            listener.onProgress(event);
+        }
+    }
+
+    /**
+     * method to compute diversity of population as the mean fraction
+     * of edges of an individual that are not edges of best individual,
+     * 0 if all individuals have the best tour and close to 1 for random tours
+     *
+     * @param population     individuals of population
+     * @param bestIndividual Chromosome object having highest fitness
+     * @return diversity between 0 and 1
+     */
+    private double computeDiversity(ArrayList<Chromosome> population, Chromosome bestIndividual) {
+        int[] bestRoute = bestIndividual.getLocOrder();
+        int size = bestRoute.length;
+        if (size < 3 || population.size() < 2) {
+            return 0.0;
+        }
+
+        if (successors.length != size) {
+            successors = new int[size];
+            predecessors = new int[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            int next = bestRoute[(i + 1 == size) ? 0 : i + 1];
+            successors[bestRoute[i]] = next;
+            predecessors[next] = bestRoute[i];
+        }
+
+        long differentEdges = 0;
+        for (Chromosome chr : population) {
+            if (chr == bestIndividual) {
+                continue;
+            }
+
+            int[] route = chr.getLocOrder();
+            int loc = route[size - 1];
+            for (int next : route) {
+                if (successors[loc] != next && predecessors[loc] != next) {
+                    differentEdges++;
+                }
+                loc = next;
+            }
+        }
+
+        return differentEdges / ((double) size * (population.size() - 1));
+    }
+
+    /**
+     * method to check termination criteria of a run, target is checked
+     * first so a run that reaches it is reported as such even if its
+     * deadline has passed as well
+     *
+     * @param criteria            termination criteria of the run
+     * @param stopCondition       condition that is true once the run is
+     *                            cancelled or its time limit has passed
+     * @param token               cancellation token of the run, may be null
+     * @param bestTourLength      shortest tour length found so far
+     * @param stagnantGenerations generations since best tour length last improved
+     * @return reason of stopping, null if the run continues
+     */
+    private TerminationReason checkTermination(TerminationCriteria criteria, BooleanSupplier stopCondition,
+            CancellationToken token, double bestTourLength, int stagnantGenerations) {
+        if (bestTourLength <= criteria.getTargetTourLength()) {
+            return TerminationReason.TARGET_REACHED;
+        }
+
+        if (stopCondition.getAsBoolean()) {
+            return (token != null && token.isCancelled()) ? TerminationReason.CANCELLED : TerminationReason.TIME_LIMIT;
+        }
+
+        if (criteria.getStagnationLimit() > 0 && stagnantGenerations >= criteria.getStagnationLimit()) {
+            return TerminationReason.STAGNATION;
+        }
+
+        if (criteria.getMaxGenerations() > 0 && generationsRun >= criteria.getMaxGenerations()) {
+            return TerminationReason.MAX_GENERATIONS;
+        }
+
+        return null;
+    }
+
+    /**
+     * method to generate initial population of {@code populationSize}
+     * individuals drawing random numbers from generator seeded with run seed.
+     * Population of an earlier run is discarded and generators of managers
+     * are seeded again, so each run with the same seed gives the same result
+     *
+     * @param populationSize number of individuals exist in population
+     */
+    public void initializePopulation(int populationSize) {
+        improvedElite.clear();
+        contextManager.resetPopulation();
+        seedManagers(seed);
+        contextManager.generatePopulation(populationSize, new SplittableRandom(seed));
+    }
+
+    /**
+     * method to evolve population for a single generation, children
+     * are produced, then survivors are selected from combined population
+     *
+     * @param generation         number of current generation, starting from 1
+     * @param populationSize     number of individuals exist in population
+     * @param performLocalSearch whether local search is applied to children
+     * @return Chromosome object having highest fitness after survivor selection
+     *         and elite improvement
+     */
+    public Chromosome evolveGeneration(int generation, int populationSize, boolean performLocalSearch) {
+        ArrayList<Chromosome> offspring = produceOffspring(generation, populationSize, performLocalSearch);
+
+        // selecting survivors via combining new generation with existing
+        // population and selecting populationSize individuals from combined
+        // population, only elite individuals need to be in order
+        contextManager.selectSurvivors(offspring, populationSize, eliteCount);
+
+        if (eliteCount > 0) {
+            improveElite(Math.min(eliteCount, contextManager.getPopulation().size()));
+        }
+
+        return contextManager.getPopulation().get(0);
+    }
+
+    /**
+     * method to apply Lin-Kernighan style local search to the
+     * {@code count} best individuals, which survivor selection keeps in
+     * order at the front of population, sequentially or on executor if
+     * one is set. Individuals improved in an earlier
+     * generation are skipped as they are already local optima.
+     * If duplicate elimination is enabled, an individual whose improved
+     * tour is already in population is restored to its tour before the
+     * search, so population still holds a single copy of each tour
+     *
+     * @param count number of elite individuals
+     */
+    private void improveElite(int count) {
+        ArrayList<Chromosome> population = contextManager.getPopulation();
+        Chromosome[] originals = new Chromosome[count]; // individuals before search, null if not searched
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            Chromosome chr = population.get(i);
+            if (improvedElite.contains(chr)) {
+                continue;
+            }
+
+            if (contextManager.isEliminateDuplicates()) {
+                originals[i] = new Chromosome(chr);
+            }
+
+            if (executor == null) {
+                contextManager.applyEliteLocalSearch(chr);
+            }
+
+            else {
+                tasks.add(() -> {
+                    contextManager.applyEliteLocalSearch(chr);
+                    return null;
+                });
+            }
+        }
+
+        invokeAll(tasks);
+        if (contextManager.isEliminateDuplicates()) {
+            contextManager.restoreDuplicateElite(originals);
+        }
+
+        // restored individuals are kept as improved as well,
+        // searching them again would give the same duplicate tour
+        HashSet<Chromosome> elite = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            elite.add(population.get(i));
+        }
+        improvedElite = elite;
+
+        // improvements can change order within elite only, as
+        // fitness of elite individuals never decreases
+        Collections.sort(population.subList(0, count), contextManager);
+    }
+
+    /**
+     * method to produce children of a generation, pairs of
+     * children are produced sequentially or on executor if one is set.
+     * Children are returned in pair order in both cases
+     *
+     * @param generation         number of current generation
+     * @param populationSize     number of individuals exist in population
+     * @param performLocalSearch whether local search is applied to children
+     * @return ArrayList of children produced
+     */
+    private ArrayList<Chromosome> produceOffspring(int generation, int populationSize, boolean performLocalSearch) {
+        int numberOfPairs = (populationSize + 1) / 2;
+        Chromosome[] offspring = new Chromosome[2 * numberOfPairs];
+        // selection data and tour hashes of population are computed
+        // once per generation and only read by offspring tasks
+        contextManager.prepareSelection();
+        contextManager.preparePopulationHashes();
+
+        if (executor == null || numberOfPairs < 2) {
+            producePairs(generation, 0, numberOfPairs, offspring, performLocalSearch);
+        }
+
+        else {
+            int numberOfTasks = Math.min(numberOfPairs, parallelism * TASKS_PER_THREAD);
+            List<Callable<Void>> tasks = new ArrayList<>(numberOfTasks);
+            for (int t = 0; t < numberOfTasks; t++) {
+                int firstPair = (int) ((long) numberOfPairs * t / numberOfTasks);
+                int lastPair = (int) ((long) numberOfPairs * (t + 1) / numberOfTasks);
+                tasks.add(() -> {
+                    producePairs(generation, firstPair, lastPair, offspring, performLocalSearch);
+                    return null;
+                });
+            }
+
+            invokeAll(tasks);
+        }
+
+        ArrayList<Chromosome> children = new ArrayList<>(offspring.length);
+        for (Chromosome child : offspring) {
+            // rejected duplicates leave empty slots
+            if (child != null) {
+                children.add(child);
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * method to run {@code tasks} on executor and wait for all of them
+     *
+     * @param tasks tasks to be run, nothing is done if it is empty
+     */
+    private void invokeAll(List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running tasks !!", e);
+        }
+
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Running tasks failed !!", e.getCause());
+        }
+    }
+
+    /**
+     * method to produce pairs of children with indexes in range
+     * {@code firstPair} (inclusive) to {@code lastPair} (exclusive)
+     * and store them at positions 2 * pair and 2 * pair + 1 of {@code offspring}.
+     * Children whose tour is already in population are rejected, their
+     * positions are left empty. Remaining pairs are left empty as well
+     * once stop condition of the run is true
+     *
+     * @param generation         number of current generation
+     * @param firstPair          index of first pair to be produced
+     * @param lastPair           index after last pair to be produced
+     * @param offspring          array that children are stored in
+     * @param performLocalSearch whether local search is applied to children
+     */
+    private void producePairs(int generation, int firstPair, int lastPair, Chromosome[] offspring,
+            boolean performLocalSearch) {
+        BooleanSupplier stopCondition = contextManager.getStopCondition();
+        for (int pair = firstPair; pair < lastPair && !stopCondition.getAsBoolean(); pair++) {
+            SplittableRandom rng = new SplittableRandom(deriveSeed(seed, generation, pair));
+
+            // selecting parents
+            Chromosome parent1 = contextManager.selectParent(rng, null);
+            Chromosome parent2 = contextManager.selectParent(rng, parent1);
+
+            // applying crossover to produce children, Edge Assembly Crossover merges
+            // subtours using current distances and candidate neighbors of context manager
+            DistanceProvider distances = contextManager.getDistances();
+            ArrayList<Chromosome> children = crossoverManager.applyCrossover(parent1, parent2, rng, distances,
+                    contextManager.getNeighborLists());
+            Chromosome child1 = children.get(0);
+            Chromosome child2 = children.get(1);
+
+            // calculating fitness values for children produced by crossover,
+            // copies of parents keep tour lengths of parents
+            if (!child1.hasTourLength()) {
+                child1.computeFitness(distances);
+            }
+
+            if (!child2.hasTourLength()) {
+                child2.computeFitness(distances);
+            }
+
+            // applying mutation to children, tour lengths are updated
+            // by the change of distance of mutated edges
+            mutationManager.applyMutation(child1, rng, distances);
+            mutationManager.applyMutation(child2, rng, distances);
+
+            // apply local search if performLocalSearch is true
+            if (performLocalSearch) {
+                contextManager.applyLocalSearch(child1);
+                contextManager.applyLocalSearch(child2);
+            }
+
+            // rejecting children whose tour is already in population, local search
+            // budget is spent before the check as clones of parents may still improve
+            if (!contextManager.isDuplicate(child1)) {
+                offspring[2 * pair] = child1;
+            }
+
+            if (!contextManager.isDuplicate(child2)) {
+                offspring[2 * pair + 1] = child2;
+            }
+        }
+    }
+
+    /**
+     * method to seed generators of managers from run seed, generation 0
+     * is not evolved so derived seeds do not collide with those of pairs
+     *
+     * @param seed run seed
+     */
+    private void seedManagers(long seed) {
+        contextManager.setSeed(deriveSeed(seed, 0, 0));
+        crossoverManager.setSeed(deriveSeed(seed, 0, 1));
+        mutationManager.setSeed(deriveSeed(seed, 0, 2));
+    }
+
+    /**
+     * method to derive seed of random generator of an offspring pair
+     * from run seed, generation number and pair index
+     *
+     * @param seed       run seed
+     * @param generation number of generation
+     * @param pair       index of offspring pair in generation
+     * @return well mixed 64 bit seed
+     */
+    private static long deriveSeed(long seed, int generation, int pair) {
+        long z = seed + generation * 0x9E3779B97F4A7C15L + pair * 0xC2B2AE3D27D4EB4FL;
+        // finalizer of SplitMix64
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
 }
@@ -0,0 +1,91 @@
+package tsp.genetic.algorithm;
+
+/**
+ * class that keeps termination criteria of a run of genetic
+ * algorithm. A run stops as soon as one of the criteria that are
+ * set is met: maximum number of generations, wall-clock time limit,
+ * target tour length (or gap to a known optimum) and number of
+ * generations without improvement of the best tour. Only the time limit
+ * is checked during a generation as well, the other criteria are checked
+ * after each generation, so they give the same result for the same seed
+ */
+public class TerminationCriteria {
+
+    private int maxGenerations; // maximum number of generations, 0 or less means no limit
+    private long timeLimitMillis; // wall-clock time limit in milliseconds, 0 or less means no limit
+    private double targetTourLength; // tour length at or below which run stops, NaN means no target
+    private int stagnationLimit; // generations without improvement after which run stops, 0 or less means no limit
+
+    public TerminationCriteria() {
+        this.maxGenerations = 0;
+        this.timeLimitMillis = 0;
+        this.targetTourLength = Double.NaN;
+        this.stagnationLimit = 0;
+    }
+
+    /**
+     * constructor for criteria stopping after {@code maxGenerations}
+     * generations only
+     *
+     * @param maxGenerations maximum number of generations
+     */
+    public TerminationCriteria(int maxGenerations) {
+        this();
+        this.maxGenerations = maxGenerations;
+    }
+
+    public int getMaxGenerations() {
+        return this.maxGenerations;
+    }
+
+    public long getTimeLimitMillis() {
+        return this.timeLimitMillis;
+    }
+
+    public double getTargetTourLength() {
+        return this.targetTourLength;
+    }
+
+    public int getStagnationLimit() {
+        return this.stagnationLimit;
+    }
+
+    public void setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+    }
+
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public void setTargetTourLength(double targetTourLength) {
+        this.targetTourLength = targetTourLength;
+    }
+
+    /**
+     * method to set target tour length as a gap to known
+     * optimal tour length, e.g. 1.0 stops once best tour is within
+     * 1% of optimum
+     *
+     * @param optimum    known optimal tour length
+     * @param gapPercent gap to optimum in percent
+     */
+    public void setTargetGap(double optimum, double gapPercent) {
+        this.targetTourLength = optimum * (1.0 + gapPercent / 100.0);
+    }
+
+    public void setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    /**
+     * method to check whether any criterion is set, a run
+     * without criteria would never stop unless cancelled
+     *
+     * @return true if at least one criterion is set
+     */
+    public boolean hasLimit() {
+        return maxGenerations > 0 || timeLimitMillis > 0 || !Double.isNaN(targetTourLength) || stagnationLimit > 0;
+    }
+
+}
@@ -0,0 +1,15 @@
+package tsp.genetic.algorithm;
+
+/**
+ * enum that represents why a run of genetic
+ * algorithm stopped evolving its population
+ */
+public enum TerminationReason {
+
+    MAX_GENERATIONS, // maximum number of generations is evolved
+    TIME_LIMIT, // wall-clock time limit has passed
+    TARGET_REACHED, // best tour is at least as short as target tour length
+    STAGNATION, // best tour has not improved for given number of generations
+    CANCELLED // run is cancelled via its CancellationToken
+
+}
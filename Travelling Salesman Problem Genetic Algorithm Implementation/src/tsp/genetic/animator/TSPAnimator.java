@@ -1,103 +1,280 @@
 package tsp.genetic.animator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Application;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import tsp.genetic.entitites.Point;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
+import javafx.scene.shape.Line;
 import javafx.stage.Stage;
-import javafx.util.Duration;
+import tsp.genetic.algorithm.ProgressEvent;
+import tsp.genetic.entitites.TSPInstance;
 
 /**
- * class that runs the animation for constructed   
- * best route for each generation
+ * class that animates best route of a running genetic algorithm.
+ * It subscribes to progress events of the run (see
+ * {@link tsp.genetic.algorithm.ProgressPublisher}), which are received on
+ * the publisher's thread and put into a bounded queue dropping the oldest
+ * event when full, so the solver never waits for rendering. Newest best
+ * route is kept separately, so it is not lost with dropped events, and
+ * the publisher resends routes it dropped itself. An AnimationTimer
+ * drains both on the JavaFX thread once per frame, only edges that differ
+ * from the displayed route are replaced. Locations and their labels are
+ * drawn once, scaled to fit the canvas from bounds of the coordinates, which
+ * are read from primitive arrays of the instance without creating Point objects,
+ * labels are skipped for large instances
  */
-public class TSPAnimator extends Application {
-
-    // keep data fields as static as JavaFX application's launch
-    // method internally creates an instance of TSPAnimator
-    private static ArrayList<ArrayList<Integer>> bestRoutes;
-    private static ArrayList<Double> bestFitnesses;
-    private static ArrayList<Point> coordinates;
-    private static final double X_SCALE = 840.0 / 7800.0; // scaling factor specific to dataset for X axis
-    private static final double Y_SCALE = 840.0 / 5200.0; // scaling factor specific to dataset for Y axis
+public class TSPAnimator implements Flow.Subscriber<ProgressEvent> {
+
+    private static final double CANVAS_SIZE = 840.0; // width and height of drawing area
+    private static final double MARGIN = 20.0; // space left around locations in drawing area
+    private static final int QUEUE_CAPACITY = 256; // events kept until next frame, oldest are dropped
+    private static final int LABEL_THRESHOLD = 200; // labels are drawn for instances up to this size
+    private static final int SMALL_INSTANCE_SIZE = 1000; // locations of larger instances are drawn smaller
+
+    private double[] xs; // X coordinates of locations
+    private double[] ys; // Y coordinates of locations
+    private double minX; // smallest X coordinate of locations
+    private double minY; // smallest Y coordinate of locations
+    private double scale; // factor scaling coordinates to drawing area, same for both axes
+    private ArrayBlockingQueue<ProgressEvent> events; // events received since last frame
+    private AtomicReference<int[]> pendingRoute; // newest best route not yet displayed, null if none
+    private volatile boolean finished; // whether the run has completed or failed
+    private volatile Throwable failure; // error that ended the subscription, null if none
+    private HashMap<Long, Line> edges; // displayed edges keyed by their two locations, accessed on JavaFX thread
+    private Group edgeLayer; // parent of edge lines
+    private Stage stage;
+
     /**
-     * For `berlin52TSP.csv`
-     * X_SCALE = 840.0 / 1800.0;
-     * Y_SCALE = 840.0 / 1200.0;
-     * 
-     * For `att48TSP.csv`
-     * Y_SCALE = 840.0 / 7800.0;
-     * Y_SCALE = 840.0 / 5200.0;
+     * constructor that computes bounds of locations, the animator
+     * is subscribed to a publisher afterwards and shown via
+     * {@link #show(Stage)} on JavaFX thread
+     *
+     * @param instance TSPInstance object keeping coordinates of locations
      */
+    public TSPAnimator(TSPInstance instance) {
+        this.xs = instance.getXCoordinates();
+        this.ys = instance.getYCoordinates();
+        this.events = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.pendingRoute = new AtomicReference<>();
+        this.finished = false;
+        this.failure = null;
+        this.edges = new HashMap<>();
+        this.edgeLayer = new Group();
+        computeBounds();
+    }
 
-    public static void setData(ArrayList<ArrayList<Integer>> routes, ArrayList<Double> fitnesses,
-            ArrayList<Point> coords) {
-        bestRoutes = routes;
-        bestFitnesses = fitnesses;
-        coordinates = coords;
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        // events are cheap to receive, excess ones are dropped by the queue
+        subscription.request(Long.MAX_VALUE);
     }
 
     @Override
-    public void start(Stage primaryStage) {
-        Canvas canvas = new Canvas(840, 840);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
+    public void onNext(ProgressEvent event) {
+        if (event.hasBestRoute()) {
+            pendingRoute.set(event.getBestRoute());
+        }
+
+        // dropping oldest events, only JavaFX thread takes events
+        // in between, so each poll makes room for the new one
+        while (!events.offer(event)) {
+            events.poll();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        failure = throwable;
+        finished = true;
+    }
+
+    @Override
+    public void onComplete() {
+        finished = true;
+    }
 
-        // setting Scene for primaryStage and displaying stage
-        StackPane canvasHolder = new StackPane(canvas);
+    /**
+     * method to display locations on {@code stage} and start
+     * rendering received routes once per frame, it must be called
+     * on JavaFX thread
+     *
+     * @param stage Stage object the animation is displayed on
+     */
+    public void show(Stage stage) {
+        this.stage = stage;
+        Canvas canvas = new Canvas(CANVAS_SIZE, CANVAS_SIZE);
+        drawLocations(canvas.getGraphicsContext2D());
+
+        // setting Scene for stage and displaying it, locations are
+        // drawn on a transparent canvas above the edges
+        StackPane canvasHolder = new StackPane(new Group(edgeLayer, canvas));
         canvasHolder.setStyle("-fx-background-color: #cccccc;");
         BorderPane root = new BorderPane();
         root.setCenter(canvasHolder);
         root.setStyle("-fx-background-color: #cccccc;");
 
-        primaryStage.setScene(new Scene(root, 950, 950));
-        primaryStage.show();
+        stage.setScene(new Scene(root, 950, 950));
+        stage.setTitle("Waiting for first generation");
+        stage.show();
+
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                // finished is read before draining, so nothing received
+                // before completion is left unrendered when the timer stops
+                boolean done = finished;
+                renderFrame();
+                if (done) {
+                    stop();
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * helper method to render events received since last frame,
+     * title shows progress of the newest generation
+     */
+    private void renderFrame() {
+        ProgressEvent latest = null;
+        ProgressEvent event;
+        while ((event = events.poll()) != null) {
+            latest = event;
+        }
+
+        int[] route = pendingRoute.getAndSet(null);
+        if (route != null) {
+            updateEdges(route);
+        }
+
+        if (latest != null) {
+            stage.setTitle(String.format("Generation: %d Total Distance: %.1f Mean: %.1f Diversity: %.3f",
+                    latest.getGeneration(), latest.getBestTourLength(), latest.getMeanTourLength(),
+                    latest.getDiversity()));
+        }
+
+        if (failure != null) {
+            stage.setTitle("Run failed: " + failure);
+        }
+    }
 
-        // animating best routes
-        final int[] frame = {0};
-        Timeline timeLine = new Timeline(new KeyFrame(Duration.millis(100), event -> {
-            if (frame[0] < bestRoutes.size()) {    
-                drawRoute(gc, bestRoutes.get(frame[0]));
-                primaryStage.setTitle("Generation: " + (frame[0] + 1) +
-                        " Fitness: " + bestFitnesses.get(frame[0]) +
-                        " Total Distance: " + (1.0 / bestFitnesses.get(frame[0])));
+    /**
+     * helper method to replace displayed edges by edges of {@code route},
+     * edges present in both routes are kept and lines of removed edges are
+     * reused for added ones, so only changed edges are redrawn
+     *
+     * @param route array of 0-based location indexes
+     */
+    private void updateEdges(int[] route) {
+        HashMap<Long, Line> nextEdges = new HashMap<>(2 * route.length);
+        ArrayList<int[]> addedEdges = new ArrayList<>();
+        for (int i = 0; i < route.length; i++) {
+            int from = route[i];
+            int to = route[(i + 1 == route.length) ? 0 : i + 1];
+            long key = edgeKey(from, to);
+            Line line = edges.remove(key);
+            if (line != null) {
+                nextEdges.put(key, line);
+            }
 
-                frame[0]++;
+            else {
+                addedEdges.add(new int[] { from, to });
             }
-        }));
+        }
 
-        timeLine.setCycleCount(bestRoutes.size());
-        timeLine.play();
+        // lines left in edges belong to removed edges
+        Iterator<Line> unusedLines = edges.values().iterator();
+        for (int[] edge : addedEdges) {
+            Line line;
+            if (unusedLines.hasNext()) {
+                line = unusedLines.next();
+                unusedLines.remove();
+            }
+
+            else {
+                line = new Line();
+                edgeLayer.getChildren().add(line);
+            }
+
+            line.setStartX(toCanvasX(edge[0]));
+            line.setStartY(toCanvasY(edge[0]));
+            line.setEndX(toCanvasX(edge[1]));
+            line.setEndY(toCanvasY(edge[1]));
+            nextEdges.put(edgeKey(edge[0], edge[1]), line);
+        }
+
+        // both routes have the same number of edges, so lines are only
+        // left over if the number of locations changed
+        if (!edges.isEmpty()) {
+            edgeLayer.getChildren().removeAll(new ArrayList<>(edges.values()));
+        }
+        edges = nextEdges;
     }
 
     /**
-     * helper method to draw the best route for current
-     * frame
-     * 
-     * @param gc    GraphicsContext object to draw line between two points
-     * @param route ArrayList of labels
+     * helper method to draw locations and, for instances up to
+     * {@code LABEL_THRESHOLD} locations, their labels
+     *
+     * @param gc GraphicsContext object of canvas above the edges
      */
-    private void drawRoute(GraphicsContext gc, ArrayList<Integer> route) {
-        gc.clearRect(0, 0, 840, 840);
-        for (int i = 0; i < route.size(); i++) {
-            Point from = coordinates.get(route.get(i) - 1);
-            Point to = coordinates.get(route.get(((i + 1) % route.size())) - 1);
-            // scaling coordinates to fit in canvas
-            double x1 = from.getXCoordinate() * X_SCALE;
-            double y1 = from.getYCoordinate() * Y_SCALE;
-            double x2 = to.getXCoordinate() * X_SCALE;
-            double y2 = to.getYCoordinate() * Y_SCALE;
-
-            gc.strokeLine(x1, y1, x2, y2);
-            gc.fillOval(x1 - 3, y1 - 3, 6, 6);
-            gc.fillText(String.valueOf(route.get(i)), x1 + 8, y1 + 8);
+    private void drawLocations(GraphicsContext gc) {
+        int size = xs.length;
+        double radius = (size <= SMALL_INSTANCE_SIZE) ? 3.0 : 1.0;
+        for (int i = 0; i < size; i++) {
+            double x = toCanvasX(i);
+            double y = toCanvasY(i);
+            gc.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+            // labels are displayed 1-based as in the dataset
+            if (size <= LABEL_THRESHOLD) {
+                gc.fillText(String.valueOf(i + 1), x + 8, y + 8);
+            }
         }
     }
 
+    /**
+     * helper method to compute smallest coordinates and a scale
+     * fitting all locations into drawing area, keeping aspect ratio
+     */
+    private void computeBounds() {
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        double extent = Math.max(maxX - minX, maxY - minY);
+        scale = (extent > 0) ? (CANVAS_SIZE - 2 * MARGIN) / extent : 1.0;
+    }
+
+    private double toCanvasX(int loc) {
+        return MARGIN + (xs[loc] - minX) * scale;
+    }
+
+    private double toCanvasY(int loc) {
+        return MARGIN + (ys[loc] - minY) * scale;
+    }
+
+    /**
+     * helper method to get key of undirected edge between
+     * two locations, independent of their order
+     */
+    private long edgeKey(int loc1, int loc2) {
+        return ((long) Math.min(loc1, loc2) << 32) | Math.max(loc1, loc2);
+    }
+
 }
@@ -1,32 +1,91 @@
 package tsp.genetic.context;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
+import tsp.genetic.distance.DistanceProvider;
 import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.localsearch.NeighborLists;
 
 /**
  * class that contains methods for applying different crossover 
- * types to be applied in the genetic algorithm
+ * types to be applied in the genetic algorithm. Crossover operators
+ * run in O(N) using scratch buffers that are kept per thread and reused
+ * across calls, so the only allocation of an operator is the child route.
+ * Edge Assembly Crossover, which preserves edges of parents instead of
+ * positions, can be selected once distances are set or when distances
+ * are given with the call
  * @auhtor Gökay Gülsoy 
  * @since 29/05/2025
  */
 public class CrossoverManager { 
 
+    private static final CrossoverType[] CROSSOVER_TYPES = { CrossoverType.ORDER_ONE,
+            CrossoverType.PARTIALLY_MAPPED, CrossoverType.CYCLE }; // crossover types picked at random
+
     private double crossoverRate; // crossover probability
-    private Random crossoverProbGenerator; // generates probability for crossover
+    private CrossoverType crossoverType; // crossover type applied, null picks one of CROSSOVER_TYPES at random
+    private EdgeAssemblyCrossover edgeAssemblyCrossover; // keeps scratch buffers of Edge Assembly Crossover
+    private DistanceProvider distances; // distances used by calls without explicit distances, null if not set
+    private NeighborLists neighborLists; // candidate neighbors used by calls without explicit distances
+    private SplittableRandom crossoverProbGenerator; // generator of calls without explicit generator, not thread-safe
+    private ThreadLocal<CrossoverScratch> scratchBuffers; // scratch buffers of crossover operators per thread
 
     public CrossoverManager(double crossoverRate) {
         this.crossoverRate = crossoverRate;
-        this.crossoverProbGenerator = new Random();
+        this.crossoverType = null;
+        this.edgeAssemblyCrossover = new EdgeAssemblyCrossover();
+        this.distances = null;
+        this.neighborLists = null;
+        this.crossoverProbGenerator = new SplittableRandom();
+        this.scratchBuffers = ThreadLocal.withInitial(CrossoverScratch::new);
+    }
+
+    public CrossoverType getCrossoverType() {
+        return this.crossoverType;
+    }
+
+    /**
+     * method to set crossover type applied with crossover rate
+     * 
+     * @param crossoverType crossover type, null picks one of Order 1,
+     *                      Partially Mapped and Cycle Crossover at random
+     *                      for each pair of parents
+     */
+    public void setCrossoverType(CrossoverType crossoverType) {
+        this.crossoverType = crossoverType;
+    }
+
+    /**
+     * method to set distances of problem instance, which Edge Assembly
+     * Crossover needs to merge subtours, used by calls that are not given
+     * distances explicitly
+     * 
+     * @param distances     DistanceProvider object of problem instance
+     * @param neighborLists candidate neighbors tried when merging subtours,
+     *                      null means all locations
+     */
+    public void setDistances(DistanceProvider distances, NeighborLists neighborLists) {
+        this.distances = distances;
+        this.neighborLists = neighborLists;
     }
 
     /**
-     * method to apply one of three crossover strategies
-     * randomly (Order 1 Crossover, Partially Mapped Crossover, Cycle Crossover)
+     * method to seed generator used by
+     * {@link #applyCrossover(Chromosome, Chromosome)}
+     * 
+     * @param seed seed of generator
+     */
+    public void setSeed(long seed) {
+        this.crossoverProbGenerator = new SplittableRandom(seed);
+    }
+
+    /**
+     * method to apply crossover type set via {@link #setCrossoverType(CrossoverType)}
+     * or by default one of three crossover strategies randomly (Order 1
+     * Crossover, Partially Mapped Crossover, Cycle Crossover)
      * 
      * @param parent1 Chromosome representing first parent
      * @param parent2 Chromosome representing second parent
@@ -34,62 +93,154 @@ public class CrossoverManager {
      *         strategy
      */
     public ArrayList<Chromosome> applyCrossover(Chromosome parent1, Chromosome parent2) {
+        return applyCrossover(parent1, parent2, crossoverProbGenerator);
+    }
+
+    /**
+     * method to apply crossover type set via {@link #setCrossoverType(CrossoverType)}
+     * or by default one of three crossover strategies randomly (Order 1
+     * Crossover, Partially Mapped Crossover, Cycle Crossover) drawing all random
+     * numbers from {@code rng}, this method can be called concurrently as long
+     * as each thread uses its own generator
+     * 
+     * @param parent1 Chromosome representing first parent
+     * @param parent2 Chromosome representing second parent
+     * @param rng     random number generator to be used
+     * @return New children Chromosomes produced by selected crossover
+     *         strategy
+     */
+    public ArrayList<Chromosome> applyCrossover(Chromosome parent1, Chromosome parent2, RandomGenerator rng) {
+        return applyCrossover(parent1, parent2, rng, distances, neighborLists);
+    }
+
+    /**
+     * method to apply crossover as {@link #applyCrossover(Chromosome, Chromosome, RandomGenerator)}
+     * does, Edge Assembly Crossover using given distances and candidate
+     * neighbors instead of the ones set via {@link #setDistances(DistanceProvider, NeighborLists)}
+     * 
+     * @param parent1       Chromosome representing first parent
+     * @param parent2       Chromosome representing second parent
+     * @param rng           random number generator to be used
+     * @param distances     DistanceProvider object of problem instance
+     * @param neighborLists candidate neighbors tried when merging subtours,
+     *                      null means all locations
+     * @return New children Chromosomes produced by selected crossover
+     *         strategy
+     */
+    public ArrayList<Chromosome> applyCrossover(Chromosome parent1, Chromosome parent2, RandomGenerator rng,
+            DistanceProvider distances, NeighborLists neighborLists) {
+        if (rng.nextDouble() < crossoverRate) {
+            if (crossoverType != null) {
+                return applyCrossover(parent1, parent2, crossoverType, rng, distances, neighborLists);
+            }
+
+            int crossoverTypeIndex = rng.nextInt(CROSSOVER_TYPES.length);
+
+            return applyCrossover(parent1, parent2, CROSSOVER_TYPES[crossoverTypeIndex], rng, distances,
+                    neighborLists);
+        }
+
+        ArrayList<Chromosome> children = new ArrayList<>();
+        // copies of parents are returned as the children, in case of no crossover
+        // so that mutation and local search never modify population members
+        children.add(new Chromosome(parent1));
+        children.add(new Chromosome(parent2));
+
+        return children;
+    }
+
+    /**
+     * method to apply given crossover strategy regardless of
+     * crossover rate, used to experiment or benchmark a single operator
+     * 
+     * @param parent1       Chromosome representing first parent
+     * @param parent2       Chromosome representing second parent
+     * @param crossoverType crossover strategy to be applied
+     * @param rng           random number generator to be used
+     * @return New children Chromosomes produced by crossover strategy
+     */
+    public ArrayList<Chromosome> applyCrossover(Chromosome parent1, Chromosome parent2, CrossoverType crossoverType,
+            RandomGenerator rng) {
+        return applyCrossover(parent1, parent2, crossoverType, rng, distances, neighborLists);
+    }
+
+    /**
+     * method to apply given crossover strategy regardless of crossover
+     * rate, Edge Assembly Crossover using given distances and candidate
+     * neighbors instead of the ones set via {@link #setDistances(DistanceProvider, NeighborLists)}
+     * 
+     * @param parent1       Chromosome representing first parent
+     * @param parent2       Chromosome representing second parent
+     * @param crossoverType crossover strategy to be applied
+     * @param rng           random number generator to be used
+     * @param distances     DistanceProvider object of problem instance,
+     *                      required by Edge Assembly Crossover only
+     * @param neighborLists candidate neighbors tried when merging subtours,
+     *                      null means all locations
+     * @return New children Chromosomes produced by crossover strategy
+     */
+    public ArrayList<Chromosome> applyCrossover(Chromosome parent1, Chromosome parent2, CrossoverType crossoverType,
+            RandomGenerator rng, DistanceProvider distances, NeighborLists neighborLists) {
         ArrayList<Chromosome> children = new ArrayList<>();
         Chromosome child1 = null;
         Chromosome child2 = null;
 
-        if (crossoverProbGenerator.nextDouble() < crossoverRate) {
-            Random rng = new Random();
-            int crossoverType = rng.nextInt(3);
-
-            switch (crossoverType) {
-                case 0:
-                    child1 = applyOrderOneCrossover(parent1, parent2);
-                    child2 = applyOrderOneCrossover(parent2, parent1);
-                    break;
-                case 1:
-                    child1 = applyPartiallyMappedCrossover(parent1, parent2);
-                    child2 = applyPartiallyMappedCrossover(parent2, parent1);
-                    break;
-                case 2:
-                    child1 = applyCycleCrossover(parent1, parent2);
-                    child2 = applyCycleCrossover(parent2, parent1);
-            }
-
-            children.add(child1);
-            children.add(child2);
+        switch (crossoverType) {
+            case ORDER_ONE:
+                child1 = applyOrderOneCrossover(parent1, parent2, rng);
+                child2 = applyOrderOneCrossover(parent2, parent1, rng);
+                break;
+            case PARTIALLY_MAPPED:
+                child1 = applyPartiallyMappedCrossover(parent1, parent2, rng);
+                child2 = applyPartiallyMappedCrossover(parent2, parent1, rng);
+                break;
+            case CYCLE:
+                child1 = applyCycleCrossover(parent1, parent2);
+                child2 = applyCycleCrossover(parent2, parent1);
+                break;
+            case EDGE_ASSEMBLY:
+                if (distances == null) {
+                    throw new IllegalStateException("Distances must be set for Edge Assembly Crossover !!");
+                }
 
-            return children;
+                child1 = edgeAssemblyCrossover.apply(parent1, parent2, rng, distances, neighborLists);
+                child2 = edgeAssemblyCrossover.apply(parent2, parent1, rng, distances, neighborLists);
         }
 
-        // parents are returned as the children directly, in case of no crossover
-        children.add(parent1);
-        children.add(parent2);
+        children.add(child1);
+        children.add(child2);
 
         return children;
     }
 
     /**
      * method to perform Order 1 Crossover (OX1)
-     * between two parents to produce a new child
+     * between two parents to produce a new child.
+     * Genes copied from crossover segment are marked in
+     * scratch buffer, so the child is filled in O(N)
      * 
      * @param parent1 Chromosome representing first parent
      * @param parent2 Chromosome representing second parent
+     * @param rng     random number generator to be used
      * @return New child Chromosome produced by Order 1 Crossover
      */
-    private Chromosome applyOrderOneCrossover(Chromosome parent1, Chromosome parent2) {
+    private Chromosome applyOrderOneCrossover(Chromosome parent1, Chromosome parent2, RandomGenerator rng) {
 
-        ArrayList<Integer> permutation1 = parent1.getLocOrder();
-        ArrayList<Integer> permutation2 = parent2.getLocOrder();
+        int[] permutation1 = parent1.getLocOrder();
+        int[] permutation2 = parent2.getLocOrder();
 
-        int permutationSize = permutation1.size();
-        Random rng = new Random();
+        int permutationSize = permutation1.length;
         int crossoverStart = rng.nextInt(permutationSize - 1);
         int crossoverEnd = (crossoverStart + 1) + rng.nextInt(permutationSize - crossoverStart - 1);
 
-        ArrayList<Integer> childPermutation = new ArrayList<>(Collections.nCopies(permutationSize, null));
+        CrossoverScratch scratch = scratchBuffers.get().prepare(permutationSize);
+        int[] geneMarks = scratch.geneMarks;
+        int stamp = scratch.stamp;
+
+        int[] childPermutation = new int[permutationSize];
         for (int i = crossoverStart; i <= crossoverEnd; i++) {
-            childPermutation.set(i, permutation1.get(i));
+            childPermutation[i] = permutation1[i];
+            geneMarks[permutation1[i]] = stamp;
         }
 
         // filling remaining positions from parent2
@@ -98,11 +249,11 @@ public class CrossoverManager {
         int childSize = crossoverEnd - crossoverStart + 1;
 
         while (childSize < permutationSize) {
-            int gene = permutation2.get(permutation2Index);
+            int gene = permutation2[permutation2Index];
             permutation2Index = (permutation2Index + 1) % permutationSize;
 
-            if (!childPermutation.contains(gene)) {
-                childPermutation.set(insertIndex, gene);
+            if (geneMarks[gene] != stamp) {
+                childPermutation[insertIndex] = gene;
                 insertIndex = (insertIndex + 1) % permutationSize;
                 childSize++;
             }
@@ -114,76 +265,68 @@ public class CrossoverManager {
 
     /**
      * method to perform Partially Mapped Crossover (PMX)
-     * between two parents to produce a new child
+     * between two parents to produce a new child.
+     * Positions of genes in parent2 are indexed in scratch
+     * buffer, so the child is filled in O(N)
      * 
      * @param parent1 Chromosome representing first parent
      * @param parent2 Chromosome representing second parent
+     * @param rng     random number generator to be used
      * @return New child Chromosome produced by Partially Mapped Crossover
      */
-    private Chromosome applyPartiallyMappedCrossover(Chromosome parent1, Chromosome parent2) {
+    private Chromosome applyPartiallyMappedCrossover(Chromosome parent1, Chromosome parent2, RandomGenerator rng) {
 
-        ArrayList<Integer> permutation1 = parent1.getLocOrder();
-        ArrayList<Integer> permutation2 = parent2.getLocOrder();
+        int[] permutation1 = parent1.getLocOrder();
+        int[] permutation2 = parent2.getLocOrder();
 
-        int permutationSize = permutation1.size();
-        Random rng = new Random();
+        int permutationSize = permutation1.length;
         int crossoverStart = rng.nextInt(permutationSize - 1);
         int crossoverEnd = (crossoverStart + 1) + rng.nextInt(permutationSize - crossoverStart - 1);
 
-        // List for keeping track of filled entries in child after
-        // mapping genes from crossover segment
-        ArrayList<Integer> filledIndexesInChild = new ArrayList<>();
-        // List representing the new permutation after crossover
-        ArrayList<Integer> childPermutation = new ArrayList<>(Collections.nCopies(permutationSize, null));
-        // List that stores the genes from crossover segment
-        ArrayList<Integer> childEntries = new ArrayList<>();
+        CrossoverScratch scratch = scratchBuffers.get().prepare(permutationSize);
+        int[] geneMarks = scratch.geneMarks; // marks genes copied from crossover segment
+        int[] filledIndexMarks = scratch.indexMarks; // marks filled indexes of child
+        int[] positionsInPerm2 = scratch.positions;
+        int stamp = scratch.stamp;
 
-        for (int i = crossoverStart; i <= crossoverEnd; i++) {
-            filledIndexesInChild.add(i);
-            Integer crossoverGene = permutation1.get(i);
-            childEntries.add(crossoverGene);
-            childPermutation.set(i, crossoverGene);
+        for (int i = 0; i < permutationSize; i++) {
+            positionsInPerm2[permutation2[i]] = i;
         }
 
-        ArrayList<Integer> nonCopiedEntryIndexesFromPerm2 = new ArrayList<>();
-        // finding indexes of genes that haven't been added to
-        // child from crossover segment for permutation2
+        // array representing the new permutation after crossover
+        int[] childPermutation = new int[permutationSize];
         for (int i = crossoverStart; i <= crossoverEnd; i++) {
-            if (!childEntries.contains(permutation2.get(i))) {
-                nonCopiedEntryIndexesFromPerm2.add(i);
-            }
+            int crossoverGene = permutation1[i];
+            childPermutation[i] = crossoverGene;
+            geneMarks[crossoverGene] = stamp;
+            filledIndexMarks[i] = stamp;
         }
 
-        for (int i = 0; i < nonCopiedEntryIndexesFromPerm2.size(); i++) {
-            int index = nonCopiedEntryIndexesFromPerm2.get(i);
-            // locating element in child for element i
-            Integer childEntry = childPermutation.get(index);
-            // finding index of childEntry in permutation2
-            int indexOfCrossOverEntry = permutation2.indexOf(childEntry);
-            // if place in child is already occupied by another gene
-            // find that gene's index in permutation2 (thus in child) and
-            // place i at that index if it is not occupied (recursively resolve dependencies)
-            boolean cyclicDependencyFinished = false;
-            while (!cyclicDependencyFinished) {
-                if (filledIndexesInChild.contains(indexOfCrossOverEntry)) {
-                    childEntry = childPermutation.get(indexOfCrossOverEntry);
-                    indexOfCrossOverEntry = permutation2.indexOf(childEntry);
-                }
-
-                else {
-                    cyclicDependencyFinished = true;
-                }
+        // placing genes of permutation2 in crossover segment that haven't
+        // been added to child from crossover segment
+        for (int i = crossoverStart; i <= crossoverEnd; i++) {
+            int gene = permutation2[i];
+            if (geneMarks[gene] == stamp) {
+                continue;
             }
 
-            childPermutation.set(indexOfCrossOverEntry, permutation2.get(index));
-            filledIndexesInChild.add(indexOfCrossOverEntry);
+            // if place in child is already occupied by a gene of crossover segment
+            // find that gene's index in permutation2 and continue until an index
+            // outside of crossover segment is found (resolve dependencies)
+            int indexOfCrossOverEntry = i;
+            do {
+                indexOfCrossOverEntry = positionsInPerm2[permutation1[indexOfCrossOverEntry]];
+            } while (indexOfCrossOverEntry >= crossoverStart && indexOfCrossOverEntry <= crossoverEnd);
+
+            childPermutation[indexOfCrossOverEntry] = gene;
+            filledIndexMarks[indexOfCrossOverEntry] = stamp;
         }
 
         // after having dealt with crossover segment, rest of
         // the child is filled from parent2
         for (int i = 0; i < permutationSize; i++) {
-            if (!filledIndexesInChild.contains(i)) {
-                childPermutation.set(i, permutation2.get(i));
+            if (filledIndexMarks[i] != stamp) {
+                childPermutation[i] = permutation2[i];
             }
         }
 
@@ -193,7 +336,10 @@ public class CrossoverManager {
 
     /**
      * method to apply Cycle crossover between
-     * two parents to produce a new child
+     * two parents to produce a new child. Cycles are
+     * followed via positions of genes in parent1 indexed in
+     * scratch buffer, genes of alternating cycles are copied
+     * from parent1 and parent2 respectively
      * 
      * @param parent1 Chromosome representing first parent
      * @param parent2 Chromosome representing second parent
@@ -201,46 +347,36 @@ public class CrossoverManager {
      */
     private Chromosome applyCycleCrossover(Chromosome parent1, Chromosome parent2) {
 
-        ArrayList<Integer> permutation1 = parent1.getLocOrder();
-        ArrayList<Integer> permutation2 = parent2.getLocOrder();
-        int permutationSize = permutation1.size();
+        int[] permutation1 = parent1.getLocOrder();
+        int[] permutation2 = parent2.getLocOrder();
+        int permutationSize = permutation1.length;
 
-        ArrayList<Integer> filledIndexesInChild = new ArrayList<>();
-        ArrayList<Integer> childPermutation = new ArrayList<>(Collections.nCopies(permutationSize, null));
+        CrossoverScratch scratch = scratchBuffers.get().prepare(permutationSize);
+        int[] filledIndexMarks = scratch.indexMarks;
+        int[] positionsInPerm1 = scratch.positions;
+        int stamp = scratch.stamp;
 
         for (int i = 0; i < permutationSize; i++) {
-            if (!filledIndexesInChild.contains(i)) {
-                filledIndexesInChild.add(i);
-                boolean alternate = false;
-                Integer firstGeneOfCycle = permutation1.get(i);
-                Map<Integer, Integer> indexGeneMap = new HashMap<>();
-                int currentIndex = i;
-                Integer mutualEntry = permutation2.get(i);
-                indexGeneMap.put(currentIndex, firstGeneOfCycle);
-
-                while (firstGeneOfCycle.intValue() != mutualEntry.intValue()) {
-                    currentIndex = permutation1.indexOf(mutualEntry);
-                    filledIndexesInChild.add(currentIndex);
-                    // alternate between parents when copying genes
-                    if (alternate) {
-                        indexGeneMap.put(currentIndex, permutation2.get(currentIndex));
-                    }
-
-                    else {
-                        indexGeneMap.put(currentIndex, permutation1.get(currentIndex));
-                    }
-
-                    mutualEntry = permutation2.get(currentIndex);
-                }
+            positionsInPerm1[permutation1[i]] = i;
+        }
 
-                // at the end of teach cycle alternate
-                alternate = alternate ? false : true;
+        int[] childPermutation = new int[permutationSize];
+        boolean alternate = false;
 
-                // add genes in cycle to child
-                for (Map.Entry<Integer, Integer> entry : indexGeneMap.entrySet()) {
-                    childPermutation.set(entry.getKey(), entry.getValue());
-                }
+        for (int i = 0; i < permutationSize; i++) {
+            if (filledIndexMarks[i] != stamp) {
+                int currentIndex = i;
+                // follow cycle starting at index i until it returns to i
+                do {
+                    filledIndexMarks[currentIndex] = stamp;
+                    // alternate between parents when copying genes
+                    childPermutation[currentIndex] = alternate ? permutation2[currentIndex]
+                            : permutation1[currentIndex];
+                    currentIndex = positionsInPerm1[permutation2[currentIndex]];
+                } while (currentIndex != i);
 
+                // at the end of each cycle alternate
+                alternate = !alternate;
             }
         }
 
@@ -253,4 +389,40 @@ public class CrossoverManager {
         return "CrossoverManager(crossover rate: " + this.crossoverRate + ")";
     }
 
+    /**
+     * class that keeps scratch buffers of crossover operators for
+     * a single thread. Marks are compared against a stamp that is
+     * incremented per call, so buffers never need to be cleared
+     */
+    private static class CrossoverScratch {
+
+        private int[] geneMarks = new int[0]; // geneMarks[gene] == stamp if gene is marked in current call
+        private int[] indexMarks = new int[0]; // indexMarks[i] == stamp if index i is marked in current call
+        private int[] positions = new int[0]; // positions[gene] is index of gene in a parent
+        private int stamp = 0; // mark value of current call
+
+        /**
+         * method to make buffers large enough for {@code size}
+         * genes and start a new call
+         */
+        private CrossoverScratch prepare(int size) {
+            if (geneMarks.length < size) {
+                geneMarks = new int[size];
+                indexMarks = new int[size];
+                positions = new int[size];
+                stamp = 0;
+            }
+
+            if (stamp == Integer.MAX_VALUE) {
+                Arrays.fill(geneMarks, 0);
+                Arrays.fill(indexMarks, 0);
+                stamp = 0;
+            }
+
+            stamp++;
+            return this;
+        }
+
+    }
+
 }
@@ -0,0 +1,14 @@
+package tsp.genetic.context;
+
+/**
+ * enum that represents crossover operators
+ * provided by CrossoverManager
+ */
+public enum CrossoverType {
+
+    ORDER_ONE, // Order 1 Crossover (OX1)
+    PARTIALLY_MAPPED, // Partially Mapped Crossover (PMX)
+    CYCLE, // Cycle Crossover (CX)
+    EDGE_ASSEMBLY // Edge Assembly Crossover (EAX), needs distances set on CrossoverManager
+
+}
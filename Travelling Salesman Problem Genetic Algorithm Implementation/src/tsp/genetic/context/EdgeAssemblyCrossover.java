@@ -0,0 +1,432 @@
+package tsp.genetic.context;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+import tsp.genetic.localsearch.NeighborLists;
+
+/**
+ * class that implements Edge Assembly Crossover (EAX) with single
+ * AB-cycle strategy. Edges that are in exactly one parent form a graph
+ * whose edges are decomposed into AB-cycles alternating between edges of
+ * parent A and parent B. One random AB-cycle is applied to A, i.e. its
+ * A edges are replaced by its B edges, which gives a set of subtours.
+ * Subtours are merged, smallest first, by the cheapest exchange of one
+ * edge of each subtour found among candidate neighbors. Nearly all edges
+ * of the child come from its parents, so good edges are preserved.
+ * Routes are handled as adjacency arrays, the whole operator runs in O(N)
+ * apart from merging. Scratch buffers are kept per thread, so one instance
+ * can be used by several threads concurrently. Distances and candidate
+ * neighbors are given with each call, so they are never stale
+ */
+class EdgeAssemblyCrossover {
+
+    private ThreadLocal<EAXScratch> scratchBuffers; // scratch buffers per thread
+
+    EdgeAssemblyCrossover() {
+        this.scratchBuffers = ThreadLocal.withInitial(EAXScratch::new);
+    }
+
+    /**
+     * method to produce a child from parents A and B, child
+     * keeps tour length if tour length of parentA is known
+     *
+     * @param parentA       Chromosome whose route is modified by an AB-cycle
+     * @param parentB       Chromosome providing edges of AB-cycle
+     * @param rng           random number generator to be used
+     * @param distances     DistanceProvider object of problem instance
+     * @param neighborLists candidate neighbors tried when merging subtours,
+     *                      null means all locations
+     * @return New child Chromosome, a copy of parentA if parents have
+     *         the same edges
+     */
+    Chromosome apply(Chromosome parentA, Chromosome parentB, RandomGenerator rng, DistanceProvider distances,
+            NeighborLists neighborLists) {
+        int[] routeA = parentA.getLocOrder();
+        int[] routeB = parentB.getLocOrder();
+        int size = routeA.length;
+        if (size < 5) {
+            return new Chromosome(parentA);
+        }
+
+        EAXScratch scratch = scratchBuffers.get().prepare(size);
+        loadAdjacency(routeA, scratch.adjacencyA);
+        loadAdjacency(routeB, scratch.adjacencyB);
+        System.arraycopy(scratch.adjacencyA, 0, scratch.links, 0, 2 * size);
+        removeCommonEdges(scratch, size);
+
+        int numberOfCycles = buildABCycles(scratch, size, rng);
+        if (numberOfCycles == 0) {
+            return new Chromosome(parentA);
+        }
+
+        double delta = applyABCycle(scratch, rng.nextInt(numberOfCycles), distances);
+        delta += mergeSubtours(scratch, size, distances, neighborLists);
+
+        Chromosome child = new Chromosome(toRoute(scratch.links, size));
+        if (parentA.hasTourLength()) {
+            child.setTourLength(parentA.getTourLength() + delta);
+        }
+
+        return child;
+    }
+
+    /**
+     * method to fill adjacency array of a route, neighbors
+     * of location v are at indexes 2 * v and 2 * v + 1
+     */
+    private static void loadAdjacency(int[] route, int[] adjacency) {
+        int size = route.length;
+        for (int i = 0; i < size; i++) {
+            int loc = route[i];
+            adjacency[2 * loc] = route[(i + 1 == size) ? 0 : i + 1];
+            adjacency[2 * loc + 1] = route[(i == 0) ? size - 1 : i - 1];
+        }
+    }
+
+    /**
+     * method to remove edges that are in both parents from
+     * adjacency arrays of A and B, removed entries are set to -1
+     */
+    private static void removeCommonEdges(EAXScratch scratch, int size) {
+        int[] adjacencyA = scratch.adjacencyA;
+        int[] adjacencyB = scratch.adjacencyB;
+
+        for (int v = 0; v < size; v++) {
+            for (int slot = 2 * v; slot < 2 * v + 2; slot++) {
+                int w = adjacencyA[slot];
+                if (w > v && (adjacencyB[2 * v] == w || adjacencyB[2 * v + 1] == w)) {
+                    removeEdge(adjacencyA, v, w);
+                    removeEdge(adjacencyB, v, w);
+                }
+            }
+        }
+    }
+
+    /**
+     * method to decompose edges left in adjacency arrays of A and B
+     * into AB-cycles. Edges are followed alternately from A and B,
+     * choosing at random if two edges are left, and a cycle is cut off
+     * whenever the walk returns to a location it left with an edge
+     * of the same parent. Vertices of cycle c are kept in {@code cycles}
+     * from {@code cycleStarts[c]}, edges at even offsets are A edges
+     *
+     * @return number of AB-cycles
+     */
+    private static int buildABCycles(EAXScratch scratch, int size, RandomGenerator rng) {
+        int[] adjacencyA = scratch.adjacencyA;
+        int[] adjacencyB = scratch.adjacencyB;
+        int[] path = scratch.path;
+        int[][] pathPositions = scratch.pathPositions;
+        int numberOfCycles = 0;
+        int cycleEnd = 0;
+        int start = rng.nextInt(size);
+
+        for (int scanned = 0; scanned < size; scanned++) {
+            int first = (start + scanned) % size;
+            if (adjacencyA[2 * first] < 0 && adjacencyA[2 * first + 1] < 0) {
+                continue;
+            }
+
+            path[0] = first;
+            pathPositions[0][first] = 0;
+            int length = 1;
+
+            // walk until all A edges of first location are used, path is
+            // back to first location alone after each cut off cycle
+            while (length > 1 || adjacencyA[2 * first] >= 0 || adjacencyA[2 * first + 1] >= 0) {
+                int current = path[length - 1];
+                int[] adjacency = ((length - 1) % 2 == 0) ? adjacencyA : adjacencyB;
+                int next = takeEdge(adjacency, current, rng);
+                int parity = length % 2;
+                int position = pathPositions[parity][next];
+
+                if (position < 0) {
+                    path[length] = next;
+                    pathPositions[parity][next] = length;
+                    length++;
+                    continue;
+                }
+
+                // cycle from position back to next, rotated so that it starts with an A edge
+                scratch.cycleStarts[numberOfCycles++] = cycleEnd;
+                int firstVertex = (position % 2 == 0) ? position : position + 1;
+                for (int i = firstVertex; i < length; i++) {
+                    scratch.cycles[cycleEnd++] = path[i];
+                }
+
+                if (firstVertex != position) {
+                    scratch.cycles[cycleEnd++] = path[position];
+                }
+
+                for (int i = position + 1; i < length; i++) {
+                    pathPositions[i % 2][path[i]] = -1;
+                }
+                length = position + 1;
+            }
+
+            pathPositions[0][first] = -1;
+        }
+
+        scratch.cycleStarts[numberOfCycles] = cycleEnd;
+        return numberOfCycles;
+    }
+
+    /**
+     * method to take one of the edges left at {@code loc} out of
+     * adjacency array, at random if two edges are left
+     *
+     * @return other end of taken edge
+     */
+    private static int takeEdge(int[] adjacency, int loc, RandomGenerator rng) {
+        int first = adjacency[2 * loc];
+        int second = adjacency[2 * loc + 1];
+        int other = (first < 0 || (second >= 0 && rng.nextBoolean())) ? second : first;
+        removeEdge(adjacency, loc, other);
+        return other;
+    }
+
+    private static void removeEdge(int[] adjacency, int loc1, int loc2) {
+        adjacency[(adjacency[2 * loc1] == loc2) ? 2 * loc1 : 2 * loc1 + 1] = -1;
+        adjacency[(adjacency[2 * loc2] == loc1) ? 2 * loc2 : 2 * loc2 + 1] = -1;
+    }
+
+    private static void addEdge(int[] adjacency, int loc1, int loc2) {
+        adjacency[(adjacency[2 * loc1] < 0) ? 2 * loc1 : 2 * loc1 + 1] = loc2;
+        adjacency[(adjacency[2 * loc2] < 0) ? 2 * loc2 : 2 * loc2 + 1] = loc1;
+    }
+
+    /**
+     * method to replace A edges of AB-cycle {@code cycle} by
+     * its B edges in adjacency array of child
+     *
+     * @return change of tour length
+     */
+    private static double applyABCycle(EAXScratch scratch, int cycle, DistanceProvider distances) {
+        int[] links = scratch.links;
+        int first = scratch.cycleStarts[cycle];
+        int length = scratch.cycleStarts[cycle + 1] - first;
+        double delta = 0.0;
+
+        for (int i = 0; i < length; i += 2) {
+            int loc1 = scratch.cycles[first + i];
+            int loc2 = scratch.cycles[first + i + 1];
+            removeEdge(links, loc1, loc2);
+            delta -= distances.distance(loc1, loc2);
+        }
+
+        for (int i = 1; i < length; i += 2) {
+            int loc1 = scratch.cycles[first + i];
+            int loc2 = scratch.cycles[first + (i + 1) % length];
+            addEdge(links, loc1, loc2);
+            delta += distances.distance(loc1, loc2);
+        }
+
+        return delta;
+    }
+
+    /**
+     * method to merge subtours of child into a single tour. Smallest
+     * subtour is merged into another one by removing an edge (u, u2) of it
+     * and an edge (v, v2) of the other subtour and connecting their end
+     * points crosswise, where v is a candidate neighbor of u. If no
+     * candidate neighbor lies in another subtour, all locations are tried
+     *
+     * @return change of tour length
+     */
+    private static double mergeSubtours(EAXScratch scratch, int size, DistanceProvider distances,
+            NeighborLists neighborLists) {
+        int[] links = scratch.links;
+        int[] subtours = scratch.subtours;
+        int[] subtourSizes = scratch.subtourSizes;
+        int[] subtourFirsts = scratch.subtourFirsts;
+
+        // label locations with subtour index
+        int numberOfSubtours = 0;
+        for (int v = 0; v < size; v++) {
+            subtours[v] = -1;
+        }
+
+        for (int v = 0; v < size; v++) {
+            if (subtours[v] < 0) {
+                subtourFirsts[numberOfSubtours] = v;
+                subtourSizes[numberOfSubtours] = relabel(links, subtours, v, numberOfSubtours);
+                numberOfSubtours++;
+            }
+        }
+
+        double delta = 0.0;
+        int remaining = numberOfSubtours;
+        while (remaining > 1) {
+            int smallest = -1;
+            for (int s = 0; s < numberOfSubtours; s++) {
+                if (subtourSizes[s] > 0 && (smallest < 0 || subtourSizes[s] < subtourSizes[smallest])) {
+                    smallest = s;
+                }
+            }
+
+            delta += mergeSubtour(scratch, subtourFirsts[smallest], smallest, size, distances, neighborLists);
+            // merged subtour takes index of the one it is merged into
+            int target = subtours[subtourFirsts[smallest]];
+            subtourSizes[target] += subtourSizes[smallest];
+            subtourSizes[smallest] = 0;
+            remaining--;
+        }
+
+        return delta;
+    }
+
+    /**
+     * method to merge subtour {@code subtour} starting at {@code first}
+     * with the best exchange found and relabel its locations
+     *
+     * @return change of tour length
+     */
+    private static double mergeSubtour(EAXScratch scratch, int first, int subtour, int size,
+            DistanceProvider distances, NeighborLists neighborLists) {
+        int[] links = scratch.links;
+        int[] subtours = scratch.subtours;
+        double bestDelta = Double.POSITIVE_INFINITY;
+        int bestU = -1;
+        int bestU2 = -1;
+        int bestV = -1;
+        int bestV2 = -1;
+
+        // candidate neighbors first, all locations if none of them lies in another subtour
+        for (int pass = 0; pass < 2 && bestU < 0; pass++) {
+            if (pass == 0 && neighborLists == null) {
+                continue;
+            }
+
+            int candidateCount = (pass == 0) ? neighborLists.getNeighborCount() : size;
+            int previous = -1;
+            int u = first;
+            do {
+                int u2 = (links[2 * u] != previous) ? links[2 * u] : links[2 * u + 1];
+
+                for (int rank = 0; rank < candidateCount; rank++) {
+                    int v = (pass == 0) ? neighborLists.getNeighbor(u, rank) : rank;
+                    if (subtours[v] == subtour) {
+                        continue;
+                    }
+
+                    for (int slot = 2 * v; slot < 2 * v + 2; slot++) {
+                        int v2 = links[slot];
+                        double removed = distances.distance(u, u2) + distances.distance(v, v2);
+                        double delta1 = distances.distance(u, v) + distances.distance(u2, v2) - removed;
+                        double delta2 = distances.distance(u, v2) + distances.distance(u2, v) - removed;
+
+                        if (delta1 < bestDelta) {
+                            bestDelta = delta1;
+                            bestU = u;
+                            bestU2 = u2;
+                            bestV = v;
+                            bestV2 = v2;
+                        }
+
+                        if (delta2 < bestDelta) {
+                            bestDelta = delta2;
+                            bestU = u;
+                            bestU2 = u2;
+                            bestV = v2;
+                            bestV2 = v;
+                        }
+                    }
+                }
+
+                previous = u;
+                u = u2;
+            } while (u != first);
+        }
+
+        // replace edges (u, u2) and (v, v2) with (u, v) and (u2, v2)
+        removeEdge(links, bestU, bestU2);
+        removeEdge(links, bestV, bestV2);
+        addEdge(links, bestU, bestV);
+        addEdge(links, bestU2, bestV2);
+        relabel(links, subtours, first, subtours[bestV]);
+
+        return bestDelta;
+    }
+
+    /**
+     * method to label all locations of the cycle through {@code first}
+     * with {@code label}
+     *
+     * @return number of locations of the cycle
+     */
+    private static int relabel(int[] links, int[] subtours, int first, int label) {
+        int count = 0;
+        int previous = -1;
+        int loc = first;
+        do {
+            subtours[loc] = label;
+            count++;
+            int next = (links[2 * loc] != previous) ? links[2 * loc] : links[2 * loc + 1];
+            previous = loc;
+            loc = next;
+        } while (loc != first);
+
+        return count;
+    }
+
+    /**
+     * method to convert adjacency array of a single tour into a route
+     */
+    private static int[] toRoute(int[] links, int size) {
+        int[] route = new int[size];
+        int previous = -1;
+        int loc = 0;
+        for (int i = 0; i < size; i++) {
+            route[i] = loc;
+            int next = (links[2 * loc] != previous) ? links[2 * loc] : links[2 * loc + 1];
+            previous = loc;
+            loc = next;
+        }
+
+        return route;
+    }
+
+    /**
+     * class that keeps scratch buffers of EAX for a single thread
+     */
+    private static class EAXScratch {
+
+        private int[] adjacencyA = new int[0]; // edges of parent A not yet used by an AB-cycle
+        private int[] adjacencyB = new int[0]; // edges of parent B not yet used by an AB-cycle
+        private int[] links = new int[0]; // adjacency array of child
+        private int[] path = new int[0]; // locations of current alternating walk
+        private int[][] pathPositions = new int[2][0]; // index of location in path by parity of index, -1 if absent
+        private int[] cycles = new int[0]; // vertices of all AB-cycles
+        private int[] cycleStarts = new int[0]; // offset of each AB-cycle in cycles
+        private int[] subtours = new int[0]; // subtour index of each location of child
+        private int[] subtourSizes = new int[0]; // number of locations of each subtour, 0 once merged
+        private int[] subtourFirsts = new int[0]; // a location of each subtour
+
+        /**
+         * method to make buffers large enough for {@code size} locations
+         */
+        private EAXScratch prepare(int size) {
+            if (subtours.length < size) {
+                adjacencyA = new int[2 * size];
+                adjacencyB = new int[2 * size];
+                links = new int[2 * size];
+                path = new int[2 * size + 1];
+                pathPositions = new int[2][size];
+                Arrays.fill(pathPositions[0], -1);
+                Arrays.fill(pathPositions[1], -1);
+                cycles = new int[2 * size];
+                cycleStarts = new int[size + 1];
+                subtours = new int[size];
+                subtourSizes = new int[size];
+                subtourFirsts = new int[size];
+            }
+
+            return this;
+        }
+
+    }
+
+}
@@ -1,61 +1,194 @@
 package tsp.genetic.context;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
-
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+import java.util.random.RandomGenerator;
+
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.distance.DistanceProvider;
 import tsp.genetic.entitites.Chromosome;
 import tsp.genetic.entitites.Point;
+import tsp.genetic.entitites.TSPInstance;
 import tsp.genetic.fileio.FileIO;
+import tsp.genetic.localsearch.CachedLocalSearch;
+import tsp.genetic.localsearch.LocalSearch;
+import tsp.genetic.localsearch.LocalSearchType;
+import tsp.genetic.localsearch.NeighborLists;
+import tsp.genetic.selection.RouletteWheelSelection;
+import tsp.genetic.selection.SelectionStrategy;
 
 /**
  * class that contains methods and data fields to manage 
  * general tasks when running genetic algorithm such as 
  * population generation, survivor selection, distance matrix creation etc.
  * It also also keeps the best route and best fitness found for each generation
- * It also provides an implementation of 2-opt heuristic local search algorithm 
- * for further fitness improvement in each generation
+ * It also applies local search (2-opt by default, Or-opt, Or-3opt or a
+ * variable neighborhood descent over them) for further fitness improvement
+ * in each generation
  * @auhtor Gökay Gülsoy 
  * @since 29/05/2025
  */
 public class GAContextManager implements Comparator<Chromosome> {
 
+    private static final int DEFAULT_CANDIDATE_NEIGHBORS = 10; // nearest neighbors tried by local search for each location
+    private static final int MAX_SELECTION_ATTEMPTS = 16; // redraws before excluded parent is avoided uniformly
+    private static final int MAX_CACHED_RESULTS = 1024; // results of local search cached by default
+    private static final int CACHED_LOCATIONS = 1 << 22; // locations of routes cached by default, 16 MB of routes
+    private static final int INSERTION_SORT_THRESHOLD = 16; // ranges of survivor selection sorted by insertion sort
+
     private ArrayList<Chromosome> population;
-    private ArrayList<Point> coordinates;
-    private double[][] distanceMatrix; // keeps the distance between each location pair (upper triangular matrix)
-    private ArrayList<ArrayList<Integer>> bestRoutes;
-    private ArrayList<Double> bestFitnesses;
+    private ArrayList<Chromosome> survivorBuffer; // list survivors are collected into, swapped with population
+    private Chromosome[] candidates; // population and offspring combined during survivor selection
+    private double[] candidateFitnesses; // fitness values of candidates, reordered along with them
+    private boolean eliminateDuplicates; // whether tours already in population are rejected
+    private TourHashSet populationHashes; // tour hashes of population, rebuilt once per generation
+    private TourHashSet candidateHashes; // tour hashes of candidates taken during survivor selection
+    private TSPInstance instance; // coordinates and distance metric of problem instance
+    private DistanceProvider distances; // keeps or computes the distance between each location pair
+    private ArrayList<int[]> bestRoutes; // best routes recorded by last run, empty unless recording is enabled
+    private ArrayList<Double> bestFitnesses; // fitness values of recorded best routes
+    private LocalSearch localSearch; // local search applied to children, results are cached
+    private int localSearchCacheSize; // number of cached local search results, 0 disables cache
+    private LocalSearchType localSearchType; // type of localSearch
+    private int localSearchBudget; // improving moves per call, 0 or less means run until local optimum
+    private NeighborLists neighborLists; // candidate neighbors of local search, null means all locations
+    private LocalSearch eliteLocalSearch; // Lin-Kernighan style local search applied to elite individuals
+    private BooleanSupplier stopCondition; // local search returns early once it is true, e.g. past time limit
+    private SplittableRandom randomGenerator; // generator of calls without explicit generator, not thread-safe
+    private SelectionStrategy selectionStrategy; // strategy used for selecting parents
 
     public GAContextManager() {
+        this(Paths.get("Travelling Salesman Problem Genetic Algorithm Implementation", "att48TSP.csv").toString(),
+                DistanceMetric.ATT, DistanceBackend.AUTO);
+    }
+
+    /**
+     * constructor that reads coordinates of locations from an instance
+     * file and creates distances with given metric and backend
+     * 
+     * @param instanceFilePath path to csv file containing coordinate for each point
+     *                         or to TSPLIB file with NODE_COORD_SECTION
+     * @param metric           distance metric of problem instance (e.g. ATT for att48,
+     *                         EUC_2D for berlin52), EDGE_WEIGHT_TYPE of TSPLIB files
+     *                         takes precedence
+     * @param backend          backend keeping distances, AUTO picks the largest one
+     *                         that fits comfortably in heap
+     */
+    public GAContextManager(String instanceFilePath, DistanceMetric metric, DistanceBackend backend) {
+        this(loadInstance(instanceFilePath, metric), backend);
+    }
+
+    /**
+     * constructor that creates distances of an already loaded
+     * problem instance with given backend
+     * 
+     * @param instance TSPInstance object keeping coordinates and distance metric
+     * @param backend  backend keeping distances, AUTO picks the largest one
+     *                 that fits comfortably in heap
+     */
+    public GAContextManager(TSPInstance instance, DistanceBackend backend) {
+        this.population = new ArrayList<>();
+        this.survivorBuffer = new ArrayList<>();
+        this.candidates = new Chromosome[0];
+        this.candidateFitnesses = new double[0];
+        this.eliminateDuplicates = true;
+        this.populationHashes = new TourHashSet();
+        this.candidateHashes = new TourHashSet();
+        this.instance = instance;
+        this.bestRoutes = null;
+        this.bestFitnesses = null;
+        this.randomGenerator = new SplittableRandom();
+        this.selectionStrategy = new RouletteWheelSelection();
+        double[] xs = instance.getXCoordinates();
+        double[] ys = instance.getYCoordinates();
+        this.distances = DistanceProvider.create(backend, xs, ys, instance.getMetric());
+        // in order to keep the cost of 2-opt local search small
+        // stop iteration after 5 fitness improvements by default
+        // 2-opt only tries moves creating an edge to one of the nearest neighbors,
+        // lists are built from coordinates so that lazy distances are not filled
+        this.localSearchType = LocalSearchType.TWO_OPT;
+        this.localSearchBudget = 5;
+        this.neighborLists = new NeighborLists(xs, ys, instance.getMetric(), DEFAULT_CANDIDATE_NEIGHBORS);
+        // cache is bounded by total length of cached routes
+        this.localSearchCacheSize = Math.min(MAX_CACHED_RESULTS, CACHED_LOCATIONS / Math.max(instance.getSize(), 1));
+        this.localSearch = createLocalSearch();
+        this.eliteLocalSearch = LocalSearch.create(LocalSearchType.LIN_KERNIGHAN, distances, neighborLists);
+        this.stopCondition = LocalSearch.NEVER_STOP;
+    }
+
+    /**
+     * constructor that creates a context manager for the same
+     * problem instance as {@code source} with its own empty population.
+     * Coordinates, distances and candidate neighbor lists are shared
+     * as they are never modified, local search type and budget and
+     * duplicate elimination setting are copied. Local search and its
+     * result cache are shared as well. Selection strategy is copied with
+     * the same parameters, as its prepared data belongs to one population
+     * 
+     * @param source GAContextManager object whose problem instance to be shared
+     */
+    public GAContextManager(GAContextManager source) {
         this.population = new ArrayList<>();
-        this.coordinates = new ArrayList<>();
+        this.survivorBuffer = new ArrayList<>();
+        this.candidates = new Chromosome[0];
+        this.candidateFitnesses = new double[0];
+        this.eliminateDuplicates = source.eliminateDuplicates;
+        this.populationHashes = new TourHashSet();
+        this.candidateHashes = new TourHashSet();
+        this.instance = source.instance;
         this.bestRoutes = null;
         this.bestFitnesses = null;
-        // filling coordinates with points from csv file
-        FileIO.parseCSVFileAndCreateCoordinates(
-                "Travelling Salesman Problem Genetic Algorithm Implementation\\att48TSP.csv", coordinates);
-        // instantiate distanceMatrix field after filling coordinates List
-        this.distanceMatrix = new double[coordinates.size()][coordinates.size()];
-        // fill the distance matrix with distances
-        fillDistanceMatrix(distanceMatrix);
+        this.randomGenerator = new SplittableRandom();
+        this.selectionStrategy = source.selectionStrategy.newInstance();
+        this.distances = source.distances;
+        this.localSearchType = source.localSearchType;
+        this.localSearchBudget = source.localSearchBudget;
+        this.neighborLists = source.neighborLists;
+        this.localSearchCacheSize = source.localSearchCacheSize;
+        this.localSearch = source.localSearch;
+        this.eliteLocalSearch = source.eliteLocalSearch;
+        this.stopCondition = LocalSearch.NEVER_STOP;
     }
 
     public ArrayList<Chromosome> getPopulation() {
         return this.population;
     }
 
+    /**
+     * method to create Point objects of locations, coordinates are
+     * kept as primitive arrays of problem instance (see {@link #getInstance()})
+     * and points are only created on request, a new list on each call
+     * 
+     * @return list of points indexed by location, labels are 1-based
+     */
     public ArrayList<Point> getCoordinates() {
-        return this.coordinates;
+        double[] xs = instance.getXCoordinates();
+        double[] ys = instance.getYCoordinates();
+        ArrayList<Point> coordinates = new ArrayList<>(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            coordinates.add(new Point(xs[i], ys[i], i + 1));
+        }
+
+        return coordinates;
+    }
+
+    public TSPInstance getInstance() {
+        return this.instance;
     }
 
-    public double[][] getDistanceMatrix() {
-        return distanceMatrix;
+    public DistanceProvider getDistances() {
+        return this.distances;
     }
 
-    public ArrayList<ArrayList<Integer>> getBestRoutes() {
+    public ArrayList<int[]> getBestRoutes() {
         return this.bestRoutes;
     }
 
@@ -63,11 +196,51 @@ public class GAContextManager implements Comparator<Chromosome> {
         return this.bestFitnesses;
     }
 
+    public SelectionStrategy getSelectionStrategy() {
+        return this.selectionStrategy;
+    }
+
+    public int getLocalSearchBudget() {
+        return this.localSearchBudget;
+    }
+
+    public LocalSearchType getLocalSearchType() {
+        return this.localSearchType;
+    }
+
+    public int getLocalSearchCacheSize() {
+        return this.localSearchCacheSize;
+    }
+
+    public NeighborLists getNeighborLists() {
+        return this.neighborLists;
+    }
+
+    public boolean isEliminateDuplicates() {
+        return this.eliminateDuplicates;
+    }
+
+    public BooleanSupplier getStopCondition() {
+        return this.stopCondition;
+    }
+
+    /**
+     * method to set whether duplicate tours are eliminated, i.e.
+     * children whose tour is already in population are rejected and
+     * survivor selection keeps a single copy of each tour as long as
+     * there are enough different tours
+     * 
+     * @param eliminateDuplicates true to eliminate duplicate tours
+     */
+    public void setEliminateDuplicates(boolean eliminateDuplicates) {
+        this.eliminateDuplicates = eliminateDuplicates;
+    }
+
     public void setPopulation(ArrayList<Chromosome> newPopulation) {
         this.population = newPopulation;
     }
 
-    public void setBestRoutes(ArrayList<ArrayList<Integer>> bestRoutes) {
+    public void setBestRoutes(ArrayList<int[]> bestRoutes) {
         this.bestRoutes = bestRoutes;
     }
 
@@ -75,6 +248,101 @@ public class GAContextManager implements Comparator<Chromosome> {
         this.bestFitnesses = bestFitnesses;
     }
 
+    public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+        this.selectionStrategy = selectionStrategy;
+    }
+
+    /**
+     * method to set maximum number of improving moves local
+     * search applies to a Chromosome per call
+     * 
+     * @param maxImprovements improvement budget, 0 or less runs
+     *                        local search until a local optimum is reached
+     */
+    public void setLocalSearchBudget(int maxImprovements) {
+        this.localSearchBudget = maxImprovements;
+    }
+
+    /**
+     * method to set number of local search results cached, results are
+     * keyed by tour hash of the route local search is applied to and least
+     * recently used results are evicted. Cached results are identical to
+     * results of local search, so cache size only changes running time
+     * 
+     * @param localSearchCacheSize maximum number of cached results, 0 disables
+     *                             cache, by default up to 1024 results as long as
+     *                             cached routes keep at most 2^22 locations
+     */
+    public void setLocalSearchCacheSize(int localSearchCacheSize) {
+        this.localSearchCacheSize = localSearchCacheSize;
+        this.localSearch = createLocalSearch();
+    }
+
+    /**
+     * method to set condition local search checks periodically,
+     * searches return early with the route improved so far once it is true
+     * 
+     * @param stopCondition condition of stopping, e.g. time limit of the run
+     *                      being reached, {@link LocalSearch#NEVER_STOP} by default
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * method to set local search applied to children
+     * 
+     * @param localSearchType type of local search, VND applies 2-opt,
+     *                        Or-opt and Or-3opt as a variable neighborhood descent
+     */
+    public void setLocalSearchType(LocalSearchType localSearchType) {
+        this.localSearchType = localSearchType;
+        this.localSearch = createLocalSearch();
+    }
+
+    /**
+     * method to set number of nearest neighbors kept for each location
+     * in candidate neighbor lists of local search
+     * 
+     * @param k number of candidate neighbors, 0 or less makes 2-opt
+     *          scan all location pairs and other local searches try
+     *          all locations instead
+     */
+    public void setCandidateNeighbors(int k) {
+        this.neighborLists = (k > 0)
+                ? new NeighborLists(instance.getXCoordinates(), instance.getYCoordinates(), instance.getMetric(), k)
+                : null;
+        this.localSearch = createLocalSearch();
+        this.eliteLocalSearch = LocalSearch.create(LocalSearchType.LIN_KERNIGHAN, distances, neighborLists);
+    }
+
+    /**
+     * method to seed generator used by methods that do not take
+     * a random number generator, i.e. {@link #generatePopulation(int)}
+     * and {@link #selectParents()}
+     * 
+     * @param seed seed of generator
+     */
+    public void setSeed(long seed) {
+        this.randomGenerator = new SplittableRandom(seed);
+    }
+
+    /**
+     * method to discard population and state kept for it, i.e. survivor
+     * selection buffers, tour hashes and recorded best routes, so that a
+     * new run starts from a population generated afterwards only
+     */
+    public void resetPopulation() {
+        population.clear();
+        survivorBuffer.clear();
+        Arrays.fill(candidates, null);
+        populationHashes.clear();
+        candidateHashes.clear();
+        bestRoutes = null;
+        bestFitnesses = null;
+        stopCondition = LocalSearch.NEVER_STOP;
+    }
+
     /**
      * method to generate population with {@code PopulationSize} number
      * of chromosomes
@@ -82,10 +350,21 @@ public class GAContextManager implements Comparator<Chromosome> {
      * @param populationSize number of chromosomes to be generated
      */
     public void generatePopulation(int populationSize) {
+        generatePopulation(populationSize, randomGenerator);
+    }
+
+    /**
+     * method to generate population with {@code PopulationSize} number
+     * of chromosomes drawing random numbers from {@code rng}
+     * 
+     * @param populationSize number of chromosomes to be generated
+     * @param rng            random number generator to be used
+     */
+    public void generatePopulation(int populationSize, RandomGenerator rng) {
         for (int i = 0; i < populationSize; i++) {
-            ArrayList<Integer> locOrders = sampleLocations();
+            int[] locOrders = sampleLocations(rng);
             Chromosome chr = new Chromosome(locOrders);
-            chr.computeFitness(distanceMatrix);
+            chr.computeFitness(distances);
             population.add(chr);
         }
 
@@ -93,24 +372,15 @@ public class GAContextManager implements Comparator<Chromosome> {
 
     /**
      * method to select two parents among population
-     * where each Chromosome has an sampling probability
-     * proportional to its fitness
+     * using selection strategy, by default each Chromosome 
+     * has an sampling probability proportional to its fitness
      * 
      * @return ArrayList with two selected parents
      */
     public ArrayList<Chromosome> selectParents() {
-        Map<Chromosome, Double> chromosomeFitnessMap = new HashMap<>();
-        for (int i = 0; i < population.size(); i++) {
-            Chromosome chr = population.get(i);
-            chromosomeFitnessMap.put(chr, chr.getFitness());
-        }
-
-        // randomly select first parent
-        Chromosome parent1 = selectRandomParentWithWeight(chromosomeFitnessMap);
-        // remove the already selected parent from Map
-        chromosomeFitnessMap.remove(parent1);
-        // randomly select second parent
-        Chromosome parent2 = selectRandomParentWithWeight(chromosomeFitnessMap);
+        prepareSelection();
+        Chromosome parent1 = selectParent(randomGenerator, null);
+        Chromosome parent2 = selectParent(randomGenerator, parent1);
         ArrayList<Chromosome> selectedParents = new ArrayList<>();
         selectedParents.add(parent1);
         selectedParents.add(parent2);
@@ -119,56 +389,112 @@ public class GAContextManager implements Comparator<Chromosome> {
     }
 
     /**
-     * method to apply 2-opt local search algorithm
-     * which improves the solution by reversing the
-     * sub-route between two locations
+     * method to precompute selection data of selection strategy
+     * for current population, must be called once after population
+     * changes and before {@link #selectParent(RandomGenerator, Chromosome)}
+     */
+    public void prepareSelection() {
+        selectionStrategy.prepare(population);
+    }
+
+    /**
+     * method to collect tour hashes of current population so that
+     * {@link #isDuplicate(Chromosome)} can be called, must be called once
+     * after population changes. Nothing is done if duplicate elimination
+     * is disabled
+     */
+    public void preparePopulationHashes() {
+        populationHashes.clear();
+        if (eliminateDuplicates) {
+            for (int i = 0; i < population.size(); i++) {
+                populationHashes.add(population.get(i).getTourHash());
+            }
+        }
+    }
+
+    /**
+     * method to check in O(1) whether tour of {@code chr} is already in
+     * population prepared by {@link #preparePopulationHashes()}, it
+     * can be called concurrently as it only reads collected hashes
      * 
-     * @param chr Chromosome for which 2-opt local search algorithm
-     *            to be applied
+     * @param chr Chromosome to be checked, its tour hash is computed if
+     *            not known
+     * @return true if duplicate elimination is enabled and population
+     *         has the same tour
      */
-    public void applyTwoOptLocalSeach(Chromosome chr) {
-        boolean imrpovedFitness = true;
-
-        int numberOfImprovements = 0;
-        fitnessLoop: while (imrpovedFitness) {
-            imrpovedFitness = false;
-            ArrayList<Integer> locOrders = chr.getLocOrder();
-
-            for (int i = 1; i < locOrders.size() - 2; i++) {
-                for (int j = i + 1; j < locOrders.size(); j++) {
-                    if (j - i == 1) { // skip adjacent locations (no sub-route exists)
-                        continue;
-                    }
-
-                    ArrayList<Integer> newLocOrders = new ArrayList<>(locOrders);
-                    Collections.reverse(newLocOrders.subList(i, j)); 
-
-                    Chromosome newChromosome = new Chromosome(newLocOrders);
-                    newChromosome.computeFitness(distanceMatrix);
-
-                    double originalFitness = chr.getFitness();
-                    double newFitness = newChromosome.getFitness();
-
-                    if (newFitness > originalFitness) {
-                        chr.setLocOrder(newLocOrders);
-                        chr.setFitness(newFitness);
-                        imrpovedFitness = true;
-                        numberOfImprovements++;
-                    }
-
-                    // in order to keep the cost of 2-opt local search small
-                    // stop iteration after 5 fitness improvements
-                    if (numberOfImprovements == 5) {
-                        imrpovedFitness = false;
-                        break fitnessLoop;
-                    }
+    public boolean isDuplicate(Chromosome chr) {
+        return eliminateDuplicates && populationHashes.contains(chr.getTourHash());
+    }
 
-                }
+    /**
+     * method to select a parent among population with selection
+     * strategy, drawing random numbers from {@code rng}. Selection
+     * data is only read, so this method can be called concurrently
+     * as long as each thread uses its own generator
+     * 
+     * @param rng      random number generator to be used
+     * @param excluded Chromosome that must not be selected (e.g. first
+     *                 parent), can be null
+     * @return selected Chromosome
+     */
+    public Chromosome selectParent(RandomGenerator rng, Chromosome excluded) {
+        Chromosome parent = population.get(selectionStrategy.select(rng));
+        // redraw a bounded number of times if excluded Chromosome is selected
+        for (int attempt = 0; parent == excluded && attempt < MAX_SELECTION_ATTEMPTS; attempt++) {
+            parent = population.get(selectionStrategy.select(rng));
+        }
 
+        // fall back to a uniformly selected different Chromosome
+        if (parent == excluded && population.size() > 1) {
+            int index = rng.nextInt(population.size() - 1);
+            parent = population.get(index);
+            if (parent == excluded) {
+                parent = population.get(population.size() - 1);
             }
-
         }
 
+        return parent;
+    }
+
+    /**
+     * method to apply local search algorithm set via
+     * {@link #setLocalSearchType(LocalSearchType)}, 2-opt by default.
+     * Each move is scored from the affected locations without
+     * re-evaluating the whole route
+     * 
+     * @param chr Chromosome for which local search algorithm
+     *            to be applied
+     * @return number of improving moves applied
+     */
+    public int applyLocalSearch(Chromosome chr) {
+        return localSearch.improve(chr, localSearchBudget, stopCondition);
+    }
+
+    /**
+     * method to apply Lin-Kernighan style local search until
+     * a local optimum is reached, which is much more expensive than
+     * {@link #applyLocalSearch(Chromosome)} and meant for elite individuals
+     * 
+     * @param chr Chromosome for which local search algorithm
+     *            to be applied
+     * @return number of improving moves applied
+     */
+    public int applyEliteLocalSearch(Chromosome chr) {
+        return eliteLocalSearch.improve(chr, 0, stopCondition);
+    }
+
+    /**
+     * method to apply 2-opt local search algorithm
+     * which improves the solution by reversing the
+     * sub-route between two locations, local search set via
+     * {@link #setLocalSearchType(LocalSearchType)} is applied
+     * instead if it is not 2-opt
+     * 
+     * @param chr Chromosome for which 2-opt local search algorithm
+     *            to be applied
+     */
+    public void applyTwoOptLocalSeach(Chromosome chr) {
+        applyLocalSearch(chr);
     }
 
     /**
@@ -212,113 +538,282 @@ public class GAContextManager implements Comparator<Chromosome> {
     }
 
     /**
-     * method to randomly sample coordinates.size()
-     * number of locations in {@code range 1 to coordinates.size() + 1}
-     * both start and end values inclusive
+     * method to select {@code populationSize} individuals having highest
+     * fitness among population and {@code offspring}, i.e. (μ+λ) survivor
+     * selection. Fitness values of candidates are copied into a primitive
+     * array which is partitioned by quickselect in O(N), only the
+     * {@code sortedCount} best survivors are sorted. If duplicate elimination
+     * is enabled, candidates whose tour hash is already taken are only
+     * selected when there are fewer different tours than survivors. Survivors are collected
+     * into a buffer list that is swapped with population, so no allocation
+     * takes place once buffers have grown to combined population size
      * 
-     * @return Arraylist of order labels
-     */
-    private ArrayList<Integer> sampleLocations() {
-        Random rng = new Random();
-        ArrayList<Integer> locOrders = new ArrayList<>();
-        ArrayList<Integer> labels = new ArrayList<>();
-        // initializing labels
-        Integer label = 1;
-        for (int i = 0; i < coordinates.size(); i++) {
-            labels.add(label);
-            label++;
+     * @param offspring      children of current generation
+     * @param populationSize number of survivors
+     * @param sortedCount    number of best survivors kept in decreasing fitness
+     *                       order at the front of population, the best survivor
+     *                       always comes first
+     */
+    public void selectSurvivors(List<Chromosome> offspring, int populationSize, int sortedCount) {
+        int size = population.size() + offspring.size();
+        if (candidates.length < size) {
+            candidates = new Chromosome[size];
+            candidateFitnesses = new double[size];
         }
 
-        for (int i = 0; i < coordinates.size(); i++) {
-            int locationIndex = rng.nextInt(labels.size());
-            Integer location = labels.get(locationIndex);
-            labels.remove(location);
+        // different tours are taken from the front, duplicates from the back,
+        // population comes first so that its members are kept over equal children
+        int uniqueCount = 0;
+        int duplicateStart = size;
+        candidateHashes.clear();
+        for (int i = 0; i < size; i++) {
+            Chromosome chr = (i < population.size()) ? population.get(i) : offspring.get(i - population.size());
+            int index = (!eliminateDuplicates || candidateHashes.add(chr.getTourHash())) ? uniqueCount++
+                    : --duplicateStart;
+            candidates[index] = chr;
+            candidateFitnesses[index] = chr.getFitness();
+        }
 
-            locOrders.add(location);
+        int survivors = Math.min(populationSize, size);
+        int sorted = Math.min(Math.max(sortedCount, 1), survivors);
+        // survivors are moved to the front, the best duplicates fill up missing
+        // survivors, then the best survivors are moved to the front of survivors
+        if (survivors < uniqueCount) {
+            partitionCandidates(0, uniqueCount, survivors);
         }
 
-        return locOrders;
+        else if (survivors > uniqueCount && survivors < size) {
+            partitionCandidates(uniqueCount, size, survivors);
+        }
+
+        if (sorted < survivors) {
+            partitionCandidates(0, survivors, sorted);
+        }
+        sortCandidates(0, sorted);
+
+        survivorBuffer.clear();
+        for (int i = 0; i < survivors; i++) {
+            survivorBuffer.add(candidates[i]);
+        }
+
+        // candidates and old population must not keep discarded individuals reachable
+        Arrays.fill(candidates, 0, size, null);
+        ArrayList<Chromosome> oldPopulation = population;
+        population = survivorBuffer;
+        survivorBuffer = oldPopulation;
+        survivorBuffer.clear();
     }
 
     /**
-     * method to randomly select parent from population
-     * with weight where weight is proportional to Chromosome
-     * objects fitness value
+     * method to restore elite individuals whose tour, after being improved
+     * in place, is already the tour of another individual. Tours before the
+     * search were different from all others, so restoring them keeps a
+     * single copy of each tour in population. Earlier individuals win when
+     * two improved individuals reach the same tour
      * 
-     * @param chromosomeFitnessMap that contains Chromosome-fitness value mappings
-     * @return Chromosome randomly selected from population
-     */
-    private Chromosome selectRandomParentWithWeight(Map<Chromosome, Double> chromosomeFitnessMap) { 
-        // calculate total weight
-        double totalWeight = chromosomeFitnessMap.values().stream().mapToDouble(Double::doubleValue).sum();
-
-        // generate random number in the range of 0 to totalWeight
-        Random rng = new Random();
-        double randomValue = rng.nextDouble(totalWeight);
-        // iterate through chromosomes and subtract weights to find selected item
-        for (Map.Entry<Chromosome, Double> entry : chromosomeFitnessMap.entrySet()) {
-            randomValue -= entry.getValue();
-
-            if (randomValue < 0.0) {
-                return entry.getKey();
+     * @param originals copies of the first {@code originals.length} individuals
+     *                  taken before they were improved, null for individuals
+     *                  that were not improved
+     * @return number of individuals restored
+     */
+    public int restoreDuplicateElite(Chromosome[] originals) {
+        candidateHashes.clear();
+        for (int i = 0; i < population.size(); i++) {
+            if (i >= originals.length || originals[i] == null) {
+                candidateHashes.add(population.get(i).getTourHash());
             }
         }
 
-        throw new RuntimeException("Should never reach this scope if weights are correctly defined !!");
+        int restored = 0;
+        for (int i = 0; i < originals.length; i++) {
+            if (originals[i] != null && !candidateHashes.add(population.get(i).getTourHash())) {
+                population.set(i, originals[i]);
+                candidateHashes.add(originals[i].getTourHash());
+                restored++;
+            }
+        }
+
+        return restored;
     }
 
     /**
-     * method to fill distance matrix for each location.
-     * Each row represents a location and column represents
-     * the connected location. At the end of this method call
-     * Entry [i][j] contain double value representing distance
-     * between location i and location j
-     * 
-     * @param firstPoint
-     */
-    private void fillDistanceMatrix(double[][] distanceMatrix) {
-        for (int i = 0; i < coordinates.size(); i++) {
-            Point loci = coordinates.get(i);
-            for (int j = i + 1; j < coordinates.size(); j++) {
-                Point locj = coordinates.get(j);
-                double distance = computeDistance(loci, locj);
-                distanceMatrix[i][j] = distance;
+     * method to partially order candidates in range {@code [from, to)} by
+     * quickselect, so that candidates before {@code k} have no lower and
+     * candidates from {@code k} on have no higher fitness than the candidate
+     * at {@code k}. Partitioning is three-way, so ranges of equal
+     * fitness, common in a converged population, are not split further
+     */
+    private void partitionCandidates(int from, int to, int k) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            double pivot = pivotFitness(from, to);
+            int higherEnd = from;
+            int lowerStart = to;
+            int i = from;
+            // [from, higherEnd) higher, [higherEnd, i) equal, [lowerStart, to) lower fitness than pivot
+            while (i < lowerStart) {
+                double fitness = candidateFitnesses[i];
+                if (fitness > pivot) {
+                    swapCandidates(higherEnd++, i++);
+                }
+
+                else if (fitness < pivot) {
+                    swapCandidates(i, --lowerStart);
+                }
+
+                else {
+                    i++;
+                }
+            }
+
+            if (k < higherEnd) {
+                to = higherEnd;
+            }
+
+            else if (k >= lowerStart) {
+                from = lowerStart;
+            }
+
+            else {
+                return;
+            }
+        }
+
+        insertionSortCandidates(from, to);
+    }
+
+    /**
+     * method to sort candidates in range {@code [from, to)} in
+     * decreasing fitness order by three-way quicksort, recursing
+     * into the smaller part so that stack depth stays logarithmic
+     */
+    private void sortCandidates(int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            double pivot = pivotFitness(from, to);
+            int higherEnd = from;
+            int lowerStart = to;
+            int i = from;
+            while (i < lowerStart) {
+                double fitness = candidateFitnesses[i];
+                if (fitness > pivot) {
+                    swapCandidates(higherEnd++, i++);
+                }
+
+                else if (fitness < pivot) {
+                    swapCandidates(i, --lowerStart);
+                }
+
+                else {
+                    i++;
+                }
+            }
+
+            if (higherEnd - from < to - lowerStart) {
+                sortCandidates(from, higherEnd);
+                from = lowerStart;
+            }
+
+            else {
+                sortCandidates(lowerStart, to);
+                to = higherEnd;
             }
         }
+
+        insertionSortCandidates(from, to);
     }
 
     /**
-     * method to compute euclidean distance between two points
-     * used as a distance metric for berlin52 dataset
+     * helper method to pick median fitness of first, middle
+     * and last candidates of range {@code [from, to)} as pivot
+     */
+    private double pivotFitness(int from, int to) {
+        double first = candidateFitnesses[from];
+        double middle = candidateFitnesses[(from + to) >>> 1];
+        double last = candidateFitnesses[to - 1];
+        return Math.max(Math.min(first, middle), Math.min(Math.max(first, middle), last));
+    }
+
+    /**
+     * helper method to sort a small range of candidates
+     * in decreasing fitness order by insertion sort
+     */
+    private void insertionSortCandidates(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            Chromosome chr = candidates[i];
+            double fitness = candidateFitnesses[i];
+            int j = i - 1;
+            while (j >= from && candidateFitnesses[j] < fitness) {
+                candidates[j + 1] = candidates[j];
+                candidateFitnesses[j + 1] = candidateFitnesses[j];
+                j--;
+            }
+            candidates[j + 1] = chr;
+            candidateFitnesses[j + 1] = fitness;
+        }
+    }
+
+    /**
+     * helper method to swap two candidates along with their fitness values
+     */
+    private void swapCandidates(int i, int j) {
+        Chromosome chr = candidates[i];
+        candidates[i] = candidates[j];
+        candidates[j] = chr;
+        double fitness = candidateFitnesses[i];
+        candidateFitnesses[i] = candidateFitnesses[j];
+        candidateFitnesses[j] = fitness;
+    }
+
+    /**
+     * helper method to create local search applied to children
+     * with current type, candidate neighbors and cache size
      * 
-     * @param firstPoint  Point object reprsenting first location
-     * @param secondPoint Point object representing second location
+     * @return LocalSearch object caching its results
      */
-/*     private double computeDistance(Point firstPoint, Point secondPoint) {
-        double squaredDifferenceX = Math.pow((firstPoint.getXCoordinate() - secondPoint.getXCoordinate()), 2);
-        double squaredDifferenceY = Math.pow((firstPoint.getYCoordinate() - secondPoint.getYCoordinate()), 2);
+    private LocalSearch createLocalSearch() {
+        return new CachedLocalSearch(LocalSearch.create(localSearchType, distances, neighborLists),
+                localSearchCacheSize);
+    }
+
+    /**
+     * helper method to load instance file for constructor
+     * 
+     * @param instanceFilePath path to csv or TSPLIB file
+     * @param metric           distance metric used if file does not specify one
+     * @return TSPInstance object loaded from file
+     */
+    private static TSPInstance loadInstance(String instanceFilePath, DistanceMetric metric) {
+        try {
+            return FileIO.loadInstance(Paths.get(instanceFilePath), metric);
+        }
 
-        double sqrtDistance = Math.sqrt(squaredDifferenceX + squaredDifferenceY);
-        return Math.round(sqrtDistance);
+        catch (IOException e) {
+            throw new UncheckedIOException("Either instance file to read is not found or it is malformed !!", e);
+        }
     }
- */
+
     /**
-     * method to compute pseudo-euclidean distance between two points
-     * used as a distance metric by att48 dataset
+     * method to randomly sample instance.getSize()
+     * number of locations in {@code range 0 to instance.getSize() - 1}
+     * both start and end values inclusive via Fisher-Yates shuffle
      * 
-     * @param firstPoint  Point object reprsenting first location
-     * @param secondPoint Point object representing second location
+     * @param rng random number generator to be used
+     * @return array of location indexes
      */
-    private double computeDistance(Point firstPoint, Point secondPoint) {
-        double dx = firstPoint.getXCoordinate() -
-                secondPoint.getXCoordinate();
-        double dy = firstPoint.getYCoordinate() -
-                secondPoint.getYCoordinate();
+    private int[] sampleLocations(RandomGenerator rng) {
+        int[] locOrders = new int[instance.getSize()];
+        // initializing location indexes
+        for (int i = 0; i < locOrders.length; i++) {
+            locOrders[i] = i;
+        }
 
-        double rij = Math.sqrt((dx * dx + dy * dy) / 10.0);
-        double tij = Math.round(rij);
+        for (int i = locOrders.length - 1; i > 0; i--) {
+            int locationIndex = rng.nextInt(i + 1);
+            int location = locOrders[locationIndex];
+            locOrders[locationIndex] = locOrders[i];
+            locOrders[i] = location;
+        }
 
-        return (tij < rij) ? (tij + 1) : (tij);
+        return locOrders;
     }
 
 }
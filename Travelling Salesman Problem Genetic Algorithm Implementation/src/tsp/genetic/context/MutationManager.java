@@ -1,25 +1,56 @@
 package tsp.genetic.context;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
+import tsp.genetic.distance.DistanceProvider;
 import tsp.genetic.entitites.Chromosome;
 
 /**
  * class that contains methods for applying different mutation 
- * types to be applied in the genetic algorithm
+ * types to be applied in the genetic algorithm. Each mutation
+ * reports the edges it replaces, so tour length and tour hash of a
+ * mutated chromosome are updated without visiting all of its edges again
  * @auhtor Gökay Gülsoy 
  * @since 29/05/2025
  */
 public class MutationManager {
 
+    private static final MutationType[] MUTATION_TYPES = MutationType.values(); // mutation types picked at random
+
     private double mutationRate; // mutation probability
-    private Random mutationProbGenerator; // generates probability for mutation
+    private SplittableRandom mutationProbGenerator; // generator of calls without explicit generator, not thread-safe
+    private boolean verifyTourLength; // whether tracked tour lengths are checked against full evaluation
 
     public MutationManager(double mutationRate) {
         this.mutationRate = mutationRate;
-        this.mutationProbGenerator = new Random();
+        this.mutationProbGenerator = new SplittableRandom();
+        this.verifyTourLength = false;
+    }
+
+    /**
+     * method to seed generator used by
+     * {@link #applyMutation(Chromosome)}
+     * 
+     * @param seed seed of generator
+     */
+    public void setSeed(long seed) {
+        this.mutationProbGenerator = new SplittableRandom(seed);
+    }
+
+    public boolean isVerifyTourLength() {
+        return this.verifyTourLength;
+    }
+
+    /**
+     * method to enable checking each incrementally tracked tour
+     * length against a full evaluation of the route, meant for
+     * debugging as it makes each mutation O(N) again
+     * 
+     * @param verifyTourLength whether tracked tour lengths are verified
+     */
+    public void setVerifyTourLength(boolean verifyTourLength) {
+        this.verifyTourLength = verifyTourLength;
     }
 
     /**
@@ -30,50 +61,125 @@ public class MutationManager {
      * @param chr Chromosome object upon which selected mutation to be applied
      */
     public void applyMutation(Chromosome chr) {
+        applyMutation(chr, mutationProbGenerator);
+    }
 
-        if (mutationProbGenerator.nextDouble() < mutationRate) {
-            Random rng = new Random();
-            int mutationType = rng.nextInt(4);
-
-            switch (mutationType) {
-                case 0:
-                    applySwapMutation(chr);
-                    break;
-                case 1:
-                    applyInsertMutation(chr);
-                    break;
-                case 2:
-                    applyScrambleMutation(chr);
-                    break;
-                case 3:
-                    applyInversionMutation(chr);
-            }
+    /**
+     * method to apply one of four mutation strategies
+     * randomly (Swap mutation, Insert Mutation, Scramble Mutation, Inversion
+     * Mutation) drawing all random numbers from {@code rng}, this method can
+     * be called concurrently as long as each thread uses its own generator.
+     * Tour length of a mutated chromosome is marked as unknown
+     * 
+     * @param chr Chromosome object upon which selected mutation to be applied
+     * @param rng random number generator to be used
+     */
+    public void applyMutation(Chromosome chr, RandomGenerator rng) {
+        applyMutation(chr, rng, null);
+    }
+
+    /**
+     * method to apply one of four mutation strategies
+     * randomly (Swap mutation, Insert Mutation, Scramble Mutation, Inversion
+     * Mutation) drawing all random numbers from {@code rng}. If tour length
+     * of {@code chr} is known it is updated by the change of distance of
+     * mutated edges and its tour hash by their keys, O(1) for swap, insert
+     * and inversion mutations and O(k) for scramble mutation of k genes,
+     * otherwise both are marked as unknown
+     * 
+     * @param chr       Chromosome object upon which selected mutation to be applied
+     * @param rng       random number generator to be used
+     * @param distances DistanceProvider object used to track tour length,
+     *                  null marks tour length of mutated chromosome as unknown
+     */
+    public void applyMutation(Chromosome chr, RandomGenerator rng, DistanceProvider distances) {
+
+        if (rng.nextDouble() < mutationRate) {
+            int mutationType = rng.nextInt(MUTATION_TYPES.length);
+
+            applyMutation(chr, MUTATION_TYPES[mutationType], rng, distances);
         }
 
     }
 
+    /**
+     * method to apply given mutation strategy regardless of mutation
+     * rate, used to experiment or benchmark a single operator. Tour length
+     * is tracked as in {@link #applyMutation(Chromosome, RandomGenerator, DistanceProvider)}
+     * 
+     * @param chr          Chromosome object upon which mutation to be applied
+     * @param mutationType mutation strategy to be applied
+     * @param rng          random number generator to be used
+     * @param distances    DistanceProvider object used to track tour length,
+     *                     null marks tour length of mutated chromosome as unknown
+     */
+    public void applyMutation(Chromosome chr, MutationType mutationType, RandomGenerator rng,
+            DistanceProvider distances) {
+        // edges are collected only if there is a tour length to update
+        EdgeChange change = (distances != null && chr.hasTourLength())
+                ? new EdgeChange(chr.getLocOrder(), distances)
+                : null;
+
+        switch (mutationType) {
+            case SWAP:
+                applySwapMutation(chr, rng, change);
+                break;
+            case INSERT:
+                applyInsertMutation(chr, rng, change);
+                break;
+            case SCRAMBLE:
+                applyScrambleMutation(chr, rng, change);
+                break;
+            default:
+                applyInversionMutation(chr, rng, change);
+        }
+
+        if (change == null) {
+            chr.invalidateTourLength();
+        }
+
+        else {
+            chr.addTourLengthDelta(change.addedDistance - change.removedDistance);
+            chr.updateTourHash(change.hashDelta);
+            if (verifyTourLength) {
+                verifyTourLength(chr, distances);
+            }
+        }
+    }
+
     /**
      * method to apply swap mutation which randomly
      * swaps two genes in locOrder of Chromosome object
      * 
-     * @param chr Chromosome object upon which swap mutation to be applied
+     * @param chr    Chromosome object upon which swap mutation to be applied
+     * @param rng    random number generator to be used
+     * @param change collector of replaced edges, null if they are not tracked
      */
-    private void applySwapMutation(Chromosome chr) {
+    private void applySwapMutation(Chromosome chr, RandomGenerator rng, EdgeChange change) {
 
-        Random rng = new Random();
-        ArrayList<Integer> locOrders = chr.getLocOrder();
-        int geneIndex1 = rng.nextInt(locOrders.size());
+        int[] locOrders = chr.getLocOrder();
+        int geneIndex1 = rng.nextInt(locOrders.length);
 
-        int geneIndex2 = rng.nextInt(locOrders.size());
+        int geneIndex2 = rng.nextInt(locOrders.length);
         // find gene index that is different from geneIndex1
         while (geneIndex2 == geneIndex1) {
-            geneIndex2 = rng.nextInt(locOrders.size());
+            geneIndex2 = rng.nextInt(locOrders.length);
+        }
+
+        int lowIndex = Math.min(geneIndex1, geneIndex2);
+        int highIndex = Math.max(geneIndex1, geneIndex2);
+        if (change != null) {
+            changeSwappedEdges(change, lowIndex, highIndex, false);
         }
 
         // swap genes at indices geneIndex1 and geneIndex2
-        int tempGeneValue = locOrders.get(geneIndex1);
-        locOrders.set(geneIndex1, locOrders.get(geneIndex2));
-        locOrders.set(geneIndex2, tempGeneValue);
+        int tempGeneValue = locOrders[geneIndex1];
+        locOrders[geneIndex1] = locOrders[geneIndex2];
+        locOrders[geneIndex2] = tempGeneValue;
+
+        if (change != null) {
+            changeSwappedEdges(change, lowIndex, highIndex, true);
+        }
     }
 
     /**
@@ -81,61 +187,45 @@ public class MutationManager {
      * at random move the second to follow the first, shifting the
      * rest along to accomodate
      * 
-     * @param chr Chromosome object upon which insert mutation to be
-     *            applied
+     * @param chr    Chromosome object upon which insert mutation to be
+     *               applied
+     * @param rng    random number generator to be used
+     * @param change collector of replaced edges, null if they are not tracked
      */
-    private void applyInsertMutation(Chromosome chr) {
+    private void applyInsertMutation(Chromosome chr, RandomGenerator rng, EdgeChange change) {
 
-        Random rng = new Random();
-        ArrayList<Integer> locOrders = chr.getLocOrder();
+        int[] locOrders = chr.getLocOrder();
         // geneIndex1 represents the beginning of insert mutation
-        int geneIndex1 = rng.nextInt(locOrders.size() - 1);
+        int geneIndex1 = rng.nextInt(locOrders.length - 1);
         // geneIndex2 represents the end of insert mutation
-        int geneIndex2 = (geneIndex1 + 1) + rng.nextInt(locOrders.size() - geneIndex1 - 1);
-
-        ArrayList<Integer> entriesPreceedingGeneIndex1 = new ArrayList<>();
-        ArrayList<Integer> entriesBetweenGeneIndex1AndGeneIndex2 = new ArrayList<>();
-        ArrayList<Integer> entriesSucceedingGeneIndex2 = new ArrayList<>();
+        int geneIndex2 = (geneIndex1 + 1) + rng.nextInt(locOrders.length - geneIndex1 - 1);
 
-        // copying entries to corresponding Lists from locOrders List
-        for (int i = 0; i < geneIndex1; i++) {
-            entriesPreceedingGeneIndex1.add(locOrders.get(i));
+        // gene at geneIndex2 already follows gene at geneIndex1
+        if (geneIndex2 == geneIndex1 + 1) {
+            return;
         }
 
-        for (int i = geneIndex1 + 1; i < geneIndex2; i++) {
-            entriesBetweenGeneIndex1AndGeneIndex2.add(locOrders.get(i));
-        }
-
-        for (int i = geneIndex2 + 1; i < locOrders.size(); i++) {
-            entriesSucceedingGeneIndex2.add(locOrders.get(i));
-        }
-
-        // keep track of fill index for locOrders entries
-        int fillIndex = 0;
-        for (Integer gene : entriesPreceedingGeneIndex1) {
-            locOrders.set(fillIndex, gene);
-            fillIndex++;
-        }
-
-        // copy genes located at geneIndex1 and geneIndex2
-        Integer gene1 = locOrders.get(geneIndex1);
-        Integer gene2 = locOrders.get(geneIndex2);
-
-        locOrders.set(fillIndex, gene1);
-        fillIndex++;
-        locOrders.set(fillIndex, gene2);
-        fillIndex++;
-
-        for (Integer gene : entriesBetweenGeneIndex1AndGeneIndex2) {
-            locOrders.set(fillIndex, gene);
-            fillIndex++;
-        }
-
-        for (Integer gene : entriesSucceedingGeneIndex2) {
-            locOrders.set(fillIndex, gene);
-            fillIndex++;
+        int gene1 = locOrders[geneIndex1];
+        int gene2 = locOrders[geneIndex2];
+        if (change != null) {
+            // edges (gene1, its successor), (predecessor of gene2, gene2) and
+            // (gene2, its successor) are replaced by (gene1, gene2),
+            // (gene2, successor of gene1) and (predecessor of gene2, successor of gene2)
+            int successor1 = locOrders[geneIndex1 + 1];
+            int predecessor2 = locOrders[geneIndex2 - 1];
+            int successor2 = locOrders[(geneIndex2 + 1) % locOrders.length];
+            change.removeEdge(gene1, successor1);
+            change.removeEdge(predecessor2, gene2);
+            change.removeEdge(gene2, successor2);
+            change.addEdge(gene1, gene2);
+            change.addEdge(gene2, successor1);
+            change.addEdge(predecessor2, successor2);
         }
 
+        // shift genes in between one position right in place
+        // and put gene2 right after gene1
+        System.arraycopy(locOrders, geneIndex1 + 1, locOrders, geneIndex1 + 2, geneIndex2 - geneIndex1 - 1);
+        locOrders[geneIndex1 + 1] = gene2;
     }
 
     /**
@@ -143,31 +233,38 @@ public class MutationManager {
      * of genes at random and randomly rearranges the genes in
      * those positions
      * 
-     * @param chr Chromosome object upon which scramble mutation to be
-     *            applied
+     * @param chr    Chromosome object upon which scramble mutation to be
+     *               applied
+     * @param rng    random number generator to be used
+     * @param change collector of replaced edges, null if they are not tracked
      */
-    private void applyScrambleMutation(Chromosome chr) {
+    private void applyScrambleMutation(Chromosome chr, RandomGenerator rng, EdgeChange change) {
 
-        Random rng = new Random();
-        ArrayList<Integer> locOrders = chr.getLocOrder();
+        int[] locOrders = chr.getLocOrder();
         // geneIndex1 represents the beginning of insert mutation
-        int geneIndex1 = rng.nextInt(locOrders.size() - 1);
+        int geneIndex1 = rng.nextInt(locOrders.length - 1);
         // geneIndex2 represents the end of insert mutation
-        int geneIndex2 = (geneIndex1 + 1) + rng.nextInt(locOrders.size() - geneIndex1 - 1);
+        int geneIndex2 = (geneIndex1 + 1) + rng.nextInt(locOrders.length - geneIndex1 - 1);
 
-        ArrayList<Integer> subsetOfGenes = new ArrayList<>();
-        for (int i = geneIndex1; i <= geneIndex2; i++) {
-            subsetOfGenes.add(locOrders.get(i));
+        // edges from predecessor of geneIndex1 up to successor of geneIndex2 may change
+        int firstEdge = (geneIndex1 == 0) ? locOrders.length - 1 : geneIndex1 - 1;
+        int numberOfEdges = Math.min(geneIndex2 - geneIndex1 + 2, locOrders.length);
+        if (change != null) {
+            changeEdges(change, firstEdge, numberOfEdges, false);
         }
 
-        Collections.shuffle(subsetOfGenes);
-        int shuffleIndex = 0;
-        // after shuffling, copy genes to locOrders
-        for (int i = geneIndex1; i <= geneIndex2; i++) {
-            locOrders.set(i, subsetOfGenes.get(shuffleIndex));
-            shuffleIndex++;
+        // shuffling genes in between geneIndex1 and geneIndex2 in place
+        // via Fisher-Yates shuffle
+        for (int i = geneIndex2; i > geneIndex1; i--) {
+            int shuffleIndex = geneIndex1 + rng.nextInt(i - geneIndex1 + 1);
+            int tempGeneValue = locOrders[i];
+            locOrders[i] = locOrders[shuffleIndex];
+            locOrders[shuffleIndex] = tempGeneValue;
         }
 
+        if (change != null) {
+            changeEdges(change, firstEdge, numberOfEdges, true);
+        }
     }
 
     /**
@@ -175,31 +272,101 @@ public class MutationManager {
      * two genes at random and inverting the genes between
      * them
      * 
-     * @param chr Chromosome object upon which inversion mutation to be
-     *            applied
+     * @param chr    Chromosome object upon which inversion mutation to be
+     *               applied
+     * @param rng    random number generator to be used
+     * @param change collector of replaced edges, null if they are not tracked
      */
-    private void applyInversionMutation(Chromosome chr) {
+    private void applyInversionMutation(Chromosome chr, RandomGenerator rng, EdgeChange change) {
 
-        Random rng = new Random();
-        ArrayList<Integer> locOrders = chr.getLocOrder();
+        int[] locOrders = chr.getLocOrder();
         // geneIndex1 represents the beginning of insert mutation
-        int geneIndex1 = rng.nextInt(locOrders.size() - 1);
+        int geneIndex1 = rng.nextInt(locOrders.length - 1);
         // geneIndex2 represents the end of insert mutation
-        int geneIndex2 = (geneIndex1 + 1) + rng.nextInt(locOrders.size() - geneIndex1 - 1);
+        int geneIndex2 = (geneIndex1 + 1) + rng.nextInt(locOrders.length - geneIndex1 - 1);
+
+        int size = locOrders.length;
+        // inverting whole route keeps all of its edges
+        if (change != null && geneIndex2 - geneIndex1 + 1 < size) {
+            // only the two edges at both ends of inverted genes change
+            int predecessor = locOrders[(geneIndex1 == 0) ? size - 1 : geneIndex1 - 1];
+            int successor = locOrders[(geneIndex2 + 1) % size];
+            change.removeEdge(predecessor, locOrders[geneIndex1]);
+            change.removeEdge(locOrders[geneIndex2], successor);
+            change.addEdge(predecessor, locOrders[geneIndex2]);
+            change.addEdge(locOrders[geneIndex1], successor);
+        }
+
+        // inverting genes in between geneIndex1 and geneIndex2 in place
+        for (int i = geneIndex1, j = geneIndex2; i < j; i++, j--) {
+            int tempGeneValue = locOrders[i];
+            locOrders[i] = locOrders[j];
+            locOrders[j] = tempGeneValue;
+        }
+    }
+
+    /**
+     * method to collect edges of route touching positions
+     * {@code lowIndex} and {@code highIndex}, each edge counted once
+     * 
+     * @param change    collector of replaced edges
+     * @param lowIndex  smaller position of swapped genes
+     * @param highIndex larger position of swapped genes
+     * @param added     whether edges are added to or removed from route
+     */
+    private static void changeSwappedEdges(EdgeChange change, int lowIndex, int highIndex, boolean added) {
+        int size = change.locOrders.length;
+        int lowPredecessor = (lowIndex == 0) ? size - 1 : lowIndex - 1;
+        int highPredecessor = highIndex - 1;
+
+        // edges are identified by position of their first location
+        change.changeEdgeAt(lowPredecessor, added);
+        change.changeEdgeAt(lowIndex, added);
+        // edge starting at highPredecessor is already counted if genes are adjacent
+        if (highPredecessor != lowIndex) {
+            change.changeEdgeAt(highPredecessor, added);
+        }
+
+        // edge starting at highIndex is already counted if genes are adjacent over route end
+        if (highIndex != lowPredecessor) {
+            change.changeEdgeAt(highIndex, added);
+        }
+    }
 
-        ArrayList<Integer> subsetOfGenes = new ArrayList<>();
-        for (int i = geneIndex1; i <= geneIndex2; i++) {
-            subsetOfGenes.add(locOrders.get(i));
+    /**
+     * method to collect {@code numberOfEdges} consecutive
+     * edges of route starting with the edge at {@code firstEdge}
+     * 
+     * @param change        collector of replaced edges
+     * @param firstEdge     position of first location of first edge
+     * @param numberOfEdges number of edges to be collected
+     * @param added         whether edges are added to or removed from route
+     */
+    private static void changeEdges(EdgeChange change, int firstEdge, int numberOfEdges, boolean added) {
+        int edge = firstEdge;
+        for (int i = 0; i < numberOfEdges; i++) {
+            change.changeEdgeAt(edge, added);
+            edge = (edge + 1 == change.locOrders.length) ? 0 : edge + 1;
         }
+    }
 
-        Collections.reverse(subsetOfGenes);
-        int invertedIndex = 0;
-        // after inversion, copy genes to locOrders
-        for (int i = geneIndex1; i <= geneIndex2; i++) {
-            locOrders.set(i, subsetOfGenes.get(invertedIndex));
-            invertedIndex++;
+    /**
+     * method to check tracked tour length and, if it is known, tour
+     * hash of {@code chr} against a full evaluation of its route
+     * 
+     * @param chr       Chromosome object whose tour length to be checked
+     * @param distances DistanceProvider object giving distance between locations
+     */
+    private static void verifyTourLength(Chromosome chr, DistanceProvider distances) {
+        double computedTourLength = chr.computeTourLength(distances);
+        if (Math.abs(chr.getTourLength() - computedTourLength) > 1e-6 * Math.max(1.0, computedTourLength)) {
+            throw new IllegalStateException("Tracked tour length " + chr.getTourLength()
+                    + " does not match computed tour length " + computedTourLength + " !!");
         }
 
+        if (chr.hasTourHash() && chr.getTourHash() != chr.computeTourHash()) {
+            throw new IllegalStateException("Tracked tour hash does not match computed tour hash !!");
+        }
     }
 
     @Override
@@ -207,4 +374,52 @@ public class MutationManager {
         return "MutationManager(mutation rate: " + this.mutationRate + ")";
     }
 
+    /**
+     * class that collects edges removed from and added to a route
+     * by a mutation, accumulating the change of tour length and XOR of
+     * keys of the edges, which is the change of tour hash
+     */
+    private static class EdgeChange {
+
+        private final int[] locOrders; // route being mutated
+        private final DistanceProvider distances; // gives distance of each collected edge
+        private double addedDistance; // total distance of added edges
+        private double removedDistance; // total distance of removed edges
+        private long hashDelta; // XOR of keys of added and removed edges
+
+        private EdgeChange(int[] locOrders, DistanceProvider distances) {
+            this.locOrders = locOrders;
+            this.distances = distances;
+            this.addedDistance = 0.0;
+            this.removedDistance = 0.0;
+            this.hashDelta = 0L;
+        }
+
+        private void addEdge(int loc1, int loc2) {
+            addedDistance += distances.distance(loc1, loc2);
+            hashDelta ^= Chromosome.edgeKey(loc1, loc2);
+        }
+
+        private void removeEdge(int loc1, int loc2) {
+            removedDistance += distances.distance(loc1, loc2);
+            hashDelta ^= Chromosome.edgeKey(loc1, loc2);
+        }
+
+        /**
+         * helper method to collect edge from position {@code index}
+         * to its successor on route
+         */
+        private void changeEdgeAt(int index, boolean added) {
+            int nextIndex = (index + 1 == locOrders.length) ? 0 : index + 1;
+            if (added) {
+                addEdge(locOrders[index], locOrders[nextIndex]);
+            }
+
+            else {
+                removeEdge(locOrders[index], locOrders[nextIndex]);
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,14 @@
+package tsp.genetic.context;
+
+/**
+ * enum that represents mutation operators
+ * provided by MutationManager
+ */
+public enum MutationType {
+
+    SWAP, // swaps two genes
+    INSERT, // moves a gene to follow another gene
+    SCRAMBLE, // shuffles genes of a segment
+    INVERSION // reverses genes of a segment
+
+}
@@ -0,0 +1,108 @@
+package tsp.genetic.context;
+
+import java.util.Arrays;
+
+/**
+ * class that implements a set of 64-bit tour hashes with open
+ * addressing and linear probing on a primitive array, so adding
+ * and looking up a hash takes O(1) without boxing. Tour hashes are
+ * already pseudo random, their low bits are used as slot index.
+ * The table is kept between generations and only cleared
+ */
+class TourHashSet {
+
+    private static final int INITIAL_CAPACITY = 64; // number of slots of a new table, a power of two
+
+    private long[] table; // hashes in slots, 0 marks an empty slot
+    private int size; // number of non-zero hashes in table
+    private boolean containsZero; // whether hash 0, which cannot be kept in table, is in set
+
+    TourHashSet() {
+        this.table = new long[INITIAL_CAPACITY];
+        this.size = 0;
+        this.containsZero = false;
+    }
+
+    /**
+     * method to add {@code hash} to set
+     *
+     * @return true if hash was not in set before
+     */
+    boolean add(long hash) {
+        if (hash == 0L) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+
+        // keeping load factor at most 1/2 so that probe sequences stay short
+        if (2 * (size + 1) > table.length) {
+            grow();
+        }
+
+        int mask = table.length - 1;
+        int slot = (int) hash & mask;
+        while (table[slot] != 0L) {
+            if (table[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = hash;
+        size++;
+        return true;
+    }
+
+    /**
+     * method to check whether {@code hash} is in set, it can be
+     * called concurrently as long as set is not modified
+     */
+    boolean contains(long hash) {
+        if (hash == 0L) {
+            return containsZero;
+        }
+
+        int mask = table.length - 1;
+        int slot = (int) hash & mask;
+        while (table[slot] != 0L) {
+            if (table[slot] == hash) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * method to remove all hashes, capacity of table is kept
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(table, 0L);
+        }
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * method to double capacity of table and insert hashes again
+     */
+    private void grow() {
+        long[] oldTable = table;
+        table = new long[2 * oldTable.length];
+        int mask = table.length - 1;
+
+        for (long hash : oldTable) {
+            if (hash != 0L) {
+                int slot = (int) hash & mask;
+                while (table[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = hash;
+            }
+        }
+    }
+
+}
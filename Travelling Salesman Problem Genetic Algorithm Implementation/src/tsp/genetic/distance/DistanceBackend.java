@@ -0,0 +1,48 @@
+package tsp.genetic.distance;
+
+/**
+ * enum that represents how distances between locations
+ * are kept by a DistanceProvider
+ */
+public enum DistanceBackend {
+
+    FULL_MATRIX, // symmetric n x n double matrix, branch-free lookups, 8 n^2 bytes
+    TRIANGULAR, // packed lower triangle of float values, 2 n^2 bytes
+    ON_THE_FLY, // distances computed from coordinates on each lookup, O(n) memory
+    MAPPED, // packed lower triangle of float values in a memory-mapped cache file, reused across runs
+    LAZY, // rows of symmetric n x n double matrix computed on first access, O(n) startup
+    AUTO; // largest of the above that fits comfortably in heap
+
+    private static final long MAX_TRIANGULAR_ENTRIES = Integer.MAX_VALUE - 8; // maximum length of a Java array
+
+    /**
+     * method to resolve AUTO backend for {@code size} locations,
+     * full matrix is used if it takes at most a quarter of maximum
+     * heap size, triangular matrix if it takes at most half of it.
+     * AUTO never resolves to MAPPED as it writes to disk, nor to LAZY
+     * as its memory grows while rows are computed
+     *
+     * @param size number of locations
+     * @return this backend if it is not AUTO, otherwise resolved backend
+     */
+    public DistanceBackend resolve(int size) {
+        if (this != AUTO) {
+            return this;
+        }
+
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        long n = size;
+        long triangularEntries = n * (n - 1) / 2;
+
+        if (8 * n * n <= maxMemory / 4) {
+            return FULL_MATRIX;
+        }
+
+        if (triangularEntries <= MAX_TRIANGULAR_ENTRIES && 4 * triangularEntries <= maxMemory / 2) {
+            return TRIANGULAR;
+        }
+
+        return ON_THE_FLY;
+    }
+
+}
@@ -0,0 +1,99 @@
+package tsp.genetic.distance;
+
+/**
+ * enum that represents distance metrics of problem
+ * instances as defined by TSPLIB, all metrics round
+ * distances to integers
+ */
+public enum DistanceMetric {
+
+    /**
+     * euclidean distance rounded to nearest integer,
+     * used as a distance metric by berlin52 dataset
+     */
+    EUC_2D {
+        @Override
+        public double compute(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+
+            return Math.round(Math.sqrt(dx * dx + dy * dy));
+        }
+    },
+
+    /**
+     * pseudo-euclidean distance used as a distance
+     * metric by att48 dataset
+     */
+    ATT {
+        @Override
+        public double compute(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+
+            double rij = Math.sqrt((dx * dx + dy * dy) / 10.0);
+            double tij = Math.round(rij);
+
+            return (tij < rij) ? (tij + 1) : (tij);
+        }
+    },
+
+    /**
+     * euclidean distance rounded up to next integer
+     */
+    CEIL_2D {
+        @Override
+        public double compute(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+
+            return Math.ceil(Math.sqrt(dx * dx + dy * dy));
+        }
+    },
+
+    /**
+     * geographical distance in kilometers on idealized earth,
+     * X coordinate is latitude and Y coordinate is longitude
+     * both given in DDD.MM format (degrees and minutes)
+     */
+    GEO {
+        private static final double PI = 3.141592; // value of pi used by TSPLIB
+        private static final double EARTH_RADIUS = 6378.388; // radius of idealized earth in kilometers
+
+        @Override
+        public double compute(double x1, double y1, double x2, double y2) {
+            double latitude1 = toRadians(x1);
+            double longitude1 = toRadians(y1);
+            double latitude2 = toRadians(x2);
+            double longitude2 = toRadians(y2);
+
+            double q1 = Math.cos(longitude1 - longitude2);
+            double q2 = Math.cos(latitude1 - latitude2);
+            double q3 = Math.cos(latitude1 + latitude2);
+
+            return (int) (EARTH_RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+        }
+
+        /**
+         * method to convert a coordinate in DDD.MM format to radians
+         */
+        private double toRadians(double coordinate) {
+            int degrees = (int) coordinate;
+            double minutes = coordinate - degrees;
+
+            return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+        }
+    };
+
+    /**
+     * method to compute distance between two points
+     *
+     * @param x1 X coordinate of first point
+     * @param y1 Y coordinate of first point
+     * @param x2 X coordinate of second point
+     * @param y2 Y coordinate of second point
+     * @return distance between points
+     */
+    public abstract double compute(double x1, double y1, double x2, double y2);
+
+}
@@ -0,0 +1,74 @@
+package tsp.genetic.distance;
+
+/**
+ * interface for looking up distance between two locations
+ * of a problem instance. Locations are 0-based indexes and
+ * distances are symmetric. Implementations are immutable after
+ * construction, so they can be shared by threads
+ */
+public interface DistanceProvider {
+
+    /**
+     * method to get number of locations of problem instance
+     *
+     * @return number of locations
+     */
+    int size();
+
+    /**
+     * method to get distance between two locations
+     *
+     * @param loc1 index of first location
+     * @param loc2 index of second location
+     * @return distance between loc1 and loc2
+     */
+    double distance(int loc1, int loc2);
+
+    /**
+     * method to compute total distance of closed tour visiting
+     * locations in order of {@code route}
+     *
+     * @param route order of locations, at least one location
+     * @return sum of distances between adjacent locations of route
+     *         including distance from last location to first location
+     */
+    default double tourLength(int[] route) {
+        double totalDistance = 0.0;
+        int lastLoc = route[route.length - 1];
+
+        for (int loc : route) {
+            totalDistance += distance(lastLoc, loc);
+            lastLoc = loc;
+        }
+
+        return totalDistance;
+    }
+
+    /**
+     * method to create distance provider with given backend
+     * for locations with coordinates {@code xs} and {@code ys}
+     *
+     * @param backend backend keeping distances
+     * @param xs      X coordinates of locations
+     * @param ys      Y coordinates of locations
+     * @param metric  distance metric of problem instance
+     * @return DistanceProvider object, AUTO backend is resolved
+     *         according to number of locations and maximum heap size,
+     *         MAPPED backend uses default cache directory
+     */
+    static DistanceProvider create(DistanceBackend backend, double[] xs, double[] ys, DistanceMetric metric) {
+        switch (backend.resolve(xs.length)) {
+            case FULL_MATRIX:
+                return new FullDistanceMatrix(xs, ys, metric);
+            case TRIANGULAR:
+                return new TriangularDistanceMatrix(xs, ys, metric);
+            case MAPPED:
+                return MappedDistanceMatrix.open(MappedDistanceMatrix.getDefaultCacheDirectory(), xs, ys, metric);
+            case LAZY:
+                return new LazyDistanceMatrix(xs, ys, metric);
+            default:
+                return new OnTheFlyDistances(xs, ys, metric);
+        }
+    }
+
+}
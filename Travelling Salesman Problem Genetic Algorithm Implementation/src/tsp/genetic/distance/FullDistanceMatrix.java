@@ -0,0 +1,41 @@
+package tsp.genetic.distance;
+
+/**
+ * class that keeps distances in a full symmetric
+ * n x n matrix, both [i][j] and [j][i] entries are filled
+ * so lookups do not branch on order of locations. The matrix
+ * is built in parallel, in stripes of rows of its lower triangle
+ */
+public class FullDistanceMatrix implements DistanceProvider {
+
+    private double[][] distanceMatrix; // symmetric square matrix of distances
+
+    public FullDistanceMatrix(double[] xs, double[] ys, DistanceMetric metric) {
+        int size = xs.length;
+        this.distanceMatrix = new double[size][size];
+
+        // each stripe fills entries (i, j) and (j, i) with j < i of its rows,
+        // so stripes never write the same entry
+        RowStripeTask.computeRows(1, size, (fromRow, toRow) -> {
+            for (int i = fromRow; i < toRow; i++) {
+                double[] row = distanceMatrix[i];
+                for (int j = 0; j < i; j++) {
+                    double distance = metric.compute(xs[i], ys[i], xs[j], ys[j]);
+                    row[j] = distance;
+                    distanceMatrix[j][i] = distance;
+                }
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return distanceMatrix.length;
+    }
+
+    @Override
+    public double distance(int loc1, int loc2) {
+        return distanceMatrix[loc1][loc2];
+    }
+
+}
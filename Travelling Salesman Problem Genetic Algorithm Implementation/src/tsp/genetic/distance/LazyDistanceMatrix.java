@@ -0,0 +1,87 @@
+package tsp.genetic.distance;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * class that keeps distances in rows of a full matrix which are
+ * computed from coordinates on first access, so construction takes
+ * O(n) time and rows of locations that are never looked up are never
+ * computed. A lookup uses the row of either location if one of them is
+ * computed, otherwise row of first location is computed. Rows are
+ * published atomically, threads racing on a missing row may both compute
+ * it but all of them use the same one afterwards
+ */
+public class LazyDistanceMatrix implements DistanceProvider {
+
+    private double[] xs; // X coordinates of locations
+    private double[] ys; // Y coordinates of locations
+    private DistanceMetric metric;
+    private AtomicReferenceArray<double[]> rows; // row of each location, null until first access
+
+    public LazyDistanceMatrix(double[] xs, double[] ys, DistanceMetric metric) {
+        this.xs = xs;
+        this.ys = ys;
+        this.metric = metric;
+        this.rows = new AtomicReferenceArray<>(xs.length);
+    }
+
+    @Override
+    public int size() {
+        return xs.length;
+    }
+
+    @Override
+    public double distance(int loc1, int loc2) {
+        double[] row = rows.get(loc1);
+        if (row != null) {
+            return row[loc2];
+        }
+
+        // distances are symmetric, so row of second location can be used as well
+        row = rows.get(loc2);
+        if (row != null) {
+            return row[loc1];
+        }
+
+        return computeRow(loc1)[loc2];
+    }
+
+    /**
+     * method to get number of rows computed so far
+     *
+     * @return number of locations whose row is computed
+     */
+    public int getComputedRows() {
+        int computedRows = 0;
+        for (int i = 0; i < rows.length(); i++) {
+            if (rows.get(i) != null) {
+                computedRows++;
+            }
+        }
+
+        return computedRows;
+    }
+
+    /**
+     * method to compute row of {@code loc} and publish it, unless
+     * another thread has published it in the meantime
+     *
+     * @return published row of loc
+     */
+    private double[] computeRow(int loc) {
+        int size = xs.length;
+        double[] row = new double[size];
+        double x = xs[loc];
+        double y = ys[loc];
+        for (int j = 0; j < size; j++) {
+            row[j] = (j == loc) ? 0.0 : metric.compute(x, y, xs[j], ys[j]);
+        }
+
+        if (rows.compareAndSet(loc, null, row)) {
+            return row;
+        }
+
+        return rows.get(loc);
+    }
+
+}
@@ -0,0 +1,286 @@
+package tsp.genetic.distance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * class that keeps distances in a packed strict lower triangle
+ * of float values stored in a file and mapped into memory. Files are
+ * kept in a cache directory and named after a hash of coordinates and
+ * distance metric, so repeated runs on the same instance map the existing
+ * file instead of computing O(n^2) distances again. Mapped pages live
+ * outside of heap and are shared by all JVMs mapping the same file.
+ * A missing cache file is written to a temporary file first and then
+ * moved in place, so readers never see a partially written file
+ */
+public class MappedDistanceMatrix implements DistanceProvider {
+
+    private static final long MAGIC = 0x5453504449535431L; // "TSPDIST1" identifying cache files
+    private static final int VERSION = 1; // version of file layout
+    private static final int HEADER_SIZE = 32; // magic, version, size, metric ordinal, padding, key
+    private static final int CHUNK_SHIFT = 28; // each mapped chunk keeps 2^28 entries (1 GB)
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20; // size of buffer used to hash coordinates
+    private static final int BLOCK_SIZE = 1 << 24; // bytes of distances computed in parallel before being written
+    private static final String CACHE_DIRECTORY_PROPERTY = "tsp.distanceCacheDir"; // system property overriding default cache directory
+
+    private int size; // number of locations
+    private FloatBuffer[] chunks; // distance of (i, j) with i > j is entry i * (i - 1) / 2 + j
+
+    private MappedDistanceMatrix(int size, FloatBuffer[] chunks) {
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    /**
+     * method to get default cache directory, which is given by
+     * {@code tsp.distanceCacheDir} system property or
+     * {@code tsp-distance-cache} folder under temporary directory
+     *
+     * @return path to default cache directory
+     */
+    public static Path getDefaultCacheDirectory() {
+        String cacheDirectory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        if (cacheDirectory != null) {
+            return Paths.get(cacheDirectory);
+        }
+
+        return Paths.get(System.getProperty("java.io.tmpdir"), "tsp-distance-cache");
+    }
+
+    /**
+     * method to open distance matrix of an instance from cache
+     * directory, cache file is created first if it does not exist
+     * or does not match the instance
+     *
+     * @param cacheDirectory directory keeping cache files, created if missing
+     * @param xs             X coordinates of locations
+     * @param ys             Y coordinates of locations
+     * @param metric         distance metric of problem instance
+     * @return MappedDistanceMatrix object mapping cache file of instance
+     */
+    public static MappedDistanceMatrix open(Path cacheDirectory, double[] xs, double[] ys, DistanceMetric metric) {
+        int size = xs.length;
+        byte[] digest = computeKey(xs, ys, metric);
+        long key = ByteBuffer.wrap(digest).getLong();
+        Path cacheFile = cacheDirectory.resolve("distances-" + toHex(digest) + ".bin");
+
+        try {
+            if (!isValidCacheFile(cacheFile, size, metric, key)) {
+                Files.createDirectories(cacheDirectory);
+                writeCacheFile(cacheDirectory, cacheFile, xs, ys, metric, key);
+            }
+
+            return new MappedDistanceMatrix(size, mapCacheFile(cacheFile, size));
+        }
+
+        catch (IOException e) {
+            throw new UncheckedIOException("Distance matrix cache file could not be created or mapped !!", e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double distance(int loc1, int loc2) {
+        int high = Math.max(loc1, loc2);
+        int low = Math.min(loc1, loc2);
+        // distance of a location to itself is not stored
+        if (high == low) {
+            return 0.0;
+        }
+
+        long index = (long) high * (high - 1) / 2 + low;
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * method to compute SHA-256 digest of number of locations,
+     * distance metric and coordinates of an instance
+     *
+     * @return digest identifying the instance
+     */
+    private static byte[] computeKey(double[] xs, double[] ys, DistanceMetric metric) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            buffer.putInt(xs.length);
+            buffer.put(metric.name().getBytes(StandardCharsets.US_ASCII));
+
+            for (int i = 0; i < xs.length; i++) {
+                if (buffer.remaining() < 2 * Double.BYTES) {
+                    buffer.flip();
+                    messageDigest.update(buffer);
+                    buffer.clear();
+                }
+
+                buffer.putDouble(xs[i]);
+                buffer.putDouble(ys[i]);
+            }
+
+            buffer.flip();
+            messageDigest.update(buffer);
+            return messageDigest.digest();
+        }
+
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM !!", e);
+        }
+    }
+
+    /**
+     * method to check whether {@code cacheFile} exists and its
+     * header and length match the instance
+     */
+    private static boolean isValidCacheFile(Path cacheFile, int size, DistanceMetric metric, long key)
+            throws IOException {
+        if (!Files.isRegularFile(cacheFile) || Files.size(cacheFile) != fileLength(size)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until header is complete or end of file is reached
+            }
+
+            if (header.hasRemaining()) {
+                return false;
+            }
+
+            header.flip();
+            return header.getLong(0) == MAGIC && header.getInt(8) == VERSION && header.getInt(12) == size
+                    && header.getInt(16) == metric.ordinal() && header.getLong(24) == key;
+        }
+    }
+
+    /**
+     * method to compute distances into a temporary file in cache
+     * directory and move it in place atomically. Distances are computed
+     * in blocks of rows, rows of each block are computed in parallel and
+     * the block is written while keeping the order of entries
+     */
+    private static void writeCacheFile(Path cacheDirectory, Path cacheFile, double[] xs, double[] ys,
+            DistanceMetric metric, long key) throws IOException {
+        int size = xs.length;
+        Path tempFile = Files.createTempFile(cacheDirectory, "distances-", ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putLong(MAGIC).putInt(VERSION).putInt(size).putInt(metric.ordinal()).putInt(0).putLong(key);
+                writeFully(channel, header);
+
+                // a block keeps at least one complete row
+                int blockEntries = Math.max(BLOCK_SIZE / Float.BYTES, size);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(blockEntries * Float.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                FloatBuffer block = buffer.asFloatBuffer();
+
+                int fromRow = 1;
+                while (fromRow < size) {
+                    int toRow = fromRow + 1;
+                    while (toRow < size && RowStripeTask.entries(fromRow, toRow + 1) <= blockEntries) {
+                        toRow++;
+                    }
+
+                    int firstRow = fromRow;
+                    RowStripeTask.computeRows(fromRow, toRow, (stripeFromRow, stripeToRow) -> {
+                        int index = (int) RowStripeTask.entries(firstRow, stripeFromRow);
+                        for (int i = stripeFromRow; i < stripeToRow; i++) {
+                            for (int j = 0; j < i; j++) {
+                                block.put(index++, (float) metric.compute(xs[i], ys[i], xs[j], ys[j]));
+                            }
+                        }
+                    });
+
+                    buffer.position((int) RowStripeTask.entries(fromRow, toRow) * Float.BYTES);
+                    writeFully(channel, buffer);
+                    fromRow = toRow;
+                }
+
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * method to write content of {@code buffer} to channel and clear it
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * method to map entries of cache file read-only in chunks,
+     * as a single mapping is limited to 2 GB
+     */
+    private static FloatBuffer[] mapCacheFile(Path cacheFile, int size) throws IOException {
+        long numberOfEntries = (long) size * (size - 1) / 2;
+        int numberOfChunks = (int) ((numberOfEntries + CHUNK_MASK) >>> CHUNK_SHIFT);
+        FloatBuffer[] chunks = new FloatBuffer[numberOfChunks];
+
+        // mappings stay valid after channel is closed
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            for (int c = 0; c < numberOfChunks; c++) {
+                long firstEntry = (long) c << CHUNK_SHIFT;
+                long chunkEntries = Math.min(1L << CHUNK_SHIFT, numberOfEntries - firstEntry);
+                chunks[c] = channel
+                        .map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstEntry * Float.BYTES,
+                                chunkEntries * Float.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+        }
+
+        return chunks;
+    }
+
+    private static long fileLength(int size) {
+        return HEADER_SIZE + (long) size * (size - 1) / 2 * Float.BYTES;
+    }
+
+    /**
+     * method to format first 16 bytes of digest as hexadecimal string
+     */
+    private static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            hex.append(String.format("%02x", digest[i]));
+        }
+
+        return hex.toString();
+    }
+
+}
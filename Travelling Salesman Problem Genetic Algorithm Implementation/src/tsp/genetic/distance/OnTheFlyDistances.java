@@ -0,0 +1,54 @@
+package tsp.genetic.distance;
+
+/**
+ * class that computes distances from coordinates on
+ * each lookup instead of keeping them, used for problem
+ * instances whose distance matrix does not fit in heap
+ */
+public class OnTheFlyDistances implements DistanceProvider {
+
+    private double[] xs; // X coordinates of locations
+    private double[] ys; // Y coordinates of locations
+    private DistanceMetric metric;
+
+    public OnTheFlyDistances(double[] xs, double[] ys, DistanceMetric metric) {
+        this.xs = xs;
+        this.ys = ys;
+        this.metric = metric;
+    }
+
+    @Override
+    public int size() {
+        return xs.length;
+    }
+
+    @Override
+    public double distance(int loc1, int loc2) {
+        return metric.compute(xs[loc1], ys[loc1], xs[loc2], ys[loc2]);
+    }
+
+    /**
+     * method to compute tour length directly from coordinate
+     * arrays, coordinates of each location are loaded once and
+     * carried over to the next edge instead of being looked up
+     * twice through {@link #distance(int, int)}
+     */
+    @Override
+    public double tourLength(int[] route) {
+        double totalDistance = 0.0;
+        int lastLoc = route[route.length - 1];
+        double lastX = xs[lastLoc];
+        double lastY = ys[lastLoc];
+
+        for (int loc : route) {
+            double x = xs[loc];
+            double y = ys[loc];
+            totalDistance += metric.compute(lastX, lastY, x, y);
+            lastX = x;
+            lastY = y;
+        }
+
+        return totalDistance;
+    }
+
+}
@@ -0,0 +1,81 @@
+package tsp.genetic.distance;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * class that computes rows of a strict lower triangle in parallel
+ * on common ForkJoinPool. Row i has i entries, so rows are split
+ * recursively into stripes of about equal number of entries instead
+ * of equal number of rows, each stripe is computed by a single task
+ */
+class RowStripeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private static final long MIN_STRIPE_ENTRIES = 1 << 16; // stripes with fewer entries are not split
+
+    private final transient RowAction action; // computes entries of a range of rows, tasks are never serialized
+    private final int fromRow; // first row of stripe
+    private final int toRow; // row after last row of stripe
+
+    /**
+     * interface of computation applied to a stripe of rows, entries
+     * of different stripes must be written to different locations
+     */
+    interface RowAction {
+
+        /**
+         * method to compute entries of rows {@code fromRow} (inclusive)
+         * to {@code toRow} (exclusive)
+         */
+        void computeRows(int fromRow, int toRow);
+
+    }
+
+    private RowStripeTask(RowAction action, int fromRow, int toRow) {
+        this.action = action;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    /**
+     * method to apply {@code action} to rows {@code fromRow} (inclusive)
+     * to {@code toRow} (exclusive) in balanced stripes and wait until all
+     * of them are computed. Small ranges are computed by calling thread
+     *
+     * @param fromRow first row
+     * @param toRow   row after last row
+     * @param action  computation applied to each stripe
+     */
+    static void computeRows(int fromRow, int toRow, RowAction action) {
+        if (ForkJoinPool.getCommonPoolParallelism() < 2 || entries(fromRow, toRow) <= MIN_STRIPE_ENTRIES) {
+            action.computeRows(fromRow, toRow);
+            return;
+        }
+
+        ForkJoinPool.commonPool().invoke(new RowStripeTask(action, fromRow, toRow));
+    }
+
+    /**
+     * method to get number of entries of strict lower triangle
+     * in rows {@code fromRow} (inclusive) to {@code toRow} (exclusive)
+     */
+    static long entries(int fromRow, int toRow) {
+        return ((long) toRow * (toRow - 1) - (long) fromRow * (fromRow - 1)) / 2;
+    }
+
+    @Override
+    protected void compute() {
+        if (toRow - fromRow < 2 || entries(fromRow, toRow) <= MIN_STRIPE_ENTRIES) {
+            action.computeRows(fromRow, toRow);
+            return;
+        }
+
+        // rows before row r hold about r^2 / 2 entries, so both halves
+        // hold about the same number of entries if mid^2 = (from^2 + to^2) / 2
+        int mid = (int) Math.sqrt(((double) fromRow * fromRow + (double) toRow * toRow) / 2.0);
+        mid = Math.max(fromRow + 1, Math.min(mid, toRow - 1));
+        invokeAll(new RowStripeTask(action, fromRow, mid), new RowStripeTask(action, mid, toRow));
+    }
+
+}
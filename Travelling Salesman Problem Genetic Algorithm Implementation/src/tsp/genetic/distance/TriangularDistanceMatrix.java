@@ -0,0 +1,52 @@
+package tsp.genetic.distance;
+
+/**
+ * class that keeps distances in a packed strict lower
+ * triangle of float values, taking a quarter of the memory
+ * of a full double matrix. Distances of TSPLIB metrics are
+ * integers, which are stored exactly as floats up to 2^24.
+ * Up to 65536 locations can be kept as the packed array is
+ * limited to maximum length of a Java array. The matrix is built
+ * in parallel, in stripes of rows
+ */
+public class TriangularDistanceMatrix implements DistanceProvider {
+
+    private int size; // number of locations
+    private float[] distances; // distance of (i, j) with i > j is at i * (i - 1) / 2 + j
+
+    public TriangularDistanceMatrix(double[] xs, double[] ys, DistanceMetric metric) {
+        this.size = xs.length;
+        long numberOfEntries = (long) size * (size - 1) / 2;
+        if (numberOfEntries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many locations for a triangular distance matrix !!");
+        }
+
+        this.distances = new float[(int) numberOfEntries];
+        RowStripeTask.computeRows(1, size, (fromRow, toRow) -> {
+            int index = (int) RowStripeTask.entries(0, fromRow);
+            for (int i = fromRow; i < toRow; i++) {
+                for (int j = 0; j < i; j++) {
+                    distances[index++] = (float) metric.compute(xs[i], ys[i], xs[j], ys[j]);
+                }
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double distance(int loc1, int loc2) {
+        int high = Math.max(loc1, loc2);
+        int low = Math.min(loc1, loc2);
+        // distance of a location to itself is not stored
+        if (high == low) {
+            return 0.0;
+        }
+
+        return distances[(int) ((long) high * (high - 1) / 2) + low];
+    }
+
+}
@@ -1,27 +1,51 @@
 package tsp.genetic.entitites;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+
+import tsp.genetic.distance.DistanceProvider;
 
 /**
  * Chromosome class represents an individual
  * used in Travelling salesman problem genetic
  * algorithm implementation. Each instance of Chromosome class
  * represents a different permutation of loctions
- * on the route
+ * on the route, locations are kept as 0-based indexes
+ * into the coordinates of the problem instance.
+ * Routes are identified by a 64-bit tour hash, XOR of a
+ * pseudo random key of each edge, which does not depend on
+ * starting location or direction and can be updated as edges change
  * @auhtor Gökay Gülsoy 
  * @since 29/05/2025
  */
 public class Chromosome {
 
-    private ArrayList<Integer> locOrder; // permutation of locations
+    private int[] locOrder; // permutation of 0-based location indexes
     private double fitness; // fitness value for specific locOrder
+    private double tourLength; // total distance of route, NaN if route is not evaluated yet
+    private long tourHash; // XOR of edge keys of route, 0 if not computed yet
 
-    public Chromosome(ArrayList<Integer> locOrder) {
+    public Chromosome(int[] locOrder) {
         this.locOrder = locOrder;
         fitness = 0.0;
+        tourLength = Double.NaN;
+        tourHash = 0L;
+    }
+
+    /**
+     * copy constructor that creates a Chromosome with its own
+     * copy of the route of {@code other}, fitness value,
+     * tour length and tour hash are carried over as the route is identical
+     * 
+     * @param other Chromosome object to be copied
+     */
+    public Chromosome(Chromosome other) {
+        this.locOrder = other.locOrder.clone();
+        this.fitness = other.fitness;
+        this.tourLength = other.tourLength;
+        this.tourHash = other.tourHash;
     }
 
-    public ArrayList<Integer> getLocOrder() {
+    public int[] getLocOrder() {
         return this.locOrder;
     }
 
@@ -29,12 +53,105 @@ public class Chromosome {
         return this.fitness;
     }
 
-    public void setLocOrder(ArrayList<Integer> locOrder) {
+    public double getTourLength() {
+        return this.tourLength;
+    }
+
+    /**
+     * method to check whether tour length of current route is known,
+     * i.e. it is computed or tracked since route was last replaced
+     * 
+     * @return true if tour length and fitness value are up to date
+     */
+    public boolean hasTourLength() {
+        return !Double.isNaN(this.tourLength);
+    }
+
+    /**
+     * method to get tour hash of route, it is computed from all
+     * edges if it is not known. Routes visiting the same edges, in
+     * whichever direction or rotation, have the same tour hash
+     * 
+     * @return XOR of keys of all edges of route
+     */
+    public long getTourHash() {
+        if (tourHash == 0L) {
+            tourHash = computeTourHash();
+        }
+
+        return this.tourHash;
+    }
+
+    /**
+     * method to check whether tour hash of current route is known,
+     * e.g. route is a copy of a Chromosome whose tour hash was computed
+     * 
+     * @return true if tour hash is up to date
+     */
+    public boolean hasTourHash() {
+        return this.tourHash != 0L;
+    }
+
+    /**
+     * method to update tour hash after edges of the route are
+     * changed in place, nothing is done if tour hash is not known
+     * 
+     * @param edgeKeys XOR of {@link #edgeKey(int, int)} of every edge
+     *                 removed and every edge added by modification
+     */
+    public void updateTourHash(long edgeKeys) {
+        if (tourHash != 0L) {
+            tourHash ^= edgeKeys;
+        }
+    }
+
+    /**
+     * method to replace the route, tour length, fitness
+     * value and tour hash are no longer known until route is evaluated again
+     * 
+     * @param locOrder new permutation of 0-based location indexes
+     */
+    public void setLocOrder(int[] locOrder) {
         this.locOrder = locOrder;
+        invalidateTourLength();
     }
 
     public void setFitness(double fitness) {
         this.fitness = fitness;
+        this.tourLength = (fitness > 0) ? (1 / fitness) : Double.NaN;
+    }
+
+    /**
+     * method to set tour length of current route, fitness
+     * value is updated to its inverse
+     * 
+     * @param tourLength total distance of route
+     */
+    public void setTourLength(double tourLength) {
+        this.tourLength = tourLength;
+        this.fitness = (tourLength != 0) ? (1 / tourLength) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * method to update tour length after the route is modified
+     * in place, so that it is not recomputed from all edges.
+     * Tour hash is updated separately via {@link #updateTourHash(long)}
+     * 
+     * @param delta total distance of edges added minus total
+     *              distance of edges removed by modification
+     */
+    public void addTourLengthDelta(double delta) {
+        setTourLength(this.tourLength + delta);
+    }
+
+    /**
+     * method to mark tour length, fitness value and tour hash
+     * as unknown after the route is modified without tracking the change
+     */
+    public void invalidateTourLength() {
+        this.tourLength = Double.NaN;
+        this.fitness = 0.0;
+        this.tourHash = 0L;
     }
 
     /**
@@ -42,41 +159,61 @@ public class Chromosome {
      * values mean better solution. Fitness values are inversely
      * proportional to total distance between point pairs in route
      * 
-     * @param distanceMatrix two dimensional symmetric square matrix
-     *                       in which each row i represents a location and j is
-     *                       representing other location such that i is adjacent to
-     *                       i
+     * @param distances DistanceProvider object giving distance between
+     *                  each location pair
+     */
+    public void computeFitness(DistanceProvider distances) {
+        setTourLength(computeTourLength(distances));
+    }
+
+    /**
+     * method to compute total distance of route from all of its
+     * edges without changing the cached tour length, also used to
+     * verify tour lengths tracked incrementally
+     * 
+     * @param distances DistanceProvider object giving distance between
+     *                  each location pair
+     * @return total distance of route
      */
-    public void computeFitness(double[][] distanceMatrix) {
-        double totalDistance = 0.0;
-
-        for (int i = 0; i < locOrder.size() - 1; i++) {
-            int loc1Label = locOrder.get(i);
-            int loc2Label = locOrder.get(i + 1);    
-
-            // adding distance between two adjacent locations to total distance
-            // reversing order to access if first location label is greater than second
-            // location label because
-            // all etnries where i > j is 0 as the distanceMatrix is symmetric same value
-            // can be accessed at [j][i] rather than [i][j]
-            totalDistance += (loc1Label < loc2Label) ? (distanceMatrix[loc1Label - 1][loc2Label - 1])
-                    : (distanceMatrix[loc2Label - 1][loc1Label - 1]);
+    public double computeTourLength(DistanceProvider distances) {
+        // closing loop for TSP is included by distance provider
+        return distances.tourLength(locOrder);
+    }
+
+    /**
+     * method to compute tour hash of route from all of its
+     * edges without changing the cached tour hash
+     * 
+     * @return XOR of keys of all edges of route
+     */
+    public long computeTourHash() {
+        long hash = 0L;
+        for (int i = 0; i < locOrder.length - 1; i++) {
+            hash ^= edgeKey(locOrder[i], locOrder[i + 1]);
         }
 
-        // closing loop for TSP via computing distance from
-        // last location to first location on route
-        int lastLocLabel = locOrder.getLast();
-        int startLocLabel = locOrder.get(0);
+        return hash ^ edgeKey(locOrder[locOrder.length - 1], locOrder[0]);
+    }
 
-        totalDistance += (lastLocLabel < startLocLabel) ? (distanceMatrix[lastLocLabel - 1][startLocLabel - 1])
-                : (distanceMatrix[startLocLabel - 1][lastLocLabel - 1]);
-        fitness = (totalDistance != 0) ? (1 / totalDistance) : Double.POSITIVE_INFINITY;
-        setFitness(fitness);
+    /**
+     * method to get Zobrist key of edge between two locations,
+     * keys are pseudo random 64-bit values derived from the location
+     * pair by SplitMix64 finalizer, so no key table is kept
+     * 
+     * @param loc1 index of first location
+     * @param loc2 index of second location
+     * @return key of edge, the same for (loc1, loc2) and (loc2, loc1)
+     */
+    public static long edgeKey(int loc1, int loc2) {
+        long key = ((long) Math.max(loc1, loc2) << 32 | Math.min(loc1, loc2)) + 0x9E3779B97F4A7C15L;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
     }
 
     @Override
     public String toString() {
-        return "Chromosome(" + this.locOrder + ", Fitness: " + this.fitness + ")";
+        return "Chromosome(" + Arrays.toString(this.locOrder) + ", Fitness: " + this.fitness + ")";
     }
 
 }
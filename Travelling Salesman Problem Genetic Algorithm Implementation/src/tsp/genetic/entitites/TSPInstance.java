@@ -0,0 +1,49 @@
+package tsp.genetic.entitites;
+
+import tsp.genetic.distance.DistanceMetric;
+
+/**
+ * TSPInstance class that represents a problem
+ * instance as primitive coordinate arrays together
+ * with its name and distance metric
+ */
+public class TSPInstance {
+
+    private String name; // name of problem instance, e.g. att48
+    private double[] xs; // X coordinates of locations
+    private double[] ys; // Y coordinates of locations
+    private DistanceMetric metric; // distance metric of problem instance
+
+    public TSPInstance(String name, double[] xs, double[] ys, DistanceMetric metric) {
+        this.name = name;
+        this.xs = xs;
+        this.ys = ys;
+        this.metric = metric;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public double[] getXCoordinates() {
+        return this.xs;
+    }
+
+    public double[] getYCoordinates() {
+        return this.ys;
+    }
+
+    public DistanceMetric getMetric() {
+        return this.metric;
+    }
+
+    public int getSize() {
+        return this.xs.length;
+    }
+
+    @Override
+    public String toString() {
+        return "TSPInstance(" + this.name + ", " + this.xs.length + " locations, " + this.metric + ")";
+    }
+
+}
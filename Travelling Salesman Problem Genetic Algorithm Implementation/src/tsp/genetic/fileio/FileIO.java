@@ -1,14 +1,21 @@
 package tsp.genetic.fileio;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Scanner;
 
+import tsp.genetic.distance.DistanceMetric;
 import tsp.genetic.entitites.Point;
+import tsp.genetic.entitites.TSPInstance;
 
 /**
- * class to parse csv files to create coordinates to be used in the
+ * class to parse csv and TSPLIB files to create coordinates to be used in the
  * genetic algorithm
  * @auhtor Gökay Gülsoy 
  * @since 29/05/2025
@@ -19,38 +26,73 @@ public class FileIO {
      * method to parse csv file and fill coordinate ArrayList
      * of ContextManager object with Point objects using x and y
      * coordinates of locations given as ordered pairs
-     * 
+     *
      * @param csvFilePath path to csv file containing coordinate for each point
      * @param coordinates ArrayList to be provided by ContextManager object
      *                    to be filled with Point objects
+     * @throws UncheckedIOException if file cannot be read or is malformed,
+     *                              cause keeps the reason
      */
     public static void parseCSVFileAndCreateCoordinates(String csvFilePath, ArrayList<Point> coordinates) {
         try {
-            File csvFile = new File(csvFilePath);
-            Scanner fileReader = new Scanner(csvFile);
-
-            int locLabel = 1;
-            while (fileReader.hasNextLine()) {
-                String coordinateLine = fileReader.nextLine();
-                String[] coordinate = coordinateLine.split(",");
-
-                double xCoordinate = Double.parseDouble(coordinate[0]);
-                double yCoordinate = Double.parseDouble(coordinate[1]);
-                Point point = new Point(xCoordinate, yCoordinate, locLabel);
-                locLabel++;
+            TSPInstance instance = loadInstance(Paths.get(csvFilePath), DistanceMetric.EUC_2D);
+            double[] xs = instance.getXCoordinates();
+            double[] ys = instance.getYCoordinates();
 
+            for (int i = 0; i < instance.getSize(); i++) {
                 // add point to coordinates
-                coordinates.add(point);
+                coordinates.add(new Point(xs[i], ys[i], i + 1));
             }
+        }
 
-            fileReader.close();
+        catch (IOException e) {
+            throw new UncheckedIOException("Either csv file to read is not found or it is malformed !!", e);
         }
+    }
 
-        catch (FileNotFoundException e) {
-            System.err.println("Either csv file to read is not found or incorrect path is provided !!");
-            e.printStackTrace();
+    /**
+     * method to load a problem instance from a TSPLIB file (.tsp with
+     * NODE_COORD_SECTION) or a csv file of "x,y" lines, format is detected
+     * from content. Files up to 2 GB are memory-mapped and parsed in place,
+     * larger files are read through a buffer
+     *
+     * @param path          path to instance file
+     * @param defaultMetric distance metric used if file does not specify
+     *                      EDGE_WEIGHT_TYPE, which is always the case for csv files
+     * @return TSPInstance object keeping coordinates of locations
+     * @throws IOException if file cannot be read or is malformed
+     */
+    public static TSPInstance loadInstance(Path path, DistanceMetric defaultMetric) throws IOException {
+        String name = path.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        if (extension > 0) {
+            name = name.substring(0, extension);
         }
 
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize <= Integer.MAX_VALUE) {
+                return new InstanceParser(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize))
+                        .parse(name, defaultMetric);
+            }
+
+            return new InstanceParser(channel).parse(name, defaultMetric);
+        }
+    }
+
+    /**
+     * method to load a problem instance from a stream in TSPLIB
+     * or csv format, stream is read through a buffer and not closed
+     *
+     * @param inputStream   stream to read instance from
+     * @param defaultMetric distance metric used if stream does not specify
+     *                      EDGE_WEIGHT_TYPE
+     * @return TSPInstance object keeping coordinates of locations
+     * @throws IOException if stream cannot be read or is malformed
+     */
+    public static TSPInstance loadInstance(InputStream inputStream, DistanceMetric defaultMetric)
+            throws IOException {
+        return new InstanceParser(Channels.newChannel(inputStream)).parse("instance", defaultMetric);
     }
 
 }
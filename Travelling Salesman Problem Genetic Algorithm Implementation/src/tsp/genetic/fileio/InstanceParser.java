@@ -0,0 +1,424 @@
+package tsp.genetic.fileio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.entitites.TSPInstance;
+
+/**
+ * class that parses problem instances directly from bytes
+ * into primitive coordinate arrays without creating a String
+ * for each line or number. Input is either a buffer keeping the
+ * whole input (e.g. a memory-mapped file) or a channel read through
+ * a fixed size buffer. Two formats are supported, TSPLIB files with
+ * NODE_COORD_SECTION and csv files with one "x,y" pair per line
+ * (commas, semicolons or whitespace separate the numbers)
+ */
+class InstanceParser {
+
+    private static final int BUFFER_SIZE = 1 << 16; // size of buffer used when reading from a channel
+    private static final int INITIAL_CAPACITY = 1024; // initial capacity of coordinate arrays if dimension is unknown
+    private static final long MAX_EXACT_MANTISSA = 1L << 53; // largest mantissa kept exactly by a double
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 }; // powers of ten exactly kept by a double
+
+    private ReadableByteChannel channel; // channel to refill buffer from, null if buffer keeps whole input
+    private ByteBuffer buffer; // bytes not parsed yet are between position and limit
+    private int lineNumber; // current line number used in error messages
+    private byte[] token; // bytes of number being parsed, used if it cannot be converted exactly
+    private int tokenLength; // number of bytes in token
+
+    InstanceParser(ByteBuffer buffer) {
+        this.channel = null;
+        this.buffer = buffer;
+        this.lineNumber = 1;
+        this.token = new byte[32];
+    }
+
+    InstanceParser(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.limit(0);
+        this.lineNumber = 1;
+        this.token = new byte[32];
+    }
+
+    /**
+     * method to parse an instance, input starting with a letter
+     * is parsed as a TSPLIB file, otherwise as a csv file
+     *
+     * @param defaultName   name of instance if input does not give one
+     * @param defaultMetric distance metric of instance if input does not give one
+     * @return TSPInstance object parsed from input
+     * @throws IOException if input cannot be read or is malformed
+     */
+    TSPInstance parse(String defaultName, DistanceMetric defaultMetric) throws IOException {
+        skipWhitespace();
+        int b = peek();
+        if ((b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z')) {
+            return parseTSPLIB(defaultName, defaultMetric);
+        }
+
+        return parseCSV(defaultName, defaultMetric);
+    }
+
+    /**
+     * method to parse csv input with one coordinate pair per line,
+     * values after the second number of a line are ignored
+     */
+    private TSPInstance parseCSV(String name, DistanceMetric metric) throws IOException {
+        double[] xs = new double[INITIAL_CAPACITY];
+        double[] ys = new double[INITIAL_CAPACITY];
+        int size = 0;
+
+        while (true) {
+            skipWhitespace();
+            if (peek() < 0) {
+                break;
+            }
+
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, 2 * size);
+                ys = Arrays.copyOf(ys, 2 * size);
+            }
+
+            xs[size] = parseNumber();
+            skipSeparator();
+            ys[size] = parseNumber();
+            skipLine();
+            size++;
+        }
+
+        return new TSPInstance(name, trim(xs, size), trim(ys, size), metric);
+    }
+
+    /**
+     * method to parse TSPLIB input, header lines of "KEY : VALUE"
+     * form are read up to NODE_COORD_SECTION, then each line gives
+     * a location as "id x y". Section ends after DIMENSION locations,
+     * at "EOF" keyword or at end of input
+     */
+    private TSPInstance parseTSPLIB(String name, DistanceMetric metric) throws IOException {
+        int dimension = -1;
+        boolean coordinateSection = false;
+
+        while (!coordinateSection && peek() >= 0) {
+            String line = readLine().trim();
+            int separator = line.indexOf(':');
+            String key = ((separator < 0) ? line : line.substring(0, separator)).trim();
+            String value = (separator < 0) ? "" : line.substring(separator + 1).trim();
+
+            switch (key) {
+                case "NAME":
+                    name = value;
+                    break;
+                case "DIMENSION":
+                    try {
+                        dimension = Integer.parseInt(value);
+                    }
+
+                    catch (NumberFormatException e) {
+                        throw malformed("DIMENSION is not an integer");
+                    }
+                    break;
+                case "EDGE_WEIGHT_TYPE":
+                    metric = toMetric(value);
+                    break;
+                case "NODE_COORD_SECTION":
+                    coordinateSection = true;
+                    break;
+                case "EOF":
+                    throw malformed("NODE_COORD_SECTION is missing");
+                default:
+                    // other keywords such as TYPE and COMMENT are not needed
+                    break;
+            }
+        }
+
+        if (!coordinateSection) {
+            throw malformed("NODE_COORD_SECTION is missing");
+        }
+
+        int capacity = (dimension > 0) ? dimension : INITIAL_CAPACITY;
+        double[] xs = new double[capacity];
+        double[] ys = new double[capacity];
+        int size = 0;
+
+        while (size != dimension) {
+            skipWhitespace();
+            int b = peek();
+            // section ends at end of input or at next keyword such as EOF
+            if (b < 0 || !isNumberStart(b)) {
+                break;
+            }
+
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, 2 * size);
+                ys = Arrays.copyOf(ys, 2 * size);
+            }
+
+            parseNumber(); // location id, locations are kept in order of appearance
+            skipSeparator();
+            xs[size] = parseNumber();
+            skipSeparator();
+            ys[size] = parseNumber();
+            skipLine();
+            size++;
+        }
+
+        if (dimension >= 0 && size != dimension) {
+            throw malformed("NODE_COORD_SECTION has " + size + " locations instead of " + dimension);
+        }
+
+        return new TSPInstance(name, trim(xs, size), trim(ys, size), metric);
+    }
+
+    /**
+     * method to convert EDGE_WEIGHT_TYPE value to distance metric
+     */
+    private DistanceMetric toMetric(String edgeWeightType) throws IOException {
+        switch (edgeWeightType) {
+            case "EUC_2D":
+                return DistanceMetric.EUC_2D;
+            case "ATT":
+                return DistanceMetric.ATT;
+            case "CEIL_2D":
+                return DistanceMetric.CEIL_2D;
+            case "GEO":
+                return DistanceMetric.GEO;
+            default:
+                throw malformed("EDGE_WEIGHT_TYPE " + edgeWeightType + " is not supported");
+        }
+    }
+
+    /**
+     * method to parse a decimal number with optional sign, fraction
+     * and exponent. Numbers whose digits fit in a double mantissa and
+     * whose exponent is small are converted with a single correctly
+     * rounded operation, others are converted by Double.parseDouble
+     */
+    private double parseNumber() throws IOException {
+        tokenLength = 0;
+        boolean negative = false;
+        int b = peek();
+        if (b == '-' || b == '+') {
+            negative = (b == '-');
+            consumeToken();
+            b = peek();
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean exact = true;
+
+        while (b >= '0' && b <= '9') {
+            if (mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = 10 * mantissa + (b - '0');
+            }
+
+            else {
+                exact = false;
+            }
+            hasDigits = true;
+            consumeToken();
+            b = peek();
+        }
+
+        if (b == '.') {
+            consumeToken();
+            b = peek();
+            while (b >= '0' && b <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA) {
+                    mantissa = 10 * mantissa + (b - '0');
+                    exponent--;
+                }
+
+                else {
+                    exact = false;
+                }
+                hasDigits = true;
+                consumeToken();
+                b = peek();
+            }
+        }
+
+        if (!hasDigits) {
+            throw malformed("number expected");
+        }
+
+        if (b == 'e' || b == 'E') {
+            consumeToken();
+            b = peek();
+            boolean negativeExponent = false;
+            if (b == '-' || b == '+') {
+                negativeExponent = (b == '-');
+                consumeToken();
+                b = peek();
+            }
+
+            int exponentValue = 0;
+            boolean hasExponentDigits = false;
+            while (b >= '0' && b <= '9') {
+                exponentValue = Math.min(10 * exponentValue + (b - '0'), 100000);
+                hasExponentDigits = true;
+                consumeToken();
+                b = peek();
+            }
+
+            if (!hasExponentDigits) {
+                throw malformed("exponent expected");
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+
+        double value;
+        if (exact && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            // both operands are exact, so the result is correctly rounded
+            value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        return Double.parseDouble(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * method to get first {@code size} values of {@code values},
+     * array is copied only if it has unused capacity
+     */
+    private static double[] trim(double[] values, int size) {
+        return (values.length == size) ? values : Arrays.copyOf(values, size);
+    }
+
+    private static boolean isNumberStart(int b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    /**
+     * method to skip spaces and tabs and at most one comma or
+     * semicolon between two numbers of the same line
+     */
+    private void skipSeparator() throws IOException {
+        int b = peek();
+        while (b == ' ' || b == '\t') {
+            consume();
+            b = peek();
+        }
+
+        if (b == ',' || b == ';') {
+            consume();
+            b = peek();
+            while (b == ' ' || b == '\t') {
+                consume();
+                b = peek();
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        int b = peek();
+        while (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+            consume();
+            b = peek();
+        }
+    }
+
+    /**
+     * method to skip rest of current line including line break
+     */
+    private void skipLine() throws IOException {
+        int b = peek();
+        while (b >= 0 && b != '\n') {
+            consume();
+            b = peek();
+        }
+
+        if (b == '\n') {
+            consume();
+        }
+    }
+
+    /**
+     * method to read rest of current line, used for TSPLIB header lines only
+     */
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b = peek();
+        while (b >= 0 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+            consume();
+            b = peek();
+        }
+
+        if (b == '\n') {
+            consume();
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * method to get next byte without consuming it
+     *
+     * @return next byte, -1 at end of input
+     */
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /**
+     * method to consume next byte, which must already be peeked
+     */
+    private void consume() {
+        if (buffer.get() == '\n') {
+            lineNumber++;
+        }
+    }
+
+    /**
+     * method to consume next byte of a number, which must already be
+     * peeked. Byte is appended to token so that the number can be
+     * converted by Double.parseDouble if needed
+     */
+    private void consumeToken() {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, 2 * tokenLength);
+        }
+        token[tokenLength++] = buffer.get();
+    }
+
+    /**
+     * method to read next bytes from channel into buffer
+     *
+     * @return false if end of input is reached
+     */
+    private boolean fill() throws IOException {
+        if (channel == null) {
+            return false;
+        }
+
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+
+        return read > 0;
+    }
+
+    private IOException malformed(String reason) {
+        return new IOException("Malformed instance at line " + lineNumber + ": " + reason + " !!");
+    }
+
+}
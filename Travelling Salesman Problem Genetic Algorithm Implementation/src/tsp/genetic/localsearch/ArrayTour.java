@@ -0,0 +1,138 @@
+package tsp.genetic.localsearch;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that wraps the route array of a Chromosome together with
+ * an inverse array keeping the position of each location, so that
+ * successor, predecessor and betweenness queries are O(1).
+ * Routes are modified in place, a 2-opt move reverses whichever
+ * of the two sub-routes is shorter, which takes O(n) time
+ */
+class ArrayTour implements Tour {
+
+    private int[] locOrders; // route being modified in place
+    private int[] positions; // positions[loc] is the index of loc in locOrders
+    private int size; // number of locations in route
+    private long hashDelta; // XOR of keys of edges removed and added since route was loaded
+
+    ArrayTour() {
+        this.positions = new int[0];
+    }
+
+    /**
+     * method to start working on {@code locOrders}, position of
+     * each location is recomputed
+     *
+     * @param locOrders route to be modified in place
+     */
+    @Override
+    public void load(int[] locOrders) {
+        this.locOrders = locOrders;
+        this.size = locOrders.length;
+        this.hashDelta = 0L;
+        if (positions.length < size) {
+            positions = new int[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            positions[locOrders[i]] = i;
+        }
+    }
+
+    /**
+     * method to write route back, nothing to do as
+     * route is modified in place
+     */
+    @Override
+    public void store() {
+        // route array is kept up to date by every move
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public long hashDelta() {
+        return this.hashDelta;
+    }
+
+    @Override
+    public int next(int loc) {
+        int index = positions[loc] + 1;
+        return locOrders[(index == size) ? 0 : index];
+    }
+
+    @Override
+    public int prev(int loc) {
+        int index = positions[loc];
+        return locOrders[(index == 0) ? size - 1 : index - 1];
+    }
+
+    @Override
+    public boolean between(int loc1, int loc2, int loc3) {
+        int pos1 = positions[loc1];
+        int pos2 = positions[loc2];
+        int pos3 = positions[loc3];
+
+        if (pos1 <= pos3) {
+            return pos1 <= pos2 && pos2 <= pos3;
+        }
+
+        return pos2 >= pos1 || pos2 <= pos3;
+    }
+
+    @Override
+    public void twoOptMove(int loc1, int loc2, int loc3, int loc4) {
+        hashDelta ^= Chromosome.edgeKey(loc1, loc2) ^ Chromosome.edgeKey(loc3, loc4) ^ Chromosome.edgeKey(loc1, loc3)
+                ^ Chromosome.edgeKey(loc2, loc4);
+        if (next(loc1) == loc2) {
+            reversePath(loc2, loc3);
+        }
+
+        else {
+            reversePath(loc1, loc4);
+        }
+    }
+
+    /**
+     * method to reverse forward path from {@code from} to {@code to}.
+     * If the path is longer than half of the route its complement is
+     * reversed instead, which results in the same cycle
+     */
+    private void reversePath(int from, int to) {
+        int start = positions[from];
+        int end = positions[to];
+        int length = end - start;
+        if (length < 0) {
+            length += size;
+        }
+        length++;
+
+        if (2 * length > size) {
+            // reverse complement path from successor of to up to predecessor of from
+            int newStart = end + 1;
+            end = start - 1;
+            start = (newStart == size) ? 0 : newStart;
+            if (end < 0) {
+                end = size - 1;
+            }
+            length = size - length;
+        }
+
+        for (int swaps = length / 2; swaps > 0; swaps--) {
+            int loc1 = locOrders[start];
+            int loc2 = locOrders[end];
+            locOrders[start] = loc2;
+            positions[loc2] = start;
+            locOrders[end] = loc1;
+            positions[loc1] = end;
+
+            start = (start + 1 == size) ? 0 : start + 1;
+            end = (end == 0) ? size - 1 : end - 1;
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package tsp.genetic.localsearch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that caches results of a local search keyed by tour hash
+ * of the route it is applied to, so that repeated work on identical
+ * children, i.e. copies of parents that are neither crossed over nor
+ * mutated, becomes a lookup. Only routes whose tour hash is already known
+ * are looked up, which are copies of evaluated individuals, as computing
+ * tour hash of a new route only to miss costs more than it saves. Routes
+ * looked up are brought to canonical form first, starting at location 0
+ * and continuing with the smaller of its two neighbors, so the result of
+ * local search only depends on the tour and a cached result is exactly
+ * what local search would produce. The number of
+ * cached results is bounded, least recently used results are evicted.
+ * Lookups and insertions are synchronized, so one instance can be used
+ * by several threads concurrently
+ */
+public class CachedLocalSearch implements LocalSearch {
+
+    private LocalSearch localSearch; // local search whose results are cached
+    private int capacity; // maximum number of cached results, 0 disables caching
+    private ResultMap cache; // results in access order, guarded by this
+    private long lookups; // number of lookups, guarded by this
+    private long hits; // number of lookups that found a result, guarded by this
+
+    public CachedLocalSearch(LocalSearch localSearch, int capacity) {
+        this.localSearch = localSearch;
+        this.capacity = Math.max(capacity, 0);
+        this.cache = new ResultMap(this.capacity);
+        this.lookups = 0;
+        this.hits = 0;
+    }
+
+    public LocalSearch getLocalSearch() {
+        return this.localSearch;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public synchronized long getLookups() {
+        return this.lookups;
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * method to apply local search to route of {@code chr} in place,
+     * if tour hash of the route is known local search is applied to its
+     * canonical form or its cached result is copied. Results of searches
+     * that may have been stopped early are not cached
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @param stopCondition   checked periodically between moves, search
+     *                        returns once it is true
+     * @return number of improving moves applied, or applied when the
+     *         cached result was computed
+     */
+    @Override
+    public int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        int[] locOrders = chr.getLocOrder();
+        if (locOrders.length < 3 || !chr.hasTourHash()) {
+            return localSearch.improve(chr, maxImprovements, stopCondition);
+        }
+
+        // rotating and reversing the route keeps its edges, tour length and tour hash,
+        // it is done regardless of capacity so that results do not depend on cache size
+        canonicalize(locOrders);
+        if (capacity == 0) {
+            return localSearch.improve(chr, maxImprovements, stopCondition);
+        }
+
+        long tourHash = chr.getTourHash();
+        double tourLength = chr.getTourLength();
+        CachedResult result = lookup(tourHash);
+        // tour length and budget are compared as well, so that a hash collision
+        // or a result computed with another budget is not used
+        if (result != null && result.tourLength == tourLength && result.maxImprovements == maxImprovements
+                && result.locOrders.length == locOrders.length) {
+            System.arraycopy(result.locOrders, 0, locOrders, 0, locOrders.length);
+            chr.setTourLength(result.improvedTourLength);
+            chr.updateTourHash(tourHash ^ result.improvedTourHash);
+            return result.numberOfImprovements;
+        }
+
+        int numberOfImprovements = localSearch.improve(chr, maxImprovements, stopCondition);
+        if (stopCondition.getAsBoolean()) {
+            return numberOfImprovements;
+        }
+
+        store(tourHash, new CachedResult(tourLength, maxImprovements, locOrders.clone(), chr.getTourLength(),
+                chr.getTourHash(), numberOfImprovements));
+
+        return numberOfImprovements;
+    }
+
+    /**
+     * method to remove all cached results
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    private synchronized CachedResult lookup(long tourHash) {
+        lookups++;
+        CachedResult result = cache.get(tourHash);
+        if (result != null) {
+            hits++;
+        }
+
+        return result;
+    }
+
+    private synchronized void store(long tourHash, CachedResult result) {
+        cache.put(tourHash, result);
+    }
+
+    /**
+     * method to rotate route in place so that it starts at location 0,
+     * then reverse it if its second location is greater than its last
+     * location, each tour has a single canonical route
+     *
+     * @param locOrders route to be brought to canonical form
+     */
+    static void canonicalize(int[] locOrders) {
+        int size = locOrders.length;
+        int start = 0;
+        while (locOrders[start] != 0) {
+            start++;
+        }
+
+        // rotating left by start positions via three reversals
+        if (start > 0) {
+            reverse(locOrders, 0, start - 1);
+            reverse(locOrders, start, size - 1);
+            reverse(locOrders, 0, size - 1);
+        }
+
+        if (locOrders[1] > locOrders[size - 1]) {
+            reverse(locOrders, 1, size - 1);
+        }
+    }
+
+    /**
+     * helper method to reverse {@code locOrders} between
+     * positions {@code from} and {@code to}, both inclusive
+     */
+    private static void reverse(int[] locOrders, int from, int to) {
+        while (from < to) {
+            int loc = locOrders[from];
+            locOrders[from++] = locOrders[to];
+            locOrders[to--] = loc;
+        }
+    }
+
+    /**
+     * class that keeps cached results in access order and evicts
+     * the least recently used result when capacity is exceeded
+     */
+    private static class ResultMap extends LinkedHashMap<Long, CachedResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity; // maximum number of results
+
+        private ResultMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedResult> eldest) {
+            return size() > capacity;
+        }
+
+    }
+
+    /**
+     * class that keeps result of local search applied to a
+     * route, together with tour length and budget it was applied with
+     */
+    private static class CachedResult {
+
+        private final double tourLength; // tour length of route local search was applied to
+        private final int maxImprovements; // improvement budget local search was applied with
+        private final int[] locOrders; // improved route
+        private final double improvedTourLength; // tour length of improved route
+        private final long improvedTourHash; // tour hash of improved route
+        private final int numberOfImprovements; // number of improving moves applied
+
+        private CachedResult(double tourLength, int maxImprovements, int[] locOrders, double improvedTourLength,
+                long improvedTourHash, int numberOfImprovements) {
+            this.tourLength = tourLength;
+            this.maxImprovements = maxImprovements;
+            this.locOrders = locOrders;
+            this.improvedTourLength = improvedTourLength;
+            this.improvedTourHash = improvedTourHash;
+            this.numberOfImprovements = numberOfImprovements;
+        }
+
+    }
+
+}
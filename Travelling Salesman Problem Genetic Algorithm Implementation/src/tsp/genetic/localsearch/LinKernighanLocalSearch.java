@@ -0,0 +1,275 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements a Lin-Kernighan style variable depth
+ * local search built from sequential 2-opt moves. Starting from an
+ * edge (t1, t2) a chain of moves is built, each move adds an edge from
+ * the last end point to one of its candidate neighbors, removes an edge
+ * next to it and closes the tour back to t1. The chain is extended as
+ * long as its cumulative gain stays positive and the best closed tour
+ * along the chain is kept, later moves of the chain are undone. Each
+ * chain tries every candidate neighbor at its first level and the
+ * best candidate at deeper levels. Locations are processed with don't-look
+ * bits. It is considerably more expensive than 2-opt per call and meant
+ * to be applied to a few elite individuals. Scratch buffers are kept per
+ * thread, so one instance can be used by several threads concurrently
+ */
+public class LinKernighanLocalSearch implements LocalSearch {
+
+    private static final double EPSILON = 1e-9; // minimum gain for a move to count as improvement
+    private static final int MAX_DEPTH = 50; // maximum number of 2-opt moves in a chain
+
+    private DistanceProvider distances;
+    private NeighborLists neighborLists; // candidate neighbors, null means all locations
+    private ThreadLocal<ChainState> chainStates; // scratch buffers of search per thread
+
+    public LinKernighanLocalSearch(DistanceProvider distances, NeighborLists neighborLists) {
+        this.distances = distances;
+        this.neighborLists = neighborLists;
+        this.chainStates = ThreadLocal.withInitial(ChainState::new);
+    }
+
+    public NeighborLists getNeighborLists() {
+        return this.neighborLists;
+    }
+
+    /**
+     * method to apply Lin-Kernighan style local search to {@code chr}
+     * in place, each improving chain counts as one improving move
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @param stopCondition   checked periodically between moves, search
+     *                        returns once it is true
+     * @return number of improving chains applied
+     */
+    @Override
+    public int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        if (chr.getLocOrder().length < 5) {
+            return 0;
+        }
+
+        ChainState chain = chainStates.get();
+        SearchState state = chain.searchState;
+        state.load(chr.getLocOrder(), stopCondition);
+        double totalDistance = chr.getTourLength();
+        int numberOfImprovements = 0;
+
+        searchLoop: while (!state.isDone()) {
+            int t1 = state.poll();
+
+            // try both edges of t1, first towards its successor then its predecessor
+            for (int direction = 0; direction < 2; direction++) {
+                int t2 = (direction == 0) ? state.tour.next(t1) : state.tour.prev(t1);
+                double gain = improveChain(chain, t1, t2);
+                if (gain > EPSILON) {
+                    totalDistance -= gain;
+                    numberOfImprovements++;
+
+                    if (numberOfImprovements == maxImprovements) {
+                        break searchLoop;
+                    }
+
+                    continue searchLoop;
+                }
+            }
+        }
+
+        state.clear();
+
+        if (numberOfImprovements > 0) {
+            chr.setTourLength(totalDistance);
+            chr.updateTourHash(state.tour.hashDelta());
+        }
+
+        return numberOfImprovements;
+    }
+
+    /**
+     * method to find an improving chain starting by removing edge
+     * (t1, t2), each candidate neighbor of t2 is tried as first added edge
+     *
+     * @return gain of applied chain, 0 if no improving chain is found
+     */
+    private double improveChain(ChainState chain, int t1, int t2) {
+        Tour tour = chain.searchState.tour;
+        double removedEdge1 = distance(t1, t2);
+        int candidateCount = (neighborLists != null) ? neighborLists.getNeighborCount() : tour.size();
+
+        for (int rank = 0; rank < candidateCount; rank++) {
+            int t3 = (neighborLists != null) ? neighborLists.getNeighbor(t2, rank) : rank;
+            double addedEdge1 = distance(t2, t3);
+            if (addedEdge1 >= removedEdge1) {
+                // neighbors are sorted, no further neighbor can give a gain
+                if (neighborLists != null) {
+                    break;
+                }
+                continue;
+            }
+
+            if (t3 == t1 || t3 == t2 || tour.next(t2) == t3 || tour.prev(t2) == t3) {
+                continue;
+            }
+
+            chain.depth = 0;
+            chain.bestDepth = 0;
+            chain.bestGain = 0.0;
+            double gain = applyStep(chain, t1, t2, t3, removedEdge1 - addedEdge1);
+            // extend chain from new end point with best candidate
+            int t4 = chain.moves[4 * (chain.depth - 1) + 3];
+            while (gain > EPSILON && chain.depth < MAX_DEPTH) {
+                int next = selectCandidate(chain, t1, t4, gain);
+                if (next < 0) {
+                    break;
+                }
+
+                gain = applyStep(chain, t1, t4, next, gain - distance(t4, next));
+                t4 = chain.moves[4 * (chain.depth - 1) + 3];
+            }
+
+            // undo moves applied after best closed tour of chain
+            while (chain.depth > chain.bestDepth) {
+                chain.depth--;
+                int offset = 4 * chain.depth;
+                // move added edges (t2, t3) and (t1, t4), removing them restores (t1, t2) and (t3, t4)
+                tour.twoOptMove(chain.moves[offset + 1], chain.moves[offset + 2], chain.moves[offset],
+                        chain.moves[offset + 3]);
+            }
+
+            if (chain.bestDepth > 0) {
+                // turn off don't-look bits of end points of changed edges
+                for (int i = 0; i < 4 * chain.bestDepth; i++) {
+                    chain.searchState.activate(chain.moves[i]);
+                }
+
+                return chain.bestGain;
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * method to select next added edge of chain, candidate t5 of
+     * {@code t4} maximizing gain of removing the edge of t5 next to it
+     * while keeping cumulative gain positive. Edges added by the chain
+     * are not removed again
+     *
+     * @return selected candidate, -1 if there is none
+     */
+    private int selectCandidate(ChainState chain, int t1, int t4, double gain) {
+        Tour tour = chain.searchState.tour;
+        boolean t4IsSuccessor = tour.next(t1) == t4;
+        int candidateCount = (neighborLists != null) ? neighborLists.getNeighborCount() : tour.size();
+        int bestCandidate = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int rank = 0; rank < candidateCount; rank++) {
+            int t5 = (neighborLists != null) ? neighborLists.getNeighbor(t4, rank) : rank;
+            double addedEdge = distance(t4, t5);
+            if (addedEdge >= gain) {
+                if (neighborLists != null) {
+                    break;
+                }
+                continue;
+            }
+
+            if (t5 == t1 || t5 == t4 || tour.next(t4) == t5 || tour.prev(t4) == t5) {
+                continue;
+            }
+
+            int t6 = t4IsSuccessor ? tour.prev(t5) : tour.next(t5);
+            if (chain.isAdded(t5, t6)) {
+                continue;
+            }
+
+            double value = distance(t5, t6) - addedEdge;
+            if (value > bestValue) {
+                bestValue = value;
+                bestCandidate = t5;
+            }
+        }
+
+        return bestCandidate;
+    }
+
+    /**
+     * method to apply a 2-opt move of chain which removes edges
+     * (t1, t2) and (t3, t4) and adds edges (t2, t3) and (t4, t1), where
+     * t4 is the neighbor of t3 on the same side as t1 is of t2
+     *
+     * @param gain cumulative gain of chain after adding edge (t2, t3)
+     * @return cumulative gain of chain after removing edge (t3, t4),
+     *         closing edge (t4, t1) is not included
+     */
+    private double applyStep(ChainState chain, int t1, int t2, int t3, double gain) {
+        Tour tour = chain.searchState.tour;
+        int t4 = (tour.prev(t2) == t1) ? tour.prev(t3) : tour.next(t3);
+        tour.twoOptMove(t2, t1, t3, t4);
+
+        int offset = 4 * chain.depth;
+        chain.moves[offset] = t1;
+        chain.moves[offset + 1] = t2;
+        chain.moves[offset + 2] = t3;
+        chain.moves[offset + 3] = t4;
+        chain.depth++;
+
+        gain += distance(t3, t4);
+        double closedGain = gain - distance(t4, t1);
+        if (closedGain > chain.bestGain + EPSILON) {
+            chain.bestGain = closedGain;
+            chain.bestDepth = chain.depth;
+        }
+
+        return gain;
+    }
+
+    /**
+     * helper method to look up distance between two locations
+     *
+     * @param loc1 index of first location
+     * @param loc2 index of second location
+     * @return distance between loc1 and loc2
+     */
+    private double distance(int loc1, int loc2) {
+        return distances.distance(loc1, loc2);
+    }
+
+    /**
+     * class that keeps scratch buffers of a single thread, route with
+     * don't-look bits and 2-opt moves of the chain being built
+     */
+    private static class ChainState {
+
+        private SearchState searchState = new SearchState(); // route with don't-look bits
+        private int[] moves = new int[4 * MAX_DEPTH]; // t1, t2, t3, t4 of each move of chain
+        private int depth; // number of moves of chain applied to route
+        private int bestDepth; // number of moves giving best closed tour
+        private double bestGain; // gain of best closed tour
+
+        /**
+         * method to check whether edge (loc1, loc2) is added by
+         * a move of chain, edge (t2, t3) of each move
+         */
+        private boolean isAdded(int loc1, int loc2) {
+            for (int i = 0; i < depth; i++) {
+                int t2 = moves[4 * i + 1];
+                int t3 = moves[4 * i + 2];
+                if ((t2 == loc1 && t3 == loc2) || (t2 == loc2 && t3 == loc1)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * interface for local search heuristics improving the route
+ * of a Chromosome in place. Each move is scored by the change of
+ * distance of the edges it removes and adds, so tour length of the
+ * Chromosome is updated without re-evaluating the whole route.
+ * Implementations keep scratch buffers per thread, so one instance
+ * can be used by several threads concurrently. A search can be stopped
+ * early by a stop condition, e.g. when a deadline passes or a run is
+ * cancelled, it is checked between moves so the route stays a valid tour
+ */
+public interface LocalSearch {
+
+    BooleanSupplier NEVER_STOP = () -> false; // stop condition of searches that are never stopped early
+
+    /**
+     * method to apply local search to {@code chr} in place until
+     * no improving move exists or improvement budget is used up
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @return number of improving moves applied
+     */
+    default int improve(Chromosome chr, int maxImprovements) {
+        return improve(chr, maxImprovements, NEVER_STOP);
+    }
+
+    /**
+     * method to apply local search to {@code chr} in place until
+     * no improving move exists, improvement budget is used up or
+     * {@code stopCondition} becomes true
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @param stopCondition   checked periodically between moves, search
+     *                        returns once it is true
+     * @return number of improving moves applied
+     */
+    int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition);
+
+    /**
+     * method to create local search of given type
+     *
+     * @param type          type of local search
+     * @param distances     DistanceProvider object of problem instance
+     * @param neighborLists candidate neighbors tried by moves, null means
+     *                      all locations are candidates
+     * @return LocalSearch object, VND chains 2-opt, Or-opt and Or-3opt
+     */
+    static LocalSearch create(LocalSearchType type, DistanceProvider distances, NeighborLists neighborLists) {
+        switch (type) {
+            case OR_OPT:
+                return new OrOptLocalSearch(distances, neighborLists);
+            case OR_THREE_OPT:
+                return new OrThreeOptLocalSearch(distances, neighborLists);
+            case LIN_KERNIGHAN:
+                return new LinKernighanLocalSearch(distances, neighborLists);
+            case VND:
+                return new VariableNeighborhoodDescent(new TwoOptLocalSearch(distances, neighborLists),
+                        new OrOptLocalSearch(distances, neighborLists),
+                        new OrThreeOptLocalSearch(distances, neighborLists));
+            default:
+                return new TwoOptLocalSearch(distances, neighborLists);
+        }
+    }
+
+}
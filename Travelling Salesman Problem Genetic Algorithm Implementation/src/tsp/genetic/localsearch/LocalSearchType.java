@@ -0,0 +1,15 @@
+package tsp.genetic.localsearch;
+
+/**
+ * enum that represents local search heuristics
+ * that can be applied to children
+ */
+public enum LocalSearchType {
+
+    TWO_OPT, // 2-opt, reverses a sub-route
+    OR_OPT, // Or-opt, relocates a segment of 1 to 3 locations
+    OR_THREE_OPT, // restricted 3-opt, exchanges two adjacent segments without reversing them
+    VND, // variable neighborhood descent over 2-opt, Or-opt and Or-3opt
+    LIN_KERNIGHAN // Lin-Kernighan style variable depth search of sequential 2-opt moves
+
+}
@@ -0,0 +1,151 @@
+package tsp.genetic.localsearch;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.distance.OnTheFlyDistances;
+
+/**
+ * class that keeps candidate neighbor lists used by local search.
+ * For each location the {@code k} nearest other locations are kept
+ * sorted by increasing distance in a single flat array so that
+ * local search only tries moves creating an edge to one of them.
+ * Lists of different locations are built in parallel on common
+ * ForkJoinPool
+ */
+public class NeighborLists {
+
+    private static final long MIN_TASK_DISTANCES = 1 << 16; // tasks looking up fewer distances are not split
+
+    private int size; // number of locations
+    private int neighborCount; // number of neighbors kept for each location
+    private int[] neighbors; // neighbors of location i are at [i * neighborCount, (i + 1) * neighborCount)
+
+    /**
+     * constructor that builds k nearest neighbor lists from coordinates,
+     * distances of all pairs are computed once and not kept, so a lazily
+     * filled distance backend is not filled by building the lists
+     *
+     * @param xs     X coordinates of locations
+     * @param ys     Y coordinates of locations
+     * @param metric distance metric of problem instance
+     * @param k      number of neighbors to be kept for each location,
+     *               limited to number of locations - 1
+     */
+    public NeighborLists(double[] xs, double[] ys, DistanceMetric metric, int k) {
+        this(new OnTheFlyDistances(xs, ys, metric), k);
+    }
+
+    /**
+     * constructor that builds k nearest neighbor lists
+     *
+     * @param distances DistanceProvider object of problem instance
+     * @param k         number of neighbors to be kept for each location,
+     *                  limited to number of locations - 1
+     */
+    public NeighborLists(DistanceProvider distances, int k) {
+        this.size = distances.size();
+        this.neighborCount = Math.max(0, Math.min(k, size - 1));
+        this.neighbors = new int[size * neighborCount];
+
+        if (neighborCount == 0) {
+            return;
+        }
+
+        if (ForkJoinPool.getCommonPoolParallelism() < 2 || (long) size * size <= MIN_TASK_DISTANCES) {
+            findNeighbors(distances, 0, size);
+        }
+
+        else {
+            ForkJoinPool.commonPool().invoke(new BuildTask(distances, 0, size));
+        }
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getNeighborCount() {
+        return this.neighborCount;
+    }
+
+    /**
+     * method to get {@code rank}-th nearest neighbor of a location
+     *
+     * @param loc  index of location
+     * @param rank 0-based rank of neighbor, 0 being the nearest
+     * @return index of neighbor location
+     */
+    public int getNeighbor(int loc, int rank) {
+        return neighbors[loc * neighborCount + rank];
+    }
+
+    /**
+     * method to fill neighbor lists of locations {@code fromLoc}
+     * (inclusive) to {@code toLoc} (exclusive) by scanning distances
+     * to all other locations
+     */
+    private void findNeighbors(DistanceProvider distances, int fromLoc, int toLoc) {
+        double[] nearestDistances = new double[neighborCount];
+        for (int i = fromLoc; i < toLoc; i++) {
+            int offset = i * neighborCount;
+            int found = 0;
+
+            for (int j = 0; j < size; j++) {
+                if (j == i) {
+                    continue;
+                }
+
+                double distance = distances.distance(i, j);
+                if (found == neighborCount && distance >= nearestDistances[found - 1]) {
+                    continue;
+                }
+
+                // insertion into sorted list of nearest locations found so far
+                int insertIndex = (found < neighborCount) ? found++ : found - 1;
+                while (insertIndex > 0 && nearestDistances[insertIndex - 1] > distance) {
+                    nearestDistances[insertIndex] = nearestDistances[insertIndex - 1];
+                    neighbors[offset + insertIndex] = neighbors[offset + insertIndex - 1];
+                    insertIndex--;
+                }
+
+                nearestDistances[insertIndex] = distance;
+                neighbors[offset + insertIndex] = j;
+            }
+        }
+    }
+
+    /**
+     * class that builds neighbor lists of a range of locations,
+     * ranges are halved until each task looks up few enough distances
+     */
+    private class BuildTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient DistanceProvider distances; // distances of problem instance, tasks are never serialized
+        private final int fromLoc; // first location of range
+        private final int toLoc; // location after last location of range
+
+        private BuildTask(DistanceProvider distances, int fromLoc, int toLoc) {
+            this.distances = distances;
+            this.fromLoc = fromLoc;
+            this.toLoc = toLoc;
+        }
+
+        @Override
+        protected void compute() {
+            if (toLoc - fromLoc < 2 || (long) (toLoc - fromLoc) * size <= MIN_TASK_DISTANCES) {
+                findNeighbors(distances, fromLoc, toLoc);
+                return;
+            }
+
+            int mid = (fromLoc + toLoc) >>> 1;
+            invokeAll(new BuildTask(distances, fromLoc, mid), new BuildTask(distances, mid, toLoc));
+        }
+
+    }
+
+}
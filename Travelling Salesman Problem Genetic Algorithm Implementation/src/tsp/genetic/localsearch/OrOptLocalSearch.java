@@ -0,0 +1,195 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements first-improvement Or-opt heuristic
+ * local search. Each move removes a segment of 1 to 3 consecutive
+ * locations from the route, closes the gap and inserts the segment,
+ * possibly reversed, between two other adjacent locations. Its effect
+ * on total distance is computed in O(1) from the six affected locations.
+ * Only insertions creating an edge between an end of the segment and one
+ * of its candidate neighbors are tried and locations are processed with
+ * don't-look bits. Without neighbor lists all locations are candidates,
+ * which is only practical for small instances. Scratch buffers are kept
+ * per thread, so one instance can be used by several threads concurrently
+ */
+public class OrOptLocalSearch implements LocalSearch {
+
+    private static final double EPSILON = 1e-9; // minimum gain for a move to count as improvement
+    private static final int MAX_SEGMENT_LENGTH = 3; // number of locations of longest segment relocated
+
+    private DistanceProvider distances;
+    private NeighborLists neighborLists; // candidate neighbors, null means all locations
+    private ThreadLocal<SearchState> searchStates; // scratch buffers of search per thread
+
+    public OrOptLocalSearch(DistanceProvider distances, NeighborLists neighborLists) {
+        this.distances = distances;
+        this.neighborLists = neighborLists;
+        this.searchStates = ThreadLocal.withInitial(SearchState::new);
+    }
+
+    public NeighborLists getNeighborLists() {
+        return this.neighborLists;
+    }
+
+    /**
+     * method to apply Or-opt local search to {@code chr} in place.
+     * For each queued location segments starting or ending at it are
+     * tried, a segment s1..s2 between p and n is moved between locations
+     * c and d, replacing edges (p, s1), (s2, n) and (c, d) with (p, n)
+     * and edges connecting the segment ends to c and d
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @param stopCondition   checked periodically between moves, search
+     *                        returns once it is true
+     * @return number of improving moves applied
+     */
+    @Override
+    public int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        int size = chr.getLocOrder().length;
+        if (size < 5) {
+            return 0;
+        }
+
+        SearchState state = searchStates.get();
+        state.load(chr.getLocOrder(), stopCondition);
+        Tour tour = state.tour;
+        double totalDistance = chr.getTourLength();
+        int numberOfImprovements = 0;
+        int maxSegmentLength = Math.min(MAX_SEGMENT_LENGTH, size - 3);
+
+        searchLoop: while (!state.isDone()) {
+            int loc = state.poll();
+
+            for (int length = 1; length <= maxSegmentLength; length++) {
+                // segment starting at loc, then segment ending at loc
+                for (int direction = 0; direction < 2; direction++) {
+                    if (length == 1 && direction == 1) {
+                        break;
+                    }
+
+                    int s1 = loc;
+                    int s2 = loc;
+                    for (int i = 1; i < length; i++) {
+                        if (direction == 0) {
+                            s2 = tour.next(s2);
+                        }
+
+                        else {
+                            s1 = tour.prev(s1);
+                        }
+                    }
+
+                    double delta = applyFirstImprovingMove(state, s1, s2);
+                    if (delta < -EPSILON) {
+                        totalDistance += delta;
+                        numberOfImprovements++;
+
+                        if (numberOfImprovements == maxImprovements) {
+                            break searchLoop;
+                        }
+
+                        continue searchLoop;
+                    }
+                }
+            }
+        }
+
+        state.clear();
+
+        if (numberOfImprovements > 0) {
+            chr.setTourLength(totalDistance);
+            chr.updateTourHash(tour.hashDelta());
+        }
+
+        return numberOfImprovements;
+    }
+
+    /**
+     * method to find and apply first improving insertion of
+     * segment s1..s2, given in forward order. Don't-look bits of
+     * end points of changed edges are turned off
+     *
+     * @return change of tour length, 0 if no improving move is found
+     */
+    private double applyFirstImprovingMove(SearchState state, int s1, int s2) {
+        Tour tour = state.tour;
+        int p = tour.prev(s1);
+        int n = tour.next(s2);
+        double removalGain = distance(p, s1) + distance(s2, n) - distance(p, n);
+        if (removalGain <= EPSILON) {
+            return 0.0;
+        }
+
+        int candidateCount = (neighborLists != null) ? neighborLists.getNeighborCount() : tour.size();
+        // try both ends of segment, end is connected to candidate c
+        for (int end = 0; end < 2; end++) {
+            int segmentEnd = (end == 0) ? s1 : s2;
+            int otherEnd = (end == 0) ? s2 : s1;
+
+            for (int rank = 0; rank < candidateCount; rank++) {
+                int c = (neighborLists != null) ? neighborLists.getNeighbor(segmentEnd, rank) : rank;
+                double addedEdge1 = distance(segmentEnd, c);
+                if (addedEdge1 >= removalGain) {
+                    // neighbors are sorted, no further neighbor can give a gain
+                    if (neighborLists != null) {
+                        break;
+                    }
+                    continue;
+                }
+
+                if (tour.between(s1, c, s2)) {
+                    continue;
+                }
+
+                // insert between c and its successor or its predecessor
+                for (int side = 0; side < 2; side++) {
+                    int d = (side == 0) ? tour.next(c) : tour.prev(c);
+                    if (tour.between(s1, d, s2)) {
+                        continue;
+                    }
+
+                    double delta = addedEdge1 + distance(otherEnd, d) - distance(c, d) - removalGain;
+                    if (delta < -EPSILON) {
+                        // insertion edge in forward order, segment keeps its
+                        // orientation if s1 is connected to the first location
+                        int x = (side == 0) ? c : d;
+                        int y = (side == 0) ? d : c;
+                        boolean reverse = (segmentEnd == s1) != (side == 0);
+                        tour.segmentExchangeMove(p, s1, s2, n, x, y, reverse);
+
+                        // turn off don't-look bits of end points of changed edges
+                        state.activate(p);
+                        state.activate(n);
+                        state.activate(s1);
+                        state.activate(s2);
+                        state.activate(c);
+                        state.activate(d);
+                        return delta;
+                    }
+                }
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * helper method to look up distance between two locations
+     *
+     * @param loc1 index of first location
+     * @param loc2 index of second location
+     * @return distance between loc1 and loc2
+     */
+    private double distance(int loc1, int loc2) {
+        return distances.distance(loc1, loc2);
+    }
+
+}
@@ -0,0 +1,181 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements first-improvement restricted 3-opt
+ * (Or-3opt) heuristic local search. Each move removes three edges
+ * of the route and exchanges the two segments in between without
+ * reversing them, which relocates segments of any length. Its effect on
+ * total distance is computed in O(1) from the six affected locations.
+ * Moves are built sequentially, each added edge connects a location to
+ * one of its candidate neighbors and must be shorter than the gain so far,
+ * locations are processed with don't-look bits. Without neighbor lists all
+ * locations are candidates, which is only practical for small instances.
+ * Scratch buffers are kept per thread, so one instance can be used
+ * by several threads concurrently
+ */
+public class OrThreeOptLocalSearch implements LocalSearch {
+
+    private static final double EPSILON = 1e-9; // minimum gain for a move to count as improvement
+
+    private DistanceProvider distances;
+    private NeighborLists neighborLists; // candidate neighbors, null means all locations
+    private ThreadLocal<SearchState> searchStates; // scratch buffers of search per thread
+
+    public OrThreeOptLocalSearch(DistanceProvider distances, NeighborLists neighborLists) {
+        this.distances = distances;
+        this.neighborLists = neighborLists;
+        this.searchStates = ThreadLocal.withInitial(SearchState::new);
+    }
+
+    public NeighborLists getNeighborLists() {
+        return this.neighborLists;
+    }
+
+    /**
+     * method to apply Or-3opt local search to {@code chr} in place.
+     * For route a -> b .. c -> d .. e -> f the move removes edges
+     * (a, b), (c, d) and (e, f) and adds edges (a, d), (e, b) and (c, f),
+     * giving a -> d .. e -> b .. c -> f. Each queued location is tried as
+     * a in both directions of the route, e is a candidate neighbor of b
+     * and c is a candidate neighbor of f
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @param stopCondition   checked periodically between moves, search
+     *                        returns once it is true
+     * @return number of improving moves applied
+     */
+    @Override
+    public int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        if (chr.getLocOrder().length < 5) {
+            return 0;
+        }
+
+        SearchState state = searchStates.get();
+        state.load(chr.getLocOrder(), stopCondition);
+        double totalDistance = chr.getTourLength();
+        int numberOfImprovements = 0;
+
+        searchLoop: while (!state.isDone()) {
+            int a = state.poll();
+
+            // try route forward from a, then backward
+            for (int direction = 0; direction < 2; direction++) {
+                double delta = applyFirstImprovingMove(state, a, direction == 0);
+                if (delta < -EPSILON) {
+                    totalDistance += delta;
+                    numberOfImprovements++;
+
+                    if (numberOfImprovements == maxImprovements) {
+                        break searchLoop;
+                    }
+
+                    continue searchLoop;
+                }
+            }
+        }
+
+        state.clear();
+
+        if (numberOfImprovements > 0) {
+            chr.setTourLength(totalDistance);
+            chr.updateTourHash(state.tour.hashDelta());
+        }
+
+        return numberOfImprovements;
+    }
+
+    /**
+     * method to find and apply first improving move starting at
+     * location {@code a}. Don't-look bits of end points of changed
+     * edges are turned off
+     *
+     * @param forward whether route is followed forward from a
+     * @return change of tour length, 0 if no improving move is found
+     */
+    private double applyFirstImprovingMove(SearchState state, int a, boolean forward) {
+        Tour tour = state.tour;
+        int b = forward ? tour.next(a) : tour.prev(a);
+        double removedEdge1 = distance(a, b);
+        int candidateCount = (neighborLists != null) ? neighborLists.getNeighborCount() : tour.size();
+
+        for (int rank1 = 0; rank1 < candidateCount; rank1++) {
+            int e = (neighborLists != null) ? neighborLists.getNeighbor(b, rank1) : rank1;
+            double addedEdge1 = distance(b, e);
+            if (addedEdge1 >= removedEdge1) {
+                // neighbors are sorted, no further neighbor can give a gain
+                if (neighborLists != null) {
+                    break;
+                }
+                continue;
+            }
+
+            if (e == a || e == b) {
+                continue;
+            }
+
+            int f = forward ? tour.next(e) : tour.prev(e);
+            double gain = removedEdge1 - addedEdge1 + distance(e, f);
+
+            for (int rank2 = 0; rank2 < candidateCount; rank2++) {
+                int c = (neighborLists != null) ? neighborLists.getNeighbor(f, rank2) : rank2;
+                double addedEdge2 = distance(f, c);
+                if (addedEdge2 >= gain) {
+                    if (neighborLists != null) {
+                        break;
+                    }
+                    continue;
+                }
+
+                // c must lie on the path from b up to the location before e
+                if (c == e || !(forward ? tour.between(b, c, e) : tour.between(e, c, b))) {
+                    continue;
+                }
+
+                int d = forward ? tour.next(c) : tour.prev(c);
+                double delta = distance(a, d) + addedEdge1 + addedEdge2
+                        - removedEdge1 - distance(c, d) - distance(e, f);
+                if (delta < -EPSILON) {
+                    // move is given to the tour in forward order
+                    if (forward) {
+                        tour.segmentExchangeMove(a, b, c, d, e, f, false);
+                    }
+
+                    else {
+                        tour.segmentExchangeMove(f, e, d, c, b, a, false);
+                    }
+
+                    // turn off don't-look bits of end points of changed edges
+                    state.activate(a);
+                    state.activate(b);
+                    state.activate(c);
+                    state.activate(d);
+                    state.activate(e);
+                    state.activate(f);
+                    return delta;
+                }
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * helper method to look up distance between two locations
+     *
+     * @param loc1 index of first location
+     * @param loc2 index of second location
+     * @return distance between loc1 and loc2
+     */
+    private double distance(int loc1, int loc2) {
+        return distances.distance(loc1, loc2);
+    }
+
+}
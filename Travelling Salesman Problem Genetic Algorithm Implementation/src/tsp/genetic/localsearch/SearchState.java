@@ -0,0 +1,123 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * class that keeps scratch buffers of neighbor list search
+ * for a single thread, tour structure and queue of locations whose
+ * don't-look bit is off. Small routes are kept in an array tour, large
+ * ones in a two-level list tour whose 2-opt moves take O(sqrt(n)) time,
+ * the size from which on two-level list is used can be changed via
+ * {@code tsp.twoLevelListSize} system property
+ */
+class SearchState {
+
+    private static final String TWO_LEVEL_LIST_SIZE_PROPERTY = "tsp.twoLevelListSize"; // overrides size below
+    // routes with at least this many locations use two-level list
+    private static final int TWO_LEVEL_LIST_SIZE = Integer.getInteger(TWO_LEVEL_LIST_SIZE_PROPERTY, 20000);
+    private static final int STOP_CHECK_INTERVAL = 64; // checks of search being done between stop condition checks
+
+    Tour tour; // tour structure of loaded route
+    private ArrayTour arrayTour; // tour structure of small routes, created on first use
+    private TwoLevelListTour twoLevelListTour; // tour structure of large routes, created on first use
+    private int[] activeLocs = new int[0]; // circular queue of locations whose don't-look bit is off
+    private boolean[] active = new boolean[0]; // active[loc] is true if loc is in queue
+    private int queueHead; // index of first location in activeLocs
+    private int queueSize; // number of locations in activeLocs
+    private int size; // number of locations in route
+    private BooleanSupplier stopCondition = LocalSearch.NEVER_STOP; // stop condition of current search
+    private int doneChecks; // number of checks of search being done since route was loaded
+
+    /**
+     * method to load {@code locOrders} and queue all of
+     * its locations in route order
+     *
+     * @param locOrders     route to be improved
+     * @param stopCondition condition stopping search early
+     */
+    void load(int[] locOrders, BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+        this.doneChecks = 0;
+        size = locOrders.length;
+        if (size >= TWO_LEVEL_LIST_SIZE) {
+            if (twoLevelListTour == null) {
+                twoLevelListTour = new TwoLevelListTour();
+            }
+            tour = twoLevelListTour;
+        }
+
+        else {
+            if (arrayTour == null) {
+                arrayTour = new ArrayTour();
+            }
+            tour = arrayTour;
+        }
+
+        tour.load(locOrders);
+        if (activeLocs.length < size) {
+            activeLocs = new int[size];
+            active = new boolean[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            activeLocs[i] = locOrders[i];
+            active[locOrders[i]] = true;
+        }
+
+        queueHead = 0;
+        queueSize = size;
+    }
+
+    /**
+     * method to check whether search is done, which is when no location
+     * is queued or stop condition is true. Stop condition is checked on
+     * first call and then periodically, as it may be expensive
+     *
+     * @return true if search should not poll another location
+     */
+    boolean isDone() {
+        if (queueSize == 0) {
+            return true;
+        }
+
+        return (doneChecks++ % STOP_CHECK_INTERVAL) == 0 && stopCondition.getAsBoolean();
+    }
+
+    /**
+     * method to remove first location from queue, its
+     * don't-look bit is turned on
+     */
+    int poll() {
+        int loc = activeLocs[queueHead];
+        queueHead = (queueHead + 1 == size) ? 0 : queueHead + 1;
+        queueSize--;
+        active[loc] = false;
+        return loc;
+    }
+
+    /**
+     * method to turn off don't-look bit of {@code loc}
+     * by appending it to queue if it is not already queued
+     */
+    void activate(int loc) {
+        if (!active[loc]) {
+            active[loc] = true;
+            activeLocs[(queueHead + queueSize) % size] = loc;
+            queueSize++;
+        }
+    }
+
+    /**
+     * method to empty queue so that buffers are clean for next call
+     * and write route back to the array it was loaded from
+     */
+    void clear() {
+        while (queueSize > 0) {
+            poll();
+        }
+
+        tour.store();
+        stopCondition = LocalSearch.NEVER_STOP;
+    }
+
+}
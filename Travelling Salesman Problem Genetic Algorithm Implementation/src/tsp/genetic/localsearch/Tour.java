@@ -0,0 +1,79 @@
+package tsp.genetic.localsearch;
+
+/**
+ * interface of tour structures local search works on, giving
+ * successor, predecessor and betweenness queries and 2-opt moves
+ * (flips) on a route loaded from the route array of a Chromosome.
+ * Keys of edges removed and added since loading are accumulated, so
+ * tour hash of the Chromosome can be updated without visiting all edges
+ */
+interface Tour {
+
+    /**
+     * method to start working on {@code locOrders}, the structure
+     * is rebuilt from the route
+     *
+     * @param locOrders route to be improved, it is modified in place or
+     *                  when {@link #store()} is called
+     */
+    void load(int[] locOrders);
+
+    /**
+     * method to write current route back to the array it was loaded
+     * from, orientation and starting location of the route are not
+     * specified
+     */
+    void store();
+
+    int size();
+
+    long hashDelta();
+
+    int next(int loc);
+
+    int prev(int loc);
+
+    /**
+     * method to check whether {@code loc2} is visited when
+     * going forward on the route from {@code loc1} to {@code loc3}
+     *
+     * @return true if loc2 lies on forward path loc1..loc3, both ends inclusive
+     */
+    boolean between(int loc1, int loc2, int loc3);
+
+    /**
+     * method to apply 2-opt move which removes edges (loc1, loc2)
+     * and (loc3, loc4) and adds edges (loc1, loc3) and (loc2, loc4).
+     * Either loc2 and loc4 are successors of loc1 and loc3 or both
+     * are predecessors of them, orientation of the route after the
+     * move is not specified
+     */
+    void twoOptMove(int loc1, int loc2, int loc3, int loc4);
+
+    /**
+     * method to apply segment exchange move on route
+     * a -> b .. c -> d .. e -> f, where each arrow is an edge and all
+     * six locations are given in forward order (or all in backward order).
+     * Edges (a, b), (c, d) and (e, f) are removed and segments b..c and
+     * d..e exchange places, giving a -> d .. e -> b .. c -> f. If
+     * {@code reverseFirst} is true segment b..c is reversed as well,
+     * giving a -> d .. e -> c .. b -> f. The move is applied as a
+     * sequence of 2-opt moves
+     *
+     * @param reverseFirst whether segment b..c is reversed
+     */
+    default void segmentExchangeMove(int a, int b, int c, int d, int e, int f, boolean reverseFirst) {
+        // a -> e .. d -> c .. b -> f
+        twoOptMove(a, b, e, f);
+        // a -> d .. e -> c .. b -> f, nothing to reverse if d..e is a single location
+        if (d != e) {
+            twoOptMove(a, e, d, c);
+        }
+
+        // a -> d .. e -> b .. c -> f
+        if (!reverseFirst && b != c) {
+            twoOptMove(e, c, b, f);
+        }
+    }
+
+}
@@ -0,0 +1,493 @@
+package tsp.genetic.localsearch;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that keeps a route as a two-level doubly-linked list, as
+ * used by LKH. Locations are linked to their neighbors and grouped into
+ * about sqrt(n) consecutive segments, each segment has a reversal bit
+ * telling whether its links and ranks are read backwards. A 2-opt move
+ * splits at most two segments at the ends of the reversed path, reverses
+ * the order of whole segments in between and toggles their reversal bits,
+ * which takes O(sqrt(n)) time instead of O(n). Successor, predecessor and
+ * betweenness queries stay O(1). Segments growing too large because of
+ * splits cause the list to be rebuilt from the current route
+ */
+class TwoLevelListTour implements Tour {
+
+    private static final int MIN_GROUP_SIZE = 8; // minimum number of locations of a segment when list is built
+    private static final int MAX_GROUP_FACTOR = 4; // segments larger than this many group sizes cause a rebuild
+    private static final int RANK_LIMIT = 1 << 30; // ranks beyond this magnitude cause a rebuild
+
+    private int[] locOrders; // route array list is loaded from and stored to
+    private int size; // number of locations in route
+    private long hashDelta; // XOR of keys of edges removed and added since route was loaded
+    private int groupSize; // number of locations of a segment when list is built
+    private int segmentCount; // number of segments
+    private boolean needsRebuild; // whether a segment became too large or a rank too far from zero
+
+    private int[] succ = new int[0]; // successor of a location when its segment is not reversed
+    private int[] pred = new int[0]; // predecessor of a location when its segment is not reversed
+    private int[] rank = new int[0]; // rank of a location in its segment, increasing along succ links
+    private int[] segmentOf = new int[0]; // segment of a location
+    private int[] pathBuffer = new int[0]; // scratch buffer keeping locations of a path
+
+    private int[] firstLoc = new int[0]; // location with smallest rank of a segment
+    private int[] lastLoc = new int[0]; // location with largest rank of a segment
+    private boolean[] reversed = new boolean[0]; // reversal bit of a segment
+    private int[] segmentSize = new int[0]; // number of locations of a segment
+    private int[] nextSegment = new int[0]; // segment following a segment on route
+    private int[] prevSegment = new int[0]; // segment preceding a segment on route
+    private int[] segmentRank = new int[0]; // position of a segment on route
+    private int[] segmentBuffer = new int[0]; // scratch buffer keeping segments of a path
+
+    /**
+     * method to start working on {@code locOrders}, segments are
+     * built from consecutive locations of the route
+     *
+     * @param locOrders route to be improved, written back by {@link #store()}
+     */
+    @Override
+    public void load(int[] locOrders) {
+        this.locOrders = locOrders;
+        this.size = locOrders.length;
+        this.hashDelta = 0L;
+        // at least two segments so that a split always has a neighbor segment to move locations to
+        this.groupSize = Math.max(1, Math.min(Math.max(MIN_GROUP_SIZE, (int) Math.sqrt(size)), size / 2));
+        int maxSegments = (size + groupSize - 1) / groupSize;
+
+        if (succ.length < size) {
+            succ = new int[size];
+            pred = new int[size];
+            rank = new int[size];
+            segmentOf = new int[size];
+            pathBuffer = new int[size];
+        }
+
+        if (firstLoc.length < maxSegments) {
+            firstLoc = new int[maxSegments];
+            lastLoc = new int[maxSegments];
+            reversed = new boolean[maxSegments];
+            segmentSize = new int[maxSegments];
+            nextSegment = new int[maxSegments];
+            prevSegment = new int[maxSegments];
+            segmentRank = new int[maxSegments];
+            segmentBuffer = new int[maxSegments];
+        }
+
+        build(locOrders);
+    }
+
+    /**
+     * method to write route back to the array it was loaded from,
+     * starting at the location the loaded route started at
+     */
+    @Override
+    public void store() {
+        if (size == 0) {
+            return;
+        }
+
+        int start = locOrders[0];
+        int loc = start;
+        for (int i = 0; i < size; i++) {
+            locOrders[i] = loc;
+            loc = next(loc);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public long hashDelta() {
+        return this.hashDelta;
+    }
+
+    @Override
+    public int next(int loc) {
+        return reversed[segmentOf[loc]] ? pred[loc] : succ[loc];
+    }
+
+    @Override
+    public int prev(int loc) {
+        return reversed[segmentOf[loc]] ? succ[loc] : pred[loc];
+    }
+
+    @Override
+    public boolean between(int loc1, int loc2, int loc3) {
+        if (compare(loc1, loc3) <= 0) {
+            return compare(loc1, loc2) <= 0 && compare(loc2, loc3) <= 0;
+        }
+
+        return compare(loc2, loc1) >= 0 || compare(loc2, loc3) <= 0;
+    }
+
+    @Override
+    public void twoOptMove(int loc1, int loc2, int loc3, int loc4) {
+        hashDelta ^= Chromosome.edgeKey(loc1, loc2) ^ Chromosome.edgeKey(loc3, loc4) ^ Chromosome.edgeKey(loc1, loc3)
+                ^ Chromosome.edgeKey(loc2, loc4);
+        if (next(loc1) == loc2) {
+            reversePath(loc2, loc3);
+        }
+
+        else {
+            reversePath(loc1, loc4);
+        }
+
+        if (needsRebuild) {
+            rebuild();
+        }
+    }
+
+    /**
+     * method to reverse forward path from {@code from} to {@code to}.
+     * A path lying inside a single segment (or whose complement does)
+     * is reversed location by location, otherwise segments are split so
+     * that both ends of the path are ends of segments and whichever of
+     * the path and its complement has fewer segments is reversed
+     */
+    private void reversePath(int from, int to) {
+        int before = prev(from);
+        int after = next(to);
+        // path covering the whole route, reversing it keeps the cycle
+        if (before == to) {
+            return;
+        }
+
+        if (reverseInsideSegment(from, to, before, after)) {
+            return;
+        }
+
+        splitBefore(from);
+        // splitting may have moved both ends of a path into the same segment
+        if (reverseInsideSegment(from, to, before, after)) {
+            return;
+        }
+
+        splitBefore(after);
+
+        int firstSegment = segmentOf[from];
+        int lastSegment = segmentOf[to];
+        int pathSegments = segmentRank[lastSegment] - segmentRank[firstSegment];
+        if (pathSegments < 0) {
+            pathSegments += segmentCount;
+        }
+        pathSegments++;
+
+        if (2 * pathSegments > segmentCount) {
+            reverseSegments(segmentOf[after], segmentOf[before]);
+        }
+
+        else {
+            reverseSegments(firstSegment, lastSegment);
+        }
+    }
+
+    /**
+     * method to reverse path {@code from}..{@code to} or its complement
+     * {@code after}..{@code before} location by location if it lies inside
+     * a single segment
+     *
+     * @return true if path or its complement was reversed
+     */
+    private boolean reverseInsideSegment(int from, int to, int before, int after) {
+        if (segmentOf[from] == segmentOf[to] && orientedRank(from) <= orientedRank(to)) {
+            reverseLocations(from, to);
+            return true;
+        }
+
+        if (segmentOf[after] == segmentOf[before] && orientedRank(after) <= orientedRank(before)) {
+            reverseLocations(after, before);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * method to reverse forward path from {@code from} to {@code to}
+     * lying inside a single segment by reassigning ranks and links of
+     * its locations, which takes time linear in length of the path
+     */
+    private void reverseLocations(int from, int to) {
+        int segment = segmentOf[from];
+        int before = prev(from);
+        int after = next(to);
+        boolean fromIsFirst = tourFirst(segment) == from;
+        boolean toIsLast = tourLast(segment) == to;
+
+        int count = 0;
+        for (int loc = from; loc != after; loc = next(loc)) {
+            pathBuffer[count++] = loc;
+        }
+
+        // new order is before, to .. from, after and keeps the ranks of the path
+        int firstRank = orientedRank(from);
+        for (int i = 0; i < count; i++) {
+            int loc = pathBuffer[count - 1 - i];
+            setOrientedRank(loc, segment, firstRank + i);
+            setPrev(loc, (i == 0) ? before : pathBuffer[count - i]);
+            setNext(loc, (i == count - 1) ? after : pathBuffer[count - 2 - i]);
+        }
+        setNext(before, to);
+        setPrev(after, from);
+
+        if (fromIsFirst) {
+            setTourFirst(segment, to);
+        }
+
+        if (toIsLast) {
+            setTourLast(segment, from);
+        }
+    }
+
+    /**
+     * method to split segment of {@code loc} so that loc becomes its
+     * first location on route. The smaller part is moved to the end of
+     * the preceding segment or to the start of the following segment
+     */
+    private void splitBefore(int loc) {
+        int segment = segmentOf[loc];
+        int first = tourFirst(segment);
+        if (first == loc) {
+            return;
+        }
+
+        int frontSize = orientedRank(loc) - orientedRank(first);
+        if (2 * frontSize <= segmentSize[segment]) {
+            int target = prevSegment[segment];
+            int moved = first;
+            while (moved != loc) {
+                int following = next(moved);
+                moveToEnd(moved, target);
+                moved = following;
+            }
+            setTourFirst(segment, loc);
+        }
+
+        else {
+            int target = nextSegment[segment];
+            int newLast = prev(loc);
+            int moved = tourLast(segment);
+            while (true) {
+                int preceding = prev(moved);
+                moveToStart(moved, target);
+                if (moved == loc) {
+                    break;
+                }
+                moved = preceding;
+            }
+            setTourLast(segment, newLast);
+        }
+    }
+
+    /**
+     * method to move {@code loc} from the start of its segment
+     * to the end of {@code target} segment, keeping route unchanged
+     */
+    private void moveToEnd(int loc, int target) {
+        int following = next(loc);
+        int preceding = prev(loc);
+        segmentSize[segmentOf[loc]]--;
+
+        int newRank = orientedRank(tourLast(target)) + 1;
+        segmentOf[loc] = target;
+        setOrientedRank(loc, target, newRank);
+        setTourLast(target, loc);
+        segmentSize[target]++;
+        setNext(loc, following);
+        setPrev(loc, preceding);
+        checkBalance(target, newRank);
+    }
+
+    /**
+     * method to move {@code loc} from the end of its segment to
+     * the start of {@code target} segment, keeping route unchanged
+     */
+    private void moveToStart(int loc, int target) {
+        int following = next(loc);
+        int preceding = prev(loc);
+        segmentSize[segmentOf[loc]]--;
+
+        int newRank = orientedRank(tourFirst(target)) - 1;
+        segmentOf[loc] = target;
+        setOrientedRank(loc, target, newRank);
+        setTourFirst(target, loc);
+        segmentSize[target]++;
+        setNext(loc, following);
+        setPrev(loc, preceding);
+        checkBalance(target, newRank);
+    }
+
+    /**
+     * method to reverse whole segments from {@code firstSegment} to
+     * {@code lastSegment} on route, order of the segments is reversed
+     * and their reversal bits are toggled, so links inside and between
+     * them stay valid and only the links to the route outside change
+     */
+    private void reverseSegments(int firstSegment, int lastSegment) {
+        int outerPrev = prevSegment[firstSegment];
+        int outerNext = nextSegment[lastSegment];
+        int first = tourFirst(firstSegment);
+        int last = tourLast(lastSegment);
+        int before = prev(first);
+        int after = next(last);
+
+        int count = 0;
+        for (int segment = firstSegment; segment != outerNext; segment = nextSegment[segment]) {
+            segmentBuffer[count++] = segment;
+        }
+
+        int firstRank = segmentRank[firstSegment];
+        for (int i = 0; i < count; i++) {
+            int segment = segmentBuffer[count - 1 - i];
+            reversed[segment] = !reversed[segment];
+            segmentRank[segment] = (firstRank + i) % segmentCount;
+            prevSegment[segment] = (i == 0) ? outerPrev : segmentBuffer[count - i];
+            nextSegment[segment] = (i == count - 1) ? outerNext : segmentBuffer[count - 2 - i];
+        }
+        nextSegment[outerPrev] = lastSegment;
+        prevSegment[outerNext] = firstSegment;
+
+        // new order is before, last .. first, after
+        setNext(before, last);
+        setPrev(last, before);
+        setNext(first, after);
+        setPrev(after, first);
+    }
+
+    /**
+     * method to build segments of {@code groupSize} consecutive
+     * locations of {@code order}, none of them reversed
+     */
+    private void build(int[] order) {
+        segmentCount = (size + groupSize - 1) / groupSize;
+        needsRebuild = false;
+
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int start = segment * groupSize;
+            int end = Math.min(start + groupSize, size);
+            firstLoc[segment] = order[start];
+            lastLoc[segment] = order[end - 1];
+            reversed[segment] = false;
+            segmentSize[segment] = end - start;
+            nextSegment[segment] = (segment + 1 == segmentCount) ? 0 : segment + 1;
+            prevSegment[segment] = (segment == 0) ? segmentCount - 1 : segment - 1;
+            segmentRank[segment] = segment;
+
+            for (int i = start; i < end; i++) {
+                segmentOf[order[i]] = segment;
+                rank[order[i]] = i - start;
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            succ[order[i]] = order[(i + 1 == size) ? 0 : i + 1];
+            pred[order[i]] = order[(i == 0) ? size - 1 : i - 1];
+        }
+    }
+
+    /**
+     * method to rebuild segments from current route, so that all
+     * segments have group size again
+     */
+    private void rebuild() {
+        int loc = locOrders[0];
+        for (int i = 0; i < size; i++) {
+            pathBuffer[i] = loc;
+            loc = next(loc);
+        }
+
+        build(pathBuffer);
+    }
+
+    /**
+     * method to request a rebuild if {@code segment} became too large
+     * or {@code newRank} too far from zero
+     */
+    private void checkBalance(int segment, int newRank) {
+        if (segmentSize[segment] > MAX_GROUP_FACTOR * groupSize || Math.abs(newRank) > RANK_LIMIT) {
+            needsRebuild = true;
+        }
+    }
+
+    /**
+     * method to compare positions of two locations on route,
+     * starting from the segment with position 0
+     *
+     * @return negative if loc1 comes before loc2, 0 if they are the same
+     *         location and positive otherwise
+     */
+    private int compare(int loc1, int loc2) {
+        int segment1 = segmentOf[loc1];
+        int segment2 = segmentOf[loc2];
+        if (segment1 != segment2) {
+            return Integer.compare(segmentRank[segment1], segmentRank[segment2]);
+        }
+
+        return Integer.compare(orientedRank(loc1), orientedRank(loc2));
+    }
+
+    /**
+     * method to get rank of {@code loc} increasing along route
+     */
+    private int orientedRank(int loc) {
+        return reversed[segmentOf[loc]] ? -rank[loc] : rank[loc];
+    }
+
+    private void setOrientedRank(int loc, int segment, int orientedRank) {
+        rank[loc] = reversed[segment] ? -orientedRank : orientedRank;
+    }
+
+    private void setNext(int loc, int next) {
+        if (reversed[segmentOf[loc]]) {
+            pred[loc] = next;
+        }
+
+        else {
+            succ[loc] = next;
+        }
+    }
+
+    private void setPrev(int loc, int prev) {
+        if (reversed[segmentOf[loc]]) {
+            succ[loc] = prev;
+        }
+
+        else {
+            pred[loc] = prev;
+        }
+    }
+
+    private int tourFirst(int segment) {
+        return reversed[segment] ? lastLoc[segment] : firstLoc[segment];
+    }
+
+    private int tourLast(int segment) {
+        return reversed[segment] ? firstLoc[segment] : lastLoc[segment];
+    }
+
+    private void setTourFirst(int segment, int loc) {
+        if (reversed[segment]) {
+            lastLoc[segment] = loc;
+        }
+
+        else {
+            firstLoc[segment] = loc;
+        }
+    }
+
+    private void setTourLast(int segment, int loc) {
+        if (reversed[segment]) {
+            firstLoc[segment] = loc;
+        }
+
+        else {
+            lastLoc[segment] = loc;
+        }
+    }
+
+}
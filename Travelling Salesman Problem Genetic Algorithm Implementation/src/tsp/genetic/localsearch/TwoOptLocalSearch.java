@@ -0,0 +1,240 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.distance.DistanceProvider;
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements first-improvement 2-opt heuristic
+ * local search. Each candidate move replaces two edges of the
+ * route with two new edges, so its effect on total distance is
+ * computed in O(1) from the four affected locations and the
+ * sub-route is reversed in place only when the move is accepted.
+ * When candidate neighbor lists are provided, only moves creating an
+ * edge to one of the neighbors are tried and locations are processed
+ * with don't-look bits, otherwise all position pairs are scanned.
+ * Scratch buffers are kept per thread, so one instance can be used
+ * by several threads concurrently
+ */
+public class TwoOptLocalSearch implements LocalSearch {
+
+    private static final double EPSILON = 1e-9; // minimum gain for a move to count as improvement
+
+    private DistanceProvider distances;
+    private NeighborLists neighborLists; // candidate neighbors, null means full scan
+    private ThreadLocal<SearchState> searchStates; // scratch buffers of neighbor list search per thread
+
+    public TwoOptLocalSearch(DistanceProvider distances) {
+        this(distances, null);
+    }
+
+    public TwoOptLocalSearch(DistanceProvider distances, NeighborLists neighborLists) {
+        this.distances = distances;
+        this.neighborLists = neighborLists;
+        this.searchStates = ThreadLocal.withInitial(SearchState::new);
+    }
+
+    public NeighborLists getNeighborLists() {
+        return this.neighborLists;
+    }
+
+    /**
+     * method to apply 2-opt local search to {@code chr} in place.
+     * For positions i < j the move removes edges (route[i], route[i + 1])
+     * and (route[j], route[j + 1]), adds edges (route[i], route[j]) and
+     * (route[i + 1], route[j + 1]) and reverses the sub-route in between.
+     * Search stops when no improving move exists, improvement budget is used up
+     * or stop condition is true
+     *
+     * @param chr             Chromosome whose route to be improved, its tour
+     *                        length must already be known
+     * @param maxImprovements improvement budget, 0 or less means run until
+     *                        local optimum is reached
+     * @param stopCondition   checked periodically between moves, search
+     *                        returns once it is true
+     * @return number of improving moves applied
+     */
+    @Override
+    public int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        if (chr.getLocOrder().length < 4) {
+            return 0;
+        }
+
+        return (neighborLists != null) ? improveWithNeighborLists(chr, maxImprovements, stopCondition)
+                : improveWithFullScan(chr, maxImprovements, stopCondition);
+    }
+
+    /**
+     * method to apply 2-opt local search scanning all position pairs
+     *
+     * @param chr             Chromosome whose route to be improved
+     * @param maxImprovements improvement budget
+     * @param stopCondition   checked before each scan of a position
+     * @return number of improving moves applied
+     */
+    private int improveWithFullScan(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        int[] locOrders = chr.getLocOrder();
+        int size = locOrders.length;
+
+        double totalDistance = chr.getTourLength();
+        long hashDelta = 0L; // XOR of keys of edges removed and added
+        int numberOfImprovements = 0;
+        boolean improvedFitness = true;
+
+        fitnessLoop: while (improvedFitness) {
+            improvedFitness = false;
+
+            for (int i = 0; i < size - 2; i++) {
+                // each position scans O(n) moves, so stop condition is cheap in comparison
+                if (stopCondition.getAsBoolean()) {
+                    break fitnessLoop;
+                }
+
+                int loc1 = locOrders[i];
+                int loc2 = locOrders[i + 1];
+                double removedEdge1 = distance(loc1, loc2);
+
+                // when i is 0 last position is skipped as its successor is route[0]
+                int lastJ = (i == 0) ? size - 2 : size - 1;
+                for (int j = i + 2; j <= lastJ; j++) {
+                    int loc3 = locOrders[j];
+                    int loc4 = locOrders[(j + 1) % size];
+
+                    double delta = distance(loc1, loc3) + distance(loc2, loc4)
+                            - removedEdge1 - distance(loc3, loc4);
+
+                    if (delta < -EPSILON) {
+                        reverseSubRoute(locOrders, i + 1, j);
+                        totalDistance += delta;
+                        hashDelta ^= Chromosome.edgeKey(loc1, loc2) ^ Chromosome.edgeKey(loc3, loc4)
+                                ^ Chromosome.edgeKey(loc1, loc3) ^ Chromosome.edgeKey(loc2, loc4);
+                        improvedFitness = true;
+                        numberOfImprovements++;
+
+                        // in order to keep the cost of 2-opt local search small
+                        // stop iteration once improvement budget is used up
+                        if (numberOfImprovements == maxImprovements) {
+                            break fitnessLoop;
+                        }
+
+                        // edge starting at position i has changed after reversal
+                        loc2 = locOrders[i + 1];
+                        removedEdge1 = distance(loc1, loc2);
+                    }
+                }
+            }
+        }
+
+        if (numberOfImprovements > 0) {
+            chr.setTourLength(totalDistance);
+            chr.updateTourHash(hashDelta);
+        }
+
+        return numberOfImprovements;
+    }
+
+    /**
+     * method to apply 2-opt local search trying only moves that
+     * add an edge between a location and one of its candidate neighbors.
+     * Each location has a don't-look bit, it is turned off (location is
+     * queued) initially and whenever one of its route edges changes, a location
+     * whose search finds no improving move is not looked at again
+     *
+     * @param chr             Chromosome whose route to be improved
+     * @param maxImprovements improvement budget
+     * @param stopCondition   checked periodically between moves
+     * @return number of improving moves applied
+     */
+    private int improveWithNeighborLists(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        SearchState state = searchStates.get();
+        state.load(chr.getLocOrder(), stopCondition);
+        Tour tour = state.tour;
+        double totalDistance = chr.getTourLength();
+        int numberOfImprovements = 0;
+        int neighborCount = neighborLists.getNeighborCount();
+
+        searchLoop: while (!state.isDone()) {
+            int loc1 = state.poll();
+
+            // try both edges of loc1, first towards its successor then its predecessor
+            for (int direction = 0; direction < 2; direction++) {
+                int loc2 = (direction == 0) ? tour.next(loc1) : tour.prev(loc1);
+                double removedEdge1 = distance(loc1, loc2);
+
+                for (int rank = 0; rank < neighborCount; rank++) {
+                    int loc3 = neighborLists.getNeighbor(loc1, rank);
+                    double addedEdge1 = distance(loc1, loc3);
+                    // neighbors are sorted, no further neighbor can give a gain
+                    if (addedEdge1 >= removedEdge1) {
+                        break;
+                    }
+
+                    int loc4 = (direction == 0) ? tour.next(loc3) : tour.prev(loc3);
+                    if (loc3 == loc2 || loc4 == loc1) {
+                        continue;
+                    }
+
+                    double delta = addedEdge1 + distance(loc2, loc4) - removedEdge1 - distance(loc3, loc4);
+                    if (delta < -EPSILON) {
+                        tour.twoOptMove(loc1, loc2, loc3, loc4);
+                        totalDistance += delta;
+                        numberOfImprovements++;
+
+                        // turn off don't-look bits of end points of changed edges
+                        state.activate(loc1);
+                        state.activate(loc2);
+                        state.activate(loc3);
+                        state.activate(loc4);
+
+                        if (numberOfImprovements == maxImprovements) {
+                            break searchLoop;
+                        }
+
+                        continue searchLoop;
+                    }
+                }
+            }
+        }
+
+        state.clear();
+
+        if (numberOfImprovements > 0) {
+            chr.setTourLength(totalDistance);
+            chr.updateTourHash(tour.hashDelta());
+        }
+
+        return numberOfImprovements;
+    }
+
+    /**
+     * helper method to look up distance between two locations
+     *
+     * @param loc1 index of first location
+     * @param loc2 index of second location
+     * @return distance between loc1 and loc2
+     */
+    private double distance(int loc1, int loc2) {
+        return distances.distance(loc1, loc2);
+    }
+
+    /**
+     * method to reverse the sub-route of {@code locOrders}
+     * between indexes {@code start} and {@code end}
+     * both start and end values inclusive
+     *
+     * @param locOrders route whose sub-route to be reversed in place
+     * @param start     index of first location in sub-route
+     * @param end       index of last location in sub-route
+     */
+    private static void reverseSubRoute(int[] locOrders, int start, int end) {
+        while (start < end) {
+            int temp = locOrders[start];
+            locOrders[start] = locOrders[end];
+            locOrders[end] = temp;
+            start++;
+            end--;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package tsp.genetic.localsearch;
+
+import java.util.function.BooleanSupplier;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that chains local searches as a variable neighborhood
+ * descent. Neighborhoods are ordered from cheapest to most expensive,
+ * each one is applied until it finds no improving move and search
+ * returns to the first neighborhood whenever a later one improves
+ * the route. Search stops when no neighborhood improves the route
+ * or stop condition is true
+ */
+public class VariableNeighborhoodDescent implements LocalSearch {
+
+    private LocalSearch[] neighborhoods; // local searches in order of application
+
+    public VariableNeighborhoodDescent(LocalSearch... neighborhoods) {
+        this.neighborhoods = neighborhoods.clone();
+    }
+
+    @Override
+    public int improve(Chromosome chr, int maxImprovements, BooleanSupplier stopCondition) {
+        int numberOfImprovements = 0;
+        int k = 0;
+
+        while (k < neighborhoods.length && !stopCondition.getAsBoolean()) {
+            // remaining budget is passed on, 0 means no budget
+            int budget = (maxImprovements > 0) ? maxImprovements - numberOfImprovements : 0;
+            int improvements = neighborhoods[k].improve(chr, budget, stopCondition);
+            numberOfImprovements += improvements;
+
+            if (maxImprovements > 0 && numberOfImprovements >= maxImprovements) {
+                break;
+            }
+
+            k = (improvements > 0 && k > 0) ? 0 : k + 1;
+        }
+
+        return numberOfImprovements;
+    }
+
+}
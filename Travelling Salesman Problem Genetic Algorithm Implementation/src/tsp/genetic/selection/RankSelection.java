@@ -0,0 +1,110 @@
+package tsp.genetic.selection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements linear rank selection. Selection
+ * probability of an individual depends only on its rank in population,
+ * best individual gets weight {@code selectionPressure} and worst gets
+ * 2 - selectionPressure. Ranks are computed once per generation in
+ * O(P log P) and each selection is a binary search over prefix sums
+ * of weights, so selecting an individual is O(log P)
+ */
+public class RankSelection implements SelectionStrategy {
+
+    private double selectionPressure; // expected number of selections of best individual, in range 1 to 2
+    private double[] sortedFitnesses; // fitness values sorted in increasing order
+    private double[] cumulativeWeights; // cumulativeWeights[i] is sum of rank weights of individuals 0..i
+    private int size; // number of individuals in prepared population
+
+    public RankSelection(double selectionPressure) {
+        if (selectionPressure < 1.0 || selectionPressure > 2.0) {
+            throw new IllegalArgumentException("Selection pressure must be in range 1 to 2 !!");
+        }
+
+        this.selectionPressure = selectionPressure;
+        this.sortedFitnesses = new double[0];
+        this.cumulativeWeights = new double[0];
+        this.size = 0;
+    }
+
+    public double getSelectionPressure() {
+        return this.selectionPressure;
+    }
+
+    @Override
+    public void prepare(List<Chromosome> population) {
+        size = population.size();
+        if (sortedFitnesses.length < size) {
+            sortedFitnesses = new double[size];
+            cumulativeWeights = new double[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            sortedFitnesses[i] = population.get(i).getFitness();
+        }
+        Arrays.sort(sortedFitnesses, 0, size);
+
+        double totalWeight = 0.0;
+        for (int i = 0; i < size; i++) {
+            // rank 0 is worst individual, individuals having equal fitness share the same rank
+            int rank = lowerBound(sortedFitnesses, size, population.get(i).getFitness());
+            double weight = (size == 1) ? 1.0
+                    : (2 - selectionPressure) + 2 * (selectionPressure - 1) * rank / (size - 1);
+            totalWeight += weight;
+            cumulativeWeights[i] = totalWeight;
+        }
+    }
+
+    @Override
+    public int select(RandomGenerator rng) {
+        double totalWeight = cumulativeWeights[size - 1];
+        // all weights are 0 when selection pressure is 2 and all individuals are equal
+        if (totalWeight <= 0.0) {
+            return rng.nextInt(size);
+        }
+
+        return RouletteWheelSelection.searchCumulative(cumulativeWeights, size, rng.nextDouble(totalWeight));
+    }
+
+    /**
+     * helper method to find first index of {@code value}
+     * in sorted array via binary search
+     *
+     * @param sortedValues values sorted in increasing order
+     * @param size         number of values in use
+     * @param value        value to be searched for
+     * @return index of first value that is not less than value
+     */
+    private static int lowerBound(double[] sortedValues, int size, double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] < value) {
+                low = mid + 1;
+            }
+
+            else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public SelectionStrategy newInstance() {
+        return new RankSelection(selectionPressure);
+    }
+
+    @Override
+    public String toString() {
+        return "RankSelection(selection pressure: " + this.selectionPressure + ")";
+    }
+
+}
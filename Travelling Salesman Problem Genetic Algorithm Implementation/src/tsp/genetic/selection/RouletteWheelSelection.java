@@ -0,0 +1,79 @@
+package tsp.genetic.selection;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements fitness proportional (roulette wheel)
+ * selection. Prefix sums of fitness values are computed once per
+ * generation and each selection is a binary search over them,
+ * so selecting an individual is O(log P)
+ */
+public class RouletteWheelSelection implements SelectionStrategy {
+
+    private double[] cumulativeFitnesses; // cumulativeFitnesses[i] is sum of fitness values of individuals 0..i
+    private int size; // number of individuals in prepared population
+
+    public RouletteWheelSelection() {
+        this.cumulativeFitnesses = new double[0];
+        this.size = 0;
+    }
+
+    @Override
+    public void prepare(List<Chromosome> population) {
+        size = population.size();
+        if (cumulativeFitnesses.length < size) {
+            cumulativeFitnesses = new double[size];
+        }
+
+        double totalFitness = 0.0;
+        for (int i = 0; i < size; i++) {
+            totalFitness += population.get(i).getFitness();
+            cumulativeFitnesses[i] = totalFitness;
+        }
+    }
+
+    @Override
+    public int select(RandomGenerator rng) {
+        return searchCumulative(cumulativeFitnesses, size, rng.nextDouble(cumulativeFitnesses[size - 1]));
+    }
+
+    /**
+     * helper method to find first index whose cumulative
+     * value is greater than {@code randomValue}
+     *
+     * @param cumulativeValues non-decreasing prefix sums
+     * @param size             number of prefix sums in use
+     * @param randomValue      value in range 0 to last prefix sum
+     * @return index selected by randomValue
+     */
+    static int searchCumulative(double[] cumulativeValues, int size, double randomValue) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeValues[mid] > randomValue) {
+                high = mid;
+            }
+
+            else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public SelectionStrategy newInstance() {
+        return new RouletteWheelSelection();
+    }
+
+    @Override
+    public String toString() {
+        return "RouletteWheelSelection";
+    }
+
+}
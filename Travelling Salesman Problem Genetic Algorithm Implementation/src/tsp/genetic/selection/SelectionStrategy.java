@@ -0,0 +1,44 @@
+package tsp.genetic.selection;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * interface for parent selection strategies. Strategy is
+ * prepared once per generation from current population, then
+ * individuals are selected by their index in population without
+ * allocating. After preparation {@code select} only reads prepared
+ * data, so it can be called concurrently as long as each thread
+ * uses its own random number generator
+ */
+public interface SelectionStrategy {
+
+    /**
+     * method to precompute selection data for {@code population},
+     * must be called whenever population changes
+     *
+     * @param population current population
+     */
+    void prepare(List<Chromosome> population);
+
+    /**
+     * method to select an individual from population
+     * given to last {@code prepare} call
+     *
+     * @param rng random number generator to be used
+     * @return index of selected individual in population
+     */
+    int select(RandomGenerator rng);
+
+    /**
+     * method to create a strategy with the same parameters and no
+     * prepared data, used to give each context manager its own strategy
+     * as prepared data of a strategy cannot be shared
+     *
+     * @return new SelectionStrategy object of the same kind
+     */
+    SelectionStrategy newInstance();
+
+}
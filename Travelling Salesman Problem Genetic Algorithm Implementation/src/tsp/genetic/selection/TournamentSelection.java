@@ -0,0 +1,69 @@
+package tsp.genetic.selection;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import tsp.genetic.entitites.Chromosome;
+
+/**
+ * class that implements tournament selection, {@code tournamentSize}
+ * individuals are sampled uniformly with replacement and the one
+ * having highest fitness is selected, so selecting an individual is
+ * O(tournamentSize) regardless of population size
+ */
+public class TournamentSelection implements SelectionStrategy {
+
+    private int tournamentSize; // number of individuals competing in each tournament
+    private double[] fitnesses; // fitness values of prepared population
+    private int size; // number of individuals in prepared population
+
+    public TournamentSelection(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("Tournament size must be at least 1 !!");
+        }
+
+        this.tournamentSize = tournamentSize;
+        this.fitnesses = new double[0];
+        this.size = 0;
+    }
+
+    public int getTournamentSize() {
+        return this.tournamentSize;
+    }
+
+    @Override
+    public void prepare(List<Chromosome> population) {
+        size = population.size();
+        if (fitnesses.length < size) {
+            fitnesses = new double[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            fitnesses[i] = population.get(i).getFitness();
+        }
+    }
+
+    @Override
+    public int select(RandomGenerator rng) {
+        int winner = rng.nextInt(size);
+        for (int i = 1; i < tournamentSize; i++) {
+            int competitor = rng.nextInt(size);
+            if (fitnesses[competitor] > fitnesses[winner]) {
+                winner = competitor;
+            }
+        }
+
+        return winner;
+    }
+
+    @Override
+    public SelectionStrategy newInstance() {
+        return new TournamentSelection(tournamentSize);
+    }
+
+    @Override
+    public String toString() {
+        return "TournamentSelection(tournament size: " + this.tournamentSize + ")";
+    }
+
+}
@@ -0,0 +1,524 @@
+package tsp.genetic.simulator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tsp.genetic.algorithm.TSPGA;
+import tsp.genetic.algorithm.TerminationCriteria;
+import tsp.genetic.algorithm.TerminationReason;
+import tsp.genetic.context.CrossoverManager;
+import tsp.genetic.context.CrossoverType;
+import tsp.genetic.context.GAContextManager;
+import tsp.genetic.context.MutationManager;
+import tsp.genetic.distance.DistanceBackend;
+import tsp.genetic.distance.DistanceMetric;
+import tsp.genetic.entitites.TSPInstance;
+import tsp.genetic.fileio.FileIO;
+import tsp.genetic.localsearch.LocalSearchType;
+
+/**
+ * TSPBatchRunner class is a headless command line runner
+ * that runs genetic algorithm with independent seeds several times
+ * concurrently and reports statistics of the best tour lengths found.
+ * It does not depend on JavaFX, so it can be used for parameter sweeps
+ * on machines without a display, e.g.
+ *
+ * <pre>
+ * java -cp bin tsp.genetic.simulator.TSPBatchRunner --instance att48TSP.csv --metric ATT
+ *         --generations 50 --population 150 --runs 100 --format json
+ * </pre>
+ *
+ * Runs can be limited by wall-clock time, gap to optimum or stagnation
+ * as well, e.g. {@code --generations 0 --time-limit 2 --target-gap 0}
+ * runs until optimum is found or 2 seconds have passed
+ */
+public class TSPBatchRunner {
+
+    // known optimal tour lengths of TSPLIB instances, used if --optimum is not given
+    private static final Map<String, Double> KNOWN_OPTIMA = Map.of("att48", 10628.0, "att48TSP", 10628.0,
+            "berlin52", 7542.0, "berlin52TSP", 7542.0);
+
+    private String instancePath; // path to csv or TSPLIB file of problem instance
+    private DistanceMetric metric; // distance metric used if instance file does not specify one
+    private DistanceBackend backend; // backend keeping distances shared by all runs
+    private int generations; // maximum number of generations of each run, 0 means no limit
+    private double timeLimitSeconds; // wall-clock time limit of each run, 0 means no limit
+    private double targetGapPercent; // gap to optimum at which a run stops, NaN means no target
+    private int stagnationLimit; // generations without improvement after which a run stops, 0 means no limit
+    private int populationSize; // number of individuals exist in population
+    private double crossoverRate; // crossover probability
+    private CrossoverType crossoverType; // crossover type applied, null picks a classical type at random
+    private double mutationRate; // mutation probability
+    private boolean performLocalSearch; // whether local search is applied to children
+    private LocalSearchType localSearchType; // type of local search applied to children
+    private int eliteCount; // number of best individuals improved by Lin-Kernighan style local search
+    private boolean eliminateDuplicates; // whether duplicate tours are rejected
+    private int localSearchCacheSize; // number of cached local search results, negative means default
+    private int runs; // number of independent runs
+    private int threads; // number of runs executed concurrently
+    private long seed; // seed from which seed of each run is derived
+    private double optimum; // known optimal tour length, NaN if unknown
+    private String format; // output format, csv or json
+    private String outputPath; // file results are written to, null means standard output
+
+    public TSPBatchRunner() {
+        this.instancePath = null;
+        this.metric = DistanceMetric.EUC_2D;
+        this.backend = DistanceBackend.AUTO;
+        this.generations = 50;
+        this.timeLimitSeconds = 0;
+        this.targetGapPercent = Double.NaN;
+        this.stagnationLimit = 0;
+        this.populationSize = 150;
+        this.crossoverRate = 0.9;
+        this.crossoverType = null;
+        this.mutationRate = 0.3;
+        this.performLocalSearch = true;
+        this.localSearchType = LocalSearchType.TWO_OPT;
+        this.eliteCount = 0;
+        this.eliminateDuplicates = true;
+        this.localSearchCacheSize = -1;
+        this.runs = 30;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.seed = 1;
+        this.optimum = Double.NaN;
+        this.format = "csv";
+        this.outputPath = null;
+    }
+
+    public static void main(String[] args) {
+        TSPBatchRunner batchRunner = new TSPBatchRunner();
+
+        try {
+            batchRunner.parseArguments(args);
+        }
+
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+
+        try {
+            batchRunner.run();
+        }
+
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+
+        catch (IOException e) {
+            System.err.println("Batch run failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * method to parse command line arguments given as
+     * {@code --option value} pairs
+     *
+     * @param args command line arguments
+     */
+    public void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--help")) {
+                throw new IllegalArgumentException("Usage of TSPBatchRunner:");
+            }
+
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of option " + option + " !!");
+            }
+            String value = args[++i];
+
+            try {
+                switch (option) {
+                    case "--instance":
+                        instancePath = value;
+                        break;
+                    case "--metric":
+                        metric = DistanceMetric.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--distance-backend":
+                        backend = DistanceBackend.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--generations":
+                        generations = Integer.parseInt(value);
+                        break;
+                    case "--time-limit":
+                        timeLimitSeconds = Double.parseDouble(value);
+                        break;
+                    case "--target-gap":
+                        targetGapPercent = Double.parseDouble(value);
+                        break;
+                    case "--stagnation":
+                        stagnationLimit = Integer.parseInt(value);
+                        break;
+                    case "--population":
+                        populationSize = Integer.parseInt(value);
+                        break;
+                    case "--crossover-rate":
+                        crossoverRate = Double.parseDouble(value);
+                        break;
+                    case "--crossover":
+                        crossoverType = value.equalsIgnoreCase("RANDOM") ? null
+                                : CrossoverType.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--mutation-rate":
+                        mutationRate = Double.parseDouble(value);
+                        break;
+                    case "--local-search":
+                        performLocalSearch = parseBoolean(value);
+                        break;
+                    case "--local-search-type":
+                        localSearchType = LocalSearchType.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--elite":
+                        eliteCount = Integer.parseInt(value);
+                        break;
+                    case "--eliminate-duplicates":
+                        eliminateDuplicates = parseBoolean(value);
+                        break;
+                    case "--local-search-cache":
+                        localSearchCacheSize = Integer.parseInt(value);
+                        break;
+                    case "--runs":
+                        runs = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--optimum":
+                        optimum = Double.parseDouble(value);
+                        break;
+                    case "--format":
+                        format = value.toLowerCase(Locale.ROOT);
+                        break;
+                    case "--output":
+                        outputPath = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option + " !!");
+                }
+            }
+
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value " + value + " of option " + option + " !!");
+            }
+        }
+
+        if (instancePath == null) {
+            throw new IllegalArgumentException("Option --instance is required !!");
+        }
+
+        if (!format.equals("csv") && !format.equals("json")) {
+            throw new IllegalArgumentException("Option --format must be csv or json !!");
+        }
+
+        if (generations < 0 || timeLimitSeconds < 0 || stagnationLimit < 0 || targetGapPercent < 0) {
+            throw new IllegalArgumentException(
+                    "Options --generations, --time-limit, --target-gap and --stagnation must not be negative !!");
+        }
+
+        if (generations == 0 && timeLimitSeconds == 0 && stagnationLimit == 0) {
+            throw new IllegalArgumentException(
+                    "Runs without --generations limit need --time-limit or --stagnation to stop !!");
+        }
+
+        if (populationSize < 2 || runs < 1 || threads < 1) {
+            throw new IllegalArgumentException(
+                    "Options --runs and --threads must be positive, --population at least 2 !!");
+        }
+    }
+
+    /**
+     * method to run genetic algorithm {@code runs} times on a fixed
+     * thread pool and write statistics of results. Problem instance and
+     * its distances are shared by all runs, each run has its own population
+     * and a seed derived from batch seed
+     *
+     * @throws IOException              if instance cannot be loaded or results cannot be written
+     * @throws IllegalArgumentException if target gap is given but optimum is unknown
+     */
+    public void run() throws IOException {
+        Path path = Paths.get(instancePath);
+        TSPInstance instance = FileIO.loadInstance(path, metric);
+        if (Double.isNaN(optimum)) {
+            optimum = KNOWN_OPTIMA.getOrDefault(instance.getName(), Double.NaN);
+        }
+
+        if (!Double.isNaN(targetGapPercent) && Double.isNaN(optimum)) {
+            throw new IllegalArgumentException("Option --target-gap needs --optimum for instance " + instance.getName()
+                    + " !!");
+        }
+
+        GAContextManager baseContextManager = new GAContextManager(instance, backend);
+        baseContextManager.setLocalSearchType(localSearchType);
+        baseContextManager.setEliminateDuplicates(eliminateDuplicates);
+        if (localSearchCacheSize >= 0) {
+            baseContextManager.setLocalSearchCacheSize(localSearchCacheSize);
+        }
+        SplittableRandom seedGenerator = new SplittableRandom(seed);
+        List<Callable<double[]>> tasks = new ArrayList<>(runs);
+        for (int r = 0; r < runs; r++) {
+            long runSeed = seedGenerator.nextLong();
+            tasks.add(() -> runOnce(baseContextManager, runSeed));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, runs));
+        double[] bestTourLengths = new double[runs];
+        double[] runTimes = new double[runs];
+        int[] generationsRun = new int[runs];
+        TerminationReason[] terminationReasons = new TerminationReason[runs];
+        long startTime = System.nanoTime();
+
+        try {
+            List<Future<double[]>> results = executor.invokeAll(tasks);
+            for (int r = 0; r < runs; r++) {
+                double[] result = results.get(r).get();
+                bestTourLengths[r] = result[0];
+                runTimes[r] = result[1];
+                generationsRun[r] = (int) result[2];
+                terminationReasons[r] = TerminationReason.values()[(int) result[3]];
+            }
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running batch !!", e);
+        }
+
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Batch run failed !!", e.getCause());
+        }
+
+        finally {
+            executor.shutdownNow();
+        }
+
+        double wallClockSeconds = (System.nanoTime() - startTime) / 1e9;
+        long totalGenerations = 0;
+        for (int generationCount : generationsRun) {
+            totalGenerations += generationCount;
+        }
+
+        double generationsPerSecond = totalGenerations / wallClockSeconds;
+        String report = format.equals("json")
+                ? formatJSON(instance, bestTourLengths, runTimes, generationsRun, terminationReasons, wallClockSeconds,
+                        generationsPerSecond)
+                : formatCSV(instance, bestTourLengths, wallClockSeconds, generationsPerSecond);
+
+        if (outputPath == null) {
+            System.out.print(report);
+        }
+
+        else {
+            Files.writeString(Paths.get(outputPath), report);
+        }
+    }
+
+    /**
+     * method to run genetic algorithm once on its own copy of context manager
+     *
+     * @param baseContextManager context manager whose problem instance to be shared
+     * @param runSeed            seed of run
+     * @return best tour length found, run time in seconds, number of
+     *         generations evolved and ordinal of termination reason
+     */
+    private double[] runOnce(GAContextManager baseContextManager, long runSeed) {
+        long runStart = System.nanoTime();
+        GAContextManager contextManager = new GAContextManager(baseContextManager);
+        TSPGA tspGeneticAlgorithm = new TSPGA(contextManager, new CrossoverManager(crossoverRate),
+                new MutationManager(mutationRate));
+        tspGeneticAlgorithm.setVerbose(false);
+        tspGeneticAlgorithm.setSeed(runSeed);
+        tspGeneticAlgorithm.setCrossoverType(crossoverType);
+        tspGeneticAlgorithm.setEliteCount(eliteCount);
+        TerminationCriteria criteria = new TerminationCriteria(generations);
+        criteria.setTimeLimitMillis(Math.round(timeLimitSeconds * 1000));
+        criteria.setStagnationLimit(stagnationLimit);
+        if (!Double.isNaN(targetGapPercent)) {
+            criteria.setTargetGap(optimum, targetGapPercent);
+        }
+
+        double bestTourLength = tspGeneticAlgorithm.runGeneticAlgorithm(populationSize, performLocalSearch, criteria,
+                null).getTourLength();
+        return new double[] { bestTourLength, (System.nanoTime() - runStart) / 1e9,
+                tspGeneticAlgorithm.getGenerationsRun(), tspGeneticAlgorithm.getTerminationReason().ordinal() };
+    }
+
+    /**
+     * method to format summary as a csv header and a single row, so
+     * that rows of several batches can be appended to the same file
+     */
+    private String formatCSV(TSPInstance instance, double[] bestTourLengths, double wallClockSeconds,
+            double generationsPerSecond) {
+        double[] statistics = computeStatistics(bestTourLengths);
+        StringBuilder csv = new StringBuilder();
+        csv.append("instance,generations,timeLimitSeconds,targetGapPercent,stagnation,population,crossoverRate,")
+                .append("crossover,mutationRate,localSearch,localSearchType,elite,eliminateDuplicates,runs,seed,")
+                .append("mean,median,stddev,best,worst,optimum,meanGapPercent,bestGapPercent,wallClockSeconds,")
+                .append("generationsPerSecond\n");
+        csv.append(String.format(Locale.ROOT,
+                "%s,%d,%s,%s,%d,%d,%s,%s,%s,%b,%s,%d,%b,%d,%d,%s,%s,%s,%s,%s,%s,%s,%s,%.3f,%.1f%n",
+                instance.getName(), generations, timeLimitSeconds, targetGapPercent, stagnationLimit, populationSize,
+                crossoverRate, crossoverName(), mutationRate, performLocalSearch, localSearchType, eliteCount,
+                eliminateDuplicates, runs, seed, statistics[0], statistics[1], statistics[2], statistics[3],
+                statistics[4], optimum, gapPercent(statistics[0]), gapPercent(statistics[3]), wallClockSeconds,
+                generationsPerSecond));
+
+        return csv.toString();
+    }
+
+    /**
+     * method to format configuration, summary and best tour
+     * length, run time, generations and termination reason of each
+     * run as a JSON object
+     */
+    private String formatJSON(TSPInstance instance, double[] bestTourLengths, double[] runTimes,
+            int[] generationsRun, TerminationReason[] terminationReasons, double wallClockSeconds,
+            double generationsPerSecond) {
+        double[] statistics = computeStatistics(bestTourLengths);
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"instance\": \"").append(instance.getName().replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\",\n");
+        json.append(String.format(Locale.ROOT,
+                "  \"config\": {\"generations\": %d, \"timeLimitSeconds\": %s, \"targetGapPercent\": %s, "
+                        + "\"stagnation\": %d, \"population\": %d, \"crossoverRate\": %s, "
+                        + "\"crossover\": \"%s\", \"mutationRate\": %s, \"localSearch\": %b, "
+                        + "\"localSearchType\": \"%s\", \"elite\": %d, \"eliminateDuplicates\": %b, \"runs\": %d, "
+                        + "\"threads\": %d, \"seed\": %d},%n",
+                generations, timeLimitSeconds, toJSON(targetGapPercent), stagnationLimit, populationSize,
+                crossoverRate, crossoverName(), mutationRate, performLocalSearch,
+                localSearchType, eliteCount, eliminateDuplicates, runs, threads, seed));
+        json.append(String.format(Locale.ROOT,
+                "  \"summary\": {\"mean\": %s, \"median\": %s, \"stddev\": %s, \"best\": %s, \"worst\": %s, "
+                        + "\"optimum\": %s, \"meanGapPercent\": %s, \"bestGapPercent\": %s, "
+                        + "\"wallClockSeconds\": %.3f, \"generationsPerSecond\": %.1f},%n",
+                statistics[0], statistics[1], statistics[2], statistics[3], statistics[4], toJSON(optimum),
+                toJSON(gapPercent(statistics[0])), toJSON(gapPercent(statistics[3])), wallClockSeconds,
+                generationsPerSecond));
+        json.append("  \"runs\": [");
+        for (int r = 0; r < bestTourLengths.length; r++) {
+            json.append((r == 0) ? "\n" : ",\n");
+            json.append(String.format(Locale.ROOT,
+                    "    {\"bestTourLength\": %s, \"seconds\": %.3f, \"generations\": %d, "
+                            + "\"terminationReason\": \"%s\"}",
+                    bestTourLengths[r], runTimes[r], generationsRun[r], terminationReasons[r]));
+        }
+        json.append("\n  ]\n}\n");
+
+        return json.toString();
+    }
+
+    /**
+     * method to compute mean, median, sample standard deviation,
+     * minimum and maximum of tour lengths
+     *
+     * @param tourLengths best tour length of each run
+     * @return array of mean, median, stddev, best and worst
+     */
+    private static double[] computeStatistics(double[] tourLengths) {
+        double[] sorted = tourLengths.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+
+        double mean = 0.0;
+        for (double tourLength : sorted) {
+            mean += tourLength;
+        }
+        mean /= n;
+
+        double squaredDeviations = 0.0;
+        for (double tourLength : sorted) {
+            squaredDeviations += (tourLength - mean) * (tourLength - mean);
+        }
+
+        double median = (n % 2 == 1) ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+        double stddev = (n > 1) ? Math.sqrt(squaredDeviations / (n - 1)) : 0.0;
+
+        return new double[] { mean, median, stddev, sorted[0], sorted[n - 1] };
+    }
+
+    /**
+     * method to name crossover type of runs, RANDOM if
+     * a classical crossover type is picked at random
+     */
+    private String crossoverName() {
+        return (crossoverType != null) ? crossoverType.name() : "RANDOM";
+    }
+
+    /**
+     * method to compute percentage gap of a tour length to known optimum
+     */
+    private double gapPercent(double tourLength) {
+        return 100.0 * (tourLength - optimum) / optimum;
+    }
+
+    /**
+     * helper method to write unknown values as JSON null
+     */
+    private static String toJSON(double value) {
+        return Double.isNaN(value) ? "null" : Double.toString(value);
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new NumberFormatException(value);
+        }
+
+        return Boolean.parseBoolean(value);
+    }
+
+    private static void printUsage() {
+        PrintStream err = System.err;
+        err.println("java tsp.genetic.simulator.TSPBatchRunner --instance <csv or tsp file> [options]");
+        err.println("  --metric <EUC_2D|ATT|CEIL_2D|GEO>  metric of csv instances (default EUC_2D)");
+        err.println("  --distance-backend <backend>       AUTO, FULL_MATRIX, TRIANGULAR, ON_THE_FLY, MAPPED or LAZY");
+        err.println("                                     (default AUTO)");
+        err.println("  --generations <n>                  maximum generations of each run, 0 means no limit");
+        err.println("                                     (default 50)");
+        err.println("  --time-limit <seconds>             wall-clock time limit of each run (default none)");
+        err.println("  --target-gap <percent>             stop a run within given gap to optimum (default none)");
+        err.println("  --stagnation <k>                   stop a run after k generations without improvement");
+        err.println("                                     (default none)");
+        err.println("  --population <n>                   population size (default 150)");
+        err.println("  --crossover-rate <p>               crossover probability (default 0.9)");
+        err.println("  --crossover <type>                 RANDOM, ORDER_ONE, PARTIALLY_MAPPED, CYCLE or EDGE_ASSEMBLY");
+        err.println("                                     (default RANDOM)");
+        err.println("  --mutation-rate <p>                mutation probability (default 0.3)");
+        err.println("  --local-search <true|false>        apply local search (default true)");
+        err.println("  --local-search-type <type>         TWO_OPT, OR_OPT, OR_THREE_OPT, VND or LIN_KERNIGHAN");
+        err.println("                                     (default TWO_OPT)");
+        err.println("  --elite <k>                        best individuals improved by Lin-Kernighan (default 0)");
+        err.println("  --eliminate-duplicates <true|false> reject tours already in population (default true)");
+        err.println("  --local-search-cache <n>           cached local search results, 0 disables cache");
+        err.println("                                     (default up to 1024 depending on instance size)");
+        err.println("  --runs <n>                         number of independent runs (default 30)");
+        err.println("  --threads <n>                      runs executed concurrently (default number of cores)");
+        err.println("  --seed <n>                         seed from which run seeds are derived (default 1)");
+        err.println("  --optimum <length>                 known optimal tour length used for gap");
+        err.println("  --format <csv|json>                output format (default csv)");
+        err.println("  --output <file>                    output file (default standard output)");
+    }
+
+}
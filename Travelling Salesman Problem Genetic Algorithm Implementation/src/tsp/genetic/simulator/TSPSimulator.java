@@ -1,6 +1,8 @@
 package tsp.genetic.simulator;
 
-import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import tsp.genetic.algorithm.ProgressPublisher;
 import tsp.genetic.algorithm.TSPGA;
 import tsp.genetic.animator.TSPAnimator;
 import tsp.genetic.context.CrossoverManager;
@@ -46,30 +48,8 @@ import tsp.genetic.context.MutationManager;
 public class TSPSimulator {
     public static void main(String[] args) { // Plot fitnesses and iterations
 
-        /*
-         * double averageTotalDistance = 0.0;
-         * for (int i = 0; i < 100; i++) {
-         * // creating instances of ContextManager, CrossoverManager,
-         * // and MutationManager
-         * GAContextManager contextManager = new GAContextManager();
-         * CrossoverManager crossoverManager = new CrossoverManager(0.9);
-         * MutationManager mutationManager = new MutationManager(0.3);
-         * 
-         * // creating an instance of TSPGA to run genetic algorithm
-         * TSPGA tspGeneticAlgorithm = new TSPGA(contextManager, crossoverManager,
-         * mutationManager);
-         * tspGeneticAlgorithm.runGeneticAlgorithm(50,150, true);
-         * double fitnessInCurrentRun = contextManager.getFitnesses().getLast();
-         * 
-         * averageTotalDistance += (1 / fitnessInCurrentRun);
-         * }
-         * 
-         * averageTotalDistance = averageTotalDistance / 100;
-         * System.out.
-         * print("Average minimum distance over 100 runs of genetic algorithm: " +
-         * averageTotalDistance);
-         */
-        
+        // multiple runs with statistics are done headless via TSPBatchRunner class
+
         // creating instances of ContextManager, CrossoverManager,
         // and MutationManager
         GAContextManager contextManager = new GAContextManager();
@@ -78,12 +58,18 @@ public class TSPSimulator {
 
         // creating an instance of TSPGA to run genetic algorithm
         TSPGA tspGeneticAlgorithm = new TSPGA(contextManager, crossoverManager, mutationManager);
-        tspGeneticAlgorithm.runGeneticAlgorithm(50, 150, true);
 
-        TSPAnimator.setData(contextManager.getBestRoutes(), contextManager.getFitnesses(),
-                contextManager.getCoordinates());
-        // launching JavaFX application to simulate best
-        Application.launch(TSPAnimator.class, args);
+        // animator renders best route while genetic algorithm runs, progress
+        // events are handed over asynchronously so the run never waits for it
+        ProgressPublisher progressPublisher = new ProgressPublisher(true);
+        TSPAnimator animator = new TSPAnimator(contextManager.getInstance());
+        progressPublisher.subscribe(animator);
+        tspGeneticAlgorithm.addProgressListener(progressPublisher);
+
+        // starting JavaFX on its own thread, window stays open after the run
+        Platform.startup(() -> animator.show(new Stage()));
+        tspGeneticAlgorithm.runGeneticAlgorithm(50, 150, true);
+        progressPublisher.close();
 
     }
 }